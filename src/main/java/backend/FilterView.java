@@ -0,0 +1,239 @@
+package backend;
+
+import backend.resource.IssueIndex;
+import backend.resource.Model;
+import backend.resource.MultiModel;
+import backend.resource.TurboIssue;
+import filter.expression.CompiledFilter;
+import filter.expression.CompiledSort;
+import filter.expression.FilterExpression;
+import filter.expression.Qualifier;
+import filter.expression.SharedEvaluation;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * A materialized view of the issues satisfying a filter expression: holds the sorted result of the
+ * filter as of the last update, along with the repos and change counts of the models it was computed from.
+ *
+ * A view updated again with the same snapshot of the models (see {@link MultiModel.Snapshot#getVersion()})
+ * returns its result as it is, unless the filter depends on more than the models, e.g. the time.
+ *
+ * On update, if the filter and the resources of every repo (labels, milestones and users) are the same as
+ * before, only the issues which changed since the last update are re-evaluated and patched into the result.
+ * An issue has changed if it was changed through its model (see {@link Model#getIssuesChangedSince(int)}),
+ * or if its model was replaced and the issue is not carried over as the same instance (as
+ * {@link TurboIssue#reconcile(List, List)} does for issues which were not updated). Otherwise, the whole
+ * result is recomputed.
+ *
+ * The models are only held weakly, so that views do not keep models which were replaced or removed
+ * alive. If a model has been collected since the last update, the whole result is recomputed.
+ *
+ * Issues which compare equal under the sort order are ordered by their position in the models, so that
+ * the result is the same whether it was patched or recomputed.
+ *
+ * For filters with a count qualifier, only the first issues up to the count are selected and held.
+ */
+public class FilterView {
+
+    private final FilterExpression source;
+
+    // State as of the last update; the filter is absent before the first update
+    private Optional<CompiledFilter> compiledFilter = Optional.empty();
+    private long version = -1;
+    private List<String> repoIds = new ArrayList<>();
+    private Map<String, WeakReference<Model>> models = new HashMap<>();
+    private Map<String, Integer> changeCounts = new HashMap<>();
+    private List<TurboIssue> matchingIssues = new ArrayList<>();
+
+    // False if only the first few matching issues are held, as the filter has a count qualifier
+    private boolean isComplete = true;
+
+    public FilterView(FilterExpression source) {
+        this.source = source;
+    }
+
+    public FilterExpression getSource() {
+        return source;
+    }
+
+    /**
+     * Brings the view up to date with a snapshot of the models, and returns the issues satisfying the filter,
+     * sorted and counted.
+     *
+     * @param snapshot The current models.
+     * @param filter The filter expression of this view, compiled against the snapshot.
+     * @param sortOrder The order to sort issues in.
+     * @param shared Evaluation state shared with the other views updated along with this one.
+     * @return The issues to show for this view.
+     */
+    public synchronized List<TurboIssue> update(MultiModel.Snapshot snapshot, CompiledFilter filter,
+                                                CompiledSort sortOrder, SharedEvaluation shared) {
+        assert filter.getSource().equals(source);
+
+        if (isUpToDate(snapshot, filter)) {
+            return new ArrayList<>(matchingIssues);
+        }
+
+        List<Model> repoModels = snapshot.getModels();
+        Optional<Integer> count = Qualifier.determineCount(filter.getExpression());
+
+        Optional<List<TurboIssue>> patched = canBePatched(filter, repoModels)
+            ? getChangedIssues(repoModels).flatMap(changes -> patch(repoModels, filter, changes,
+                sortOrder.asComparator().thenComparing(modelOrder(repoModels))))
+            : Optional.empty();
+
+        List<TurboIssue> result;
+        boolean isResultComplete;
+        if (patched.isPresent()) {
+            result = patched.get();
+            isResultComplete = isComplete;
+        } else {
+            // Matching issues are in model order, which sorting keeps for ties
+            List<TurboIssue> allMatchingIssues = filter.getMatchingIssues(repoModels, shared);
+            result = count.isPresent()
+                ? sortOrder.sortFirst(allMatchingIssues, count.get())
+                : sortOrder.sort(allMatchingIssues);
+            isResultComplete = result.size() == allMatchingIssues.size();
+        }
+        if (count.isPresent() && result.size() > count.get()) {
+            result = new ArrayList<>(result.subList(0, count.get()));
+            isResultComplete = false;
+        }
+
+        compiledFilter = Optional.of(filter);
+        version = snapshot.getVersion();
+        repoIds = repoModels.stream().map(Model::getRepoId).collect(Collectors.toList());
+        models = repoModels.stream().collect(Collectors.toMap(Model::getRepoId, WeakReference::new));
+        changeCounts = repoModels.stream().collect(Collectors.toMap(Model::getRepoId, Model::getChangeCount));
+        matchingIssues = result;
+        isComplete = isResultComplete;
+
+        return new ArrayList<>(result);
+    }
+
+    private boolean isUpToDate(MultiModel.Snapshot snapshot, CompiledFilter filter) {
+        return compiledFilter.isPresent()
+            && version == snapshot.getVersion()
+            && filter.canBeMaintainedIncrementally()
+            && compiledFilter.get().getExpression().equals(filter.getExpression());
+    }
+
+    private boolean canBePatched(CompiledFilter filter, List<Model> repoModels) {
+        return compiledFilter.isPresent()
+            && filter.canBeMaintainedIncrementally()
+            && compiledFilter.get().getExpression().equals(filter.getExpression())
+            && Objects.equals(compiledFilter.get().getDefaultRepo(), filter.getDefaultRepo())
+            // Ties are ordered by repo order, which is that of the models given
+            && repoModels.stream().map(Model::getRepoId).collect(Collectors.toList()).equals(repoIds);
+    }
+
+    /**
+     * Returns true if the view was last updated with the models of the given repos only.
+     *
+     * @param reposInUse The lower-cased ids of the repos.
+     */
+    public synchronized boolean coversOnly(Set<String> reposInUse) {
+        return repoIds.stream().allMatch(repoId -> reposInUse.contains(repoId.toLowerCase()));
+    }
+
+    /**
+     * Returns the ids of the issues in each repo which changed since the last update, or nothing if
+     * the resources of some repo changed or its previous model was collected, in which case the view
+     * should be recomputed.
+     */
+    private Optional<Map<String, Set<Integer>>> getChangedIssues(List<Model> repoModels) {
+        Map<String, Set<Integer>> changes = new HashMap<>();
+        for (Model current : repoModels) {
+            Model previous = models.get(current.getRepoId()).get();
+            if (previous == null) {
+                return Optional.empty();
+            }
+            Set<Integer> changed = previous.getIssuesChangedSince(changeCounts.get(current.getRepoId()));
+
+            if (current != previous) { // NOPMD: a replaced model is a different instance
+                if (!current.getLabels().equals(previous.getLabels())
+                    || !current.getMilestones().equals(previous.getMilestones())
+                    || !current.getUsers().equals(previous.getUsers())) {
+                    return Optional.empty();
+                }
+                // Updates report the issues they replaced; other new versions are compared by identity
+                changed.addAll(current.getIssuesUpdatedFrom(previous)
+                    .orElseGet(() -> getReplacedIssues(previous, current)));
+                changed.addAll(current.getIssuesChangedSince(0));
+            }
+            changes.put(current.getRepoId(), changed);
+        }
+        return Optional.of(changes);
+    }
+
+    /**
+     * Returns the ids of the issues which were added, removed or replaced between two versions of a model.
+     */
+    private static Set<Integer> getReplacedIssues(Model previous, Model current) {
+        IssueIndex previousIndex = previous.getIssueIndex();
+        IssueIndex currentIndex = current.getIssueIndex();
+        Set<Integer> replaced = new HashSet<>();
+
+        for (int i = 0; i < currentIndex.size(); i++) {
+            TurboIssue issue = currentIndex.getIssue(i);
+            Optional<Integer> previousOrdinal = previousIndex.getOrdinal(issue.getId());
+            if (!previousOrdinal.isPresent() || previousIndex.getIssue(previousOrdinal.get()) != issue) {
+                replaced.add(issue.getId());
+            }
+        }
+        for (int i = 0; i < previousIndex.size(); i++) {
+            int id = previousIndex.getIssue(i).getId();
+            if (!currentIndex.getOrdinal(id).isPresent()) {
+                replaced.add(id);
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Removes the changed issues from the current result, then re-evaluates each of them and inserts
+     * those which still satisfy the filter at their sorted positions.
+     *
+     * If only the first few matching issues are held and one of them is removed, the issues which should
+     * take its place are not known, so nothing is returned and the view should be recomputed.
+     */
+    private Optional<List<TurboIssue>> patch(List<Model> repoModels, CompiledFilter filter,
+                                             Map<String, Set<Integer>> changes, Comparator<TurboIssue> comparator) {
+        List<TurboIssue> result = matchingIssues.stream()
+            .filter(issue -> !changes.get(issue.getRepoId()).contains(issue.getId()))
+            .collect(Collectors.toList());
+        if (!isComplete && result.size() < matchingIssues.size()) {
+            return Optional.empty();
+        }
+
+        for (Model model : repoModels) {
+            IssueIndex index = model.getIssueIndex();
+            for (int id : changes.get(model.getRepoId())) {
+                Optional<TurboIssue> issue = index.getOrdinal(id).map(index::getIssue);
+                if (issue.isPresent() && filter.isSatisfiedBy(issue.get())) {
+                    int position = Collections.binarySearch(result, issue.get(), comparator);
+                    assert position < 0 : "Issue " + issue.get() + " is already in " + source;
+                    result.add(-(position + 1), issue.get());
+                }
+            }
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Orders issues by the order of their repos in the given list, then by their positions in their models.
+     */
+    private static Comparator<TurboIssue> modelOrder(List<Model> repoModels) {
+        Map<String, Integer> repoPositions = new HashMap<>();
+        Map<String, IssueIndex> indexes = new HashMap<>();
+        for (Model model : repoModels) {
+            repoPositions.put(model.getRepoId(), repoPositions.size());
+            indexes.put(model.getRepoId(), model.getIssueIndex());
+        }
+        return Comparator.comparingInt((TurboIssue issue) -> repoPositions.get(issue.getRepoId()))
+            .thenComparingInt(issue -> indexes.get(issue.getRepoId()).getOrdinal(issue.getId()).get());
+    }
+}
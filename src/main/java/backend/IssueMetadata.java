@@ -2,16 +2,28 @@ package backend;
 
 import github.TurboIssueEvent;
 import org.eclipse.egit.github.core.Comment;
+import org.eclipse.egit.github.core.User;
 
 import util.Utility;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-
+import java.util.RandomAccess;
+
+/**
+ * The events and comments of an issue, with properties computed from them.
+ *
+ * Instances are immutable. Their events and comments are held in unmodifiable lists, which derived
+ * instances (see {@link #invalidate()}, {@link #full(String)} and {@link #reconcile}) share rather than copy.
+ * Comments are kept without their bodies, as only their authors and times are shown or filtered on.
+ */
 public final class IssueMetadata {
 
+    // Unmodifiable, and possibly shared with other instances
     private final List<TurboIssueEvent> events;
     private final List<Comment> comments;
 
@@ -36,7 +48,7 @@ public final class IssueMetadata {
      * new issues.
      */
     public static IssueMetadata empty() {
-        return new IssueMetadata(new ArrayList<>(), new ArrayList<>(), false, "", "");
+        return new IssueMetadata(Collections.emptyList(), Collections.emptyList(), false, "", "");
     }
 
     /**
@@ -55,7 +67,7 @@ public final class IssueMetadata {
      */
     public static IssueMetadata intermediate(List<TurboIssueEvent> events, List<Comment> comments,
                                              String eventsETag, String commentsETag) {
-        return new IssueMetadata(events, comments, false, eventsETag, commentsETag);
+        return new IssueMetadata(share(events), compact(comments), false, eventsETag, commentsETag);
     }
 
     /**
@@ -75,9 +87,9 @@ public final class IssueMetadata {
                                    List<TurboIssueEvent> existingEvents, String existingETag) {
         List<TurboIssueEvent> newEvents;
         if (existingETag.equals(eventsETag)) {
-            newEvents = new ArrayList<>(existingEvents);
+            newEvents = share(existingEvents);
         } else {
-            newEvents = new ArrayList<>(events);
+            newEvents = events;
         }
         return new IssueMetadata(newEvents, comments, isLatest, eventsETag, commentsETag, nonSelfUpdatedAt, user);
     }
@@ -87,8 +99,8 @@ public final class IssueMetadata {
      */
     private IssueMetadata(List<TurboIssueEvent> events, List<Comment> comments,
                           boolean isLatest, String eventsETag, String commentsETag) {
-        this.events = new ArrayList<>(events);
-        this.comments = new ArrayList<>(comments);
+        this.events = events;
+        this.comments = comments;
         this.isLatest = isLatest;
         this.eventsETag = eventsETag;
         this.commentsETag = commentsETag;
@@ -114,8 +126,8 @@ public final class IssueMetadata {
     private IssueMetadata(List<TurboIssueEvent> events, List<Comment> comments,
                           boolean isLatest, String eventsETag, String commentsETag,
                           LocalDateTime nonSelfUpdatedAt, String user) {
-        this.events = new ArrayList<>(events);
-        this.comments = new ArrayList<>(comments);
+        this.events = events;
+        this.comments = comments;
         this.isLatest = isLatest;
         this.eventsETag = eventsETag;
         this.commentsETag = commentsETag;
@@ -125,6 +137,40 @@ public final class IssueMetadata {
         this.nonSelfCommentCount = countCommentsByOthers(comments, user);
     }
 
+    /**
+     * Returns an unmodifiable copy of the given list, or the list itself if it is already one
+     * held by some instance, e.g. as returned by {@link #getEvents()}.
+     */
+    private static <T> List<T> share(List<T> list) {
+        if (list.isEmpty()) {
+            return Collections.emptyList();
+        } else if (list instanceof SharedList) {
+            return list;
+        } else {
+            return new SharedList<>(list);
+        }
+    }
+
+    /**
+     * Returns the given comments without their bodies, keeping only their ids, authors' logins and times.
+     */
+    private static List<Comment> compact(List<Comment> comments) {
+        // Comments are only ever shared once compacted
+        if (comments instanceof SharedList) {
+            return comments;
+        }
+        List<Comment> result = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            Comment compacted = new Comment();
+            compacted.setId(comment.getId());
+            compacted.setCreatedAt(comment.getCreatedAt());
+            compacted.setUpdatedAt(comment.getUpdatedAt());
+            compacted.setUser(new User().setLogin(comment.getUser().getLogin()));
+            result.add(compacted);
+        }
+        return share(result);
+    }
+
     private static LocalDateTime computeNonSelfUpdatedAt(List<TurboIssueEvent> events, List<Comment> comments,
                                                          String user) {
         Date result = new Date(0);
@@ -171,12 +217,18 @@ public final class IssueMetadata {
         return String.format("%d events, %d comments", events.size(), comments.size());
     }
 
+    /**
+     * @return the events of the issue, as an unmodifiable list
+     */
     public List<TurboIssueEvent> getEvents() {
-        return new ArrayList<>(events);
+        return events;
     }
 
+    /**
+     * @return the comments of the issue, without their bodies, as an unmodifiable list
+     */
     public List<Comment> getComments() {
-        return new ArrayList<>(comments);
+        return comments;
     }
 
     public boolean isLatest() {
@@ -203,4 +255,27 @@ public final class IssueMetadata {
     public String toString() {
         return "Events: " + events.toString() + ", " + "comments: " + comments.toString();
     }
+
+    /**
+     * An unmodifiable list created by this class. Lists of this type are held by instances and shared
+     * between them as they are, while any other list, even if unmodifiable, is copied and compacted.
+     */
+    private static final class SharedList<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[] elements;
+
+        SharedList(List<T> list) {
+            this.elements = list.toArray();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            return (T) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+    }
 }
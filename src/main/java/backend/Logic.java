@@ -36,6 +36,7 @@ public class Logic {
     protected final Preferences prefs;
     private final RepoIO repoIO = TestController.createApplicationRepoIO();
     private final RepoOpControl repoOpControl = new RepoOpControl(repoIO);
+    private final ModelResidency residency;
 
     public LoginController loginController;
     public UpdateController updateController;
@@ -44,6 +45,7 @@ public class Logic {
         this.uiManager = uiManager;
         this.prefs = prefs;
         this.models = models.orElse(new MultiModel(prefs));
+        this.residency = new ModelResidency(prefs.getIdleRepoMemoryBudget(), prefs.isCompactIdleRepos());
 
         loginController = new LoginController(this);
         updateController = new UpdateController(this);
@@ -57,7 +59,8 @@ public class Logic {
         assert TestController.isTestMode();
         assert e.repoId != null;
 
-        List<Model> toReplace = models.toModels();
+        residency.discard(e.repoId);
+        List<Model> toReplace = new ArrayList<>(models.toModels());
 
         logger.info("Attempting to reset " + e.repoId);
         if (toReplace.remove(models.get(e.repoId))) {
@@ -111,6 +114,18 @@ public class Logic {
             return Futures.unit(false);
         }
         models.queuePendingRepository(repoId);
+
+        Optional<Model> idleModel = residency.reclaim(repoId);
+        if (idleModel.isPresent()) {
+            // Closed recently, so reopened as it was; the next refresh brings it up to date
+            logger.info("Reopening " + repoId + " from memory");
+            Platform.runLater(() -> UI.events.triggerEvent(new RepoOpeningEvent(repoId, isPrimaryRepository)));
+            models.addPending(idleModel.get());
+            refreshUI();
+            Platform.runLater(() -> UI.events.triggerEvent(new RepoOpenedEvent(repoId, isPrimaryRepository)));
+            return Futures.unit(true);
+        }
+
         return isRepositoryValid(repoId).thenCompose(valid -> {
             if (!valid) {
                 return Futures.unit(false);
@@ -158,17 +173,25 @@ public class Logic {
     }
 
     public CompletableFuture<Boolean> removeStoredRepository(String repoId) {
+        residency.discard(repoId);
         return repoOpControl.removeRepository(repoId);
     }
 
     /**
+     * Removes the models of repos not in use. They are kept idle for a while, within the memory
+     * budget in preferences, so that opening them again does not reload them from the store.
+     *
      * Recommended Pre-condition: normalize reposInUse to lower case
      *                           - using Utility.convertSetToLowerCase()
      */
     public void removeUnusedModels(Set<String> reposInUse) {
-        models.toModels().stream().map(Model::getRepoId)
-                .filter(repoId -> !reposInUse.contains(repoId.toLowerCase()))
-                .forEach(models::removeRepoModelById);
+        models.toModels().stream()
+                .filter(model -> !reposInUse.contains(model.getRepoId().toLowerCase()))
+                .forEach(model -> {
+                    models.removeRepoModelById(model.getRepoId());
+                    residency.retire(model);
+                });
+        updateController.removeUnusedFilterViews(reposInUse);
     }
 
     public ImmutablePair<Integer, Long> updateRemainingRate
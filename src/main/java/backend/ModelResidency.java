@@ -0,0 +1,129 @@
+package backend;
+
+import backend.resource.CompactModel;
+import backend.resource.Model;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the models of repos which are no longer used by any panel, so that opening them again,
+ * e.g. when switching back to a board, does not reload them from the store.
+ *
+ * Idle models are kept in order of last use, within a budget on their estimated memory
+ * (see {@link Model#getEstimatedSize()}). Beyond it, the least recently used are evicted,
+ * and are loaded from the store as usual when next opened.
+ *
+ * Optionally, idle models are kept as compact copies (see {@link CompactModel}), which hold less,
+ * so that more fit in the budget, but must be materialised again when reclaimed.
+ */
+public class ModelResidency {
+
+    private static final Logger logger = HTLog.get(ModelResidency.class);
+
+    // Keyed by lower-cased repo id, in order of retirement
+    private final Map<String, Entry> idle = new LinkedHashMap<>();
+    private long idleSize = 0;
+    private long budget;
+    private final boolean compact;
+
+    /**
+     * @param budget the estimated memory which idle models may hold, in bytes
+     */
+    public ModelResidency(long budget) {
+        this(budget, false);
+    }
+
+    /**
+     * @param budget the estimated memory which idle models may hold, in bytes
+     * @param compact whether idle models are kept as compact copies
+     */
+    public ModelResidency(long budget, boolean compact) {
+        this.budget = budget;
+        this.compact = compact;
+    }
+
+    public synchronized void setBudget(long budget) {
+        this.budget = budget;
+        evict();
+    }
+
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Keeps the model of a repo which is no longer used, evicting others if it does not fit.
+     */
+    public synchronized void retire(Model model) {
+        String key = model.getRepoId().toLowerCase();
+        discard(key);
+        Entry entry = compact ? new Entry(CompactModel.of(model)) : new Entry(model);
+        idle.put(key, entry);
+        idleSize += entry.size;
+        evict();
+    }
+
+    /**
+     * Takes back the idle model of a repo, if it is kept.
+     */
+    public synchronized Optional<Model> reclaim(String repoId) {
+        Entry entry = idle.remove(repoId.toLowerCase());
+        if (entry == null) {
+            return Optional.empty();
+        }
+        idleSize -= entry.size;
+        return Optional.of(entry.getModel());
+    }
+
+    /**
+     * Drops the idle model of a repo, if it is kept, e.g. because its stored data was removed.
+     */
+    public synchronized void discard(String repoId) {
+        reclaim(repoId);
+    }
+
+    public synchronized boolean isIdle(String repoId) {
+        return idle.containsKey(repoId.toLowerCase());
+    }
+
+    private void evict() {
+        Iterator<Entry> entries = idle.values().iterator();
+        while (idleSize > budget && entries.hasNext()) {
+            Entry entry = entries.next();
+            entries.remove();
+            idleSize -= entry.size;
+            logger.info("Evicted idle model of " + entry.repoId);
+        }
+    }
+
+    private static final class Entry {
+        private final String repoId;
+        private final Optional<Model> model;
+        private final Optional<CompactModel> compactModel;
+        // As estimated on retirement, so that the total stays consistent
+        private final long size;
+
+        Entry(Model model) {
+            this.repoId = model.getRepoId();
+            this.model = Optional.of(model);
+            this.compactModel = Optional.empty();
+            this.size = model.getEstimatedSize();
+        }
+
+        Entry(CompactModel compactModel) {
+            this.repoId = compactModel.getRepoId();
+            this.model = Optional.empty();
+            this.compactModel = Optional.of(compactModel);
+            this.size = compactModel.getEstimatedSize();
+        }
+
+        Model getModel() {
+            return model.orElseGet(() -> compactModel.get().toModel());
+        }
+    }
+}
@@ -6,7 +6,6 @@ import backend.interfaces.RepoStore;
 import backend.json.JSONStore;
 import backend.resource.Model;
 import backend.resource.TurboIssue;
-import backend.resource.serialization.SerializableModel;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.logging.log4j.Logger;
 import ui.UI;
@@ -28,7 +27,7 @@ public class RepoIO {
     private static final Logger logger = HTLog.get(RepoIO.class);
 
     private final RepoSource repoSource;
-    private final JSONStore jsonStore;
+    private final RepoStore jsonStore;
 
     private final List<String> storedRepos;
 
@@ -38,10 +37,10 @@ public class RepoIO {
      * Contructs a RepoIO providing IO operations on repositories, taking in various optional
      * parameters for repos source and storage which are useful for testing purposes.
      * @param repoSource optional source of repos. Default to GitHubSource if not present
-     * @param jsonStore optional storage for repos. Default to a new JSONStore if not present
+     * @param jsonStore optional storage for repos, e.g. a BinaryStore. Default to a new JSONStore if not present
      * @param storeDirectory optional directory for storing repos. Default value is in RepoStore.
      */
-    public RepoIO(Optional<RepoSource> repoSource, Optional<JSONStore> jsonStore,
+    public RepoIO(Optional<RepoSource> repoSource, Optional<RepoStore> jsonStore,
                   Optional<String> storeDirectory) {
         this.repoSource = repoSource.orElseGet(() -> new GitHubSource());
         storeDirectory.ifPresent((dir) -> RepoStore.changeDirectory(dir));
@@ -67,17 +66,14 @@ public class RepoIO {
         Optional<String> matchingRepoName = storedRepos.stream().filter(repoName ->
                 repoName.equalsIgnoreCase(repoId)).findFirst();
         if (matchingRepoName.isPresent()) {
-            // TODO avoid CI deadlock in the .exceptionally call. Explanation:
-            /* loadRepoFromStoreAsync will execute in jsonStore's single thread pool, and if
-             it has an exception then downloadRepoFromSourceBlocking will also run there. Eventually,
-             this results in jsonStore.saveRepository in updateModel being placed as another Task on the
-             same thread pool. However, since the current task is still carrying out and waiting for the second
-             task to complete, the program gets deadlocked on the CI.
-             One example of how this can happen is when storedRepos contains the repo name but the json was
-             deleted while the program is still running. */
+            // Should loading fail, e.g. if the stored repo was deleted while the program is running, it is
+            // downloaded instead. That is not waited for by the load task, whose repo the download saves to.
             String repoToLoad = matchingRepoName.get();
             return loadRepoFromStoreAsync(repoToLoad)
-                    .exceptionally(e -> downloadRepoFromSourceBlocking(repoToLoad));
+                    .handle((model, e) -> e == null
+                            ? CompletableFuture.completedFuture(model)
+                            : downloadRepoFromSourceAsync(repoToLoad))
+                    .thenCompose(future -> future);
         } else {
             return downloadRepoFromSourceAsync(repoId);
         }
@@ -108,17 +104,6 @@ public class RepoIO {
                 .exceptionally(withResult(new Model(repoId)));
     }
 
-    private Model downloadRepoFromSourceBlocking(String repoId) {
-        try {
-            return downloadRepoFromSourceAsync(repoId).get();
-        } catch (ExecutionException | InterruptedException e) {
-            logger.info("Error while downloading " + repoId);
-            logger.error(e.getLocalizedMessage());
-
-            return new Model(repoId);
-        }
-    }
-
     public CompletableFuture<Model> updateModel(Model model) {
         return updateModel(model, MAX_REDOWNLOAD_TRIES);
     }
@@ -127,10 +112,9 @@ public class RepoIO {
         return repoSource.updateModel(model)
             .thenApply(newModel -> {
                 boolean corruptedJson = false;
-                if (!model.equals(newModel)) {
+                if (!newModel.hasSameContentAs(model)) {
                     try {
-                        corruptedJson =
-                                jsonStore.saveRepository(newModel.getRepoId(), new SerializableModel(newModel)).get();
+                        corruptedJson = jsonStore.saveRepository(newModel.getRepoId(), newModel).get();
                     } catch (InterruptedException | ExecutionException ex) {
                         corruptedJson = true;
                     }
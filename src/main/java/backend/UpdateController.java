@@ -3,17 +3,24 @@ package backend;
 import backend.resource.Model;
 import backend.resource.MultiModel;
 import backend.resource.TurboIssue;
+import filter.expression.CompiledFilter;
+import filter.expression.CompiledSort;
 import filter.expression.FilterExpression;
 import filter.expression.Qualifier;
-import org.apache.logging.log4j.Logger;
 import filter.expression.QualifierType;
+import filter.expression.SharedEvaluation;
+import filter.expression.SortKey;
+import org.apache.logging.log4j.Logger;
 import ui.GuiElement;
 import util.Futures;
 import util.HTLog;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Manages the flow of logic during a data retrieval cycle from the repository source.
@@ -24,12 +31,40 @@ import java.util.stream.Collectors;
 public class UpdateController {
     private static final Logger logger = HTLog.get(UpdateController.class);
 
+    // Views of filters which are not shown any more are evicted once there are more than this many
+    private static final int MAX_FILTER_VIEWS = 64;
+
+    // Refreshes over at least this many issues in total are evaluated in parallel by default
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+
+    // Dedicated to filter evaluation, so that it neither competes with nor waits on other users of the common pool
+    private static final ForkJoinPool evaluationPool = new ForkJoinPool();
+
     private final Logic logic;
 
+    private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    // The most recently used filter views, so that results can be patched with changes instead of recomputed
+    private final Map<FilterExpression, FilterView> filterViews = new LinkedHashMap<FilterExpression, FilterView>(
+            MAX_FILTER_VIEWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FilterExpression, FilterView> eldest) {
+            return size() > MAX_FILTER_VIEWS;
+        }
+    };
+
     public UpdateController(Logic logic) {
         this.logic = logic;
     }
 
+    /**
+     * Sets the total number of issues in open repositories at or above which filters are evaluated in parallel.
+     * Below it, filters are evaluated sequentially on the calling thread.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * Given a list of filter expressions, dispatch metadata update if needed and then process them to return
      * a map of filtered and sorted issues corresponding to each filter expression, based on the most recent data
@@ -41,8 +76,13 @@ public class UpdateController {
         // Open specified repos
         openRepositoriesInFilters(filterExprs);
 
+        // Compile each distinct filter once against the current snapshot of the models, which both
+        // filtering passes below use unless the metadata update changes it.
+        MultiModel.Snapshot snapshot = logic.getModels().getSnapshot();
+        List<CompiledFilter> compiledFilters = compileFilters(snapshot, filterExprs);
+
         // First filter, for issues requiring a metadata update.
-        Map<String, List<TurboIssue>> toUpdate = tallyMetadataUpdate(filterExprs);
+        Map<String, List<TurboIssue>> toUpdate = tallyMetadataUpdate(snapshot, compiledFilters);
 
         if (!toUpdate.isEmpty()) {
             // If there are issues requiring metadata update, we dispatch the metadata requests...
@@ -55,10 +95,11 @@ public class UpdateController {
                             + results.size() + " repos"))
                     .thenCompose(n -> logic.getRateLimitResetTime())
                     .thenApply(logic::updateRemainingRate)
-                    .thenRun(() -> logic.updateUI(processFilter(filterExprs))); // Then filter the second time.
+                    // Then filter the second time, against the models as updated.
+                    .thenRun(() -> logic.updateUI(processFilter(filterExprs, snapshot, compiledFilters)));
         } else {
             // If no issues requiring metadata update, just run the filter and sort.
-            logic.updateUI(processFilter(filterExprs));
+            logic.updateUI(processFilter(snapshot, compiledFilters));
         }
     }
 
@@ -75,90 +116,155 @@ public class UpdateController {
     }
 
     /**
-     * Given a list of filter expressions, determine issues within the model that require a metadata update.
+     * Compiles each distinct filter expression against a snapshot of the models, so that meta-qualifiers,
+     * milestone aliases and the implicit repo qualifier are resolved once per refresh instead of
+     * once per issue.
+     *
+     * @param snapshot The models to compile against.
+     * @param filterExprs Filter expressions to compile.
+     * @return The compiled filters, one for each distinct filter expression.
+     */
+    private List<CompiledFilter> compileFilters(MultiModel.Snapshot snapshot, List<FilterExpression> filterExprs) {
+        return filterExprs.stream()
+                .distinct()
+                .map(filterExpr -> CompiledFilter.compile(snapshot, filterExpr))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Given a list of compiled filters, determine issues within the model that require a metadata update.
      *
-     * @param filterExprs Filter expressions to process for metadata requests.
+     * @param snapshot The models the filters were compiled against.
+     * @param compiledFilters Compiled filters to process for metadata requests.
      * @return Repo IDs and the corresponding issues in the repo requiring a metadata update.
      */
-    private Map<String, List<TurboIssue>> tallyMetadataUpdate(List<FilterExpression> filterExprs) {
-        MultiModel models = logic.getModels();
-        List<TurboIssue> allModelIssues = models.getIssues();
+    private Map<String, List<TurboIssue>> tallyMetadataUpdate(MultiModel.Snapshot snapshot,
+                                                              List<CompiledFilter> compiledFilters) {
+        List<Model> repoModels = snapshot.getModels();
+        List<CompiledFilter> updatedFilters = compiledFilters.stream()
+                .filter(CompiledFilter::hasUpdatedQualifier)
+                .collect(Collectors.toList());
+        boolean isParallel = shouldEvaluateInParallel(repoModels);
+        SharedEvaluation shared = new SharedEvaluation(updatedFilters, isParallel);
 
-        return filterExprs.stream()
-                .filter(Qualifier::hasUpdatedQualifier)
-                .flatMap(filterExpr -> allModelIssues.stream()
-                        .filter(issue -> Qualifier.process(models, filterExpr, issue)))
+        return evaluate(isParallel, () -> stream(updatedFilters, isParallel)
+                .flatMap(compiledFilter -> compiledFilter.getMatchingIssues(repoModels, shared).stream())
                 .distinct()
-                .collect(Collectors.groupingBy(TurboIssue::getRepoId));
+                .collect(Collectors.groupingBy(TurboIssue::getRepoId)));
     }
 
     /**
-     * Filters, sorts and counts issues within the model according to the given filter expressions.
+     * Filters, sorts and counts issues within the model according to the given compiled filters.
      * In here, "processed" is equivalent to "filtered, sorted and counted".
      *
-     * @param filterExprs Filter expressions to process.
+     * Each filter is processed through its view, which only re-evaluates issues changed since the filter
+     * was last processed when possible. Filters which are evaluated in full share the results of their
+     * common conjuncts.
+     *
+     * @param snapshot The models the filters were compiled against.
+     * @param compiledFilters Compiled filters to process.
      * @return Filter expressions and their corresponding issues after filtering, sorting and counting.
      */
-    private Map<FilterExpression, List<GuiElement>> processFilter(List<FilterExpression> filterExprs) {
-        MultiModel models = logic.getModels();
-        List<TurboIssue> allModelIssues = models.getIssues();
+    private Map<FilterExpression, List<GuiElement>> processFilter(MultiModel.Snapshot snapshot,
+                                                                  List<CompiledFilter> compiledFilters) {
+        boolean isParallel = shouldEvaluateInParallel(snapshot.getModels());
+        SharedEvaluation shared = new SharedEvaluation(compiledFilters, isParallel);
+
+        return evaluate(isParallel, () -> stream(compiledFilters, isParallel)
+                .collect(Collectors.toMap(CompiledFilter::getSource, compiledFilter -> {
+                    FilterExpression filterExprNoAlias = compiledFilter.getExpression();
+
+                    CompiledSort sortOrder = determineSortOrder(snapshot, filterExprNoAlias,
+                            compiledFilter.hasUpdatedQualifier());
+                    List<TurboIssue> processedIssues = getFilterView(compiledFilter.getSource())
+                            .update(snapshot, compiledFilter, sortOrder, shared);
 
-        Map<FilterExpression, List<GuiElement>> processed = new HashMap<>();
+                    return produceGuiElements(snapshot, processedIssues);
+                })));
+    }
 
-        filterExprs.stream().distinct().forEach(filterExpr -> {
-            boolean hasUpdatedQualifier = Qualifier.hasUpdatedQualifier(filterExpr);
+    /**
+     * As {@link #processFilter(MultiModel.Snapshot, List)}, against the current snapshot of the models,
+     * recompiling the filters if it is not the one they were compiled against.
+     */
+    private Map<FilterExpression, List<GuiElement>> processFilter(List<FilterExpression> filterExprs,
+                                                                  MultiModel.Snapshot compiledSnapshot,
+                                                                  List<CompiledFilter> compiledFilters) {
+        MultiModel.Snapshot snapshot = logic.getModels().getSnapshot();
+        return snapshot.getVersion() == compiledSnapshot.getVersion()
+                ? processFilter(snapshot, compiledFilters)
+                : processFilter(snapshot, compileFilters(snapshot, filterExprs));
+    }
 
-            FilterExpression filterExprNoAlias = Qualifier.replaceMilestoneAliases(models, filterExpr);
+    private boolean shouldEvaluateInParallel(List<Model> repoModels) {
+        return repoModels.stream().mapToLong(model -> model.getIssueIndex().size()).sum() >= parallelThreshold;
+    }
 
-            List<TurboIssue> processedIssues = allModelIssues.stream()
-                    .filter(issue -> Qualifier.process(models, filterExprNoAlias, issue))
-                    .sorted(determineComparator(filterExprNoAlias, hasUpdatedQualifier))
-                    .limit(Qualifier.determineCount(allModelIssues, filterExprNoAlias))
-                    .collect(Collectors.toList());
+    private static <T> Stream<T> stream(List<T> list, boolean isParallel) {
+        return isParallel ? list.parallelStream() : list.stream();
+    }
 
-            List<GuiElement> processedElements = produceGuiElements(models, processedIssues);
+    /**
+     * Runs an evaluation on the calling thread, or in the evaluation pool if it is parallel, so that
+     * the parallel streams it uses run there. Parallel streams keep encounter order, so results are
+     * the same either way.
+     */
+    private static <T> T evaluate(boolean isParallel, Supplier<T> evaluation) {
+        return isParallel ? evaluationPool.submit(evaluation::get).join() : evaluation.get();
+    }
 
-            processed.put(filterExpr, processedElements);
-        });
+    /**
+     * Evicts the views of filters over repos which are not in use any more, as they hold their issues.
+     *
+     * @param reposInUse The lower-cased ids of the repos in use.
+     */
+    public void removeUnusedFilterViews(Set<String> reposInUse) {
+        synchronized (filterViews) {
+            filterViews.values().removeIf(view -> !view.coversOnly(reposInUse));
+        }
+    }
 
-        return processed;
+    private FilterView getFilterView(FilterExpression filterExpr) {
+        synchronized (filterViews) {
+            return filterViews.computeIfAbsent(filterExpr, FilterView::new);
+        }
     }
 
     /**
-     * Produces a suitable comparator based on the given filter expression.
+     * Produces a suitable sort order based on the given filter expression.
      *
+     * @param models              The models to sort issues of.
      * @param filterExpr          The given filter expression.
      * @param hasUpdatedQualifier Determines the behaviour of the sort key "nonSelfUpdate".
-     * @return The comparator to use.
+     * @return The sort order to use.
      */
-    private Comparator<TurboIssue> determineComparator(FilterExpression filterExpr,
-                                                       boolean hasUpdatedQualifier) {
-        MultiModel models = logic.getModels();
+    private CompiledSort determineSortOrder(MultiModel.Snapshot models, FilterExpression filterExpr,
+                                            boolean hasUpdatedQualifier) {
         for (Qualifier metaQualifier : filterExpr.find(Qualifier::isMetaQualifier)) {
             // Only take into account the first sort qualifier found
             if (metaQualifier.getType() == QualifierType.SORT) {
-                return metaQualifier.getCompoundSortComparator(models, hasUpdatedQualifier);
+                return metaQualifier.compileSort(models, hasUpdatedQualifier);
             }
         }
 
         // No sort qualifier, look for updated qualifier
         if (hasUpdatedQualifier) {
-            return Qualifier.getSortComparator(models, "nonSelfUpdate", true, true);
+            return CompiledSort.compile(models, Collections.singletonList(new SortKey("nonSelfUpdate", true)), true);
         }
 
         // No sort or updated, return sort by descending ID, which is the default.
-        return Qualifier.getSortComparator(models, "id", true, false);
+        return CompiledSort.compile(models, Collections.singletonList(new SortKey("id", true)), false);
     }
 
     /**
      * Constructs GuiElements (including all necessary references to labels/milestones/users to properly display
      * the issue) corresponding to a list of issues without changing the order.
      *
-     * @param models The MultiModel from which necessary references are extracted.
+     * @param models The models from which necessary references are extracted.
      * @param processedIssues The list of issues to construct GUIElements for.
      * @return A list of GUIElements corresponding to the given list of issues.
      */
-    private List<GuiElement> produceGuiElements(MultiModel models, List<TurboIssue> processedIssues) {
+    private List<GuiElement> produceGuiElements(MultiModel.Snapshot models, List<TurboIssue> processedIssues) {
         return processedIssues.stream().map(issue -> {
             Optional<Model> modelOfIssue = models.getModelById(issue.getRepoId());
             assert modelOfIssue.isPresent();
@@ -0,0 +1,112 @@
+package backend.binary;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Reads what {@link BinaryOutput} writes, verifying the checksum of each section.
+ */
+class BinaryInput {
+
+    // Beyond any text stored, so a longer one is corrupted data, which is not allocated
+    private static final int MAX_TEXT_LENGTH = 1 << 28;
+
+    private final CRC32 checksum = new CRC32();
+    private final DataInputStream input;
+
+    BinaryInput(InputStream input) {
+        this.input = new DataInputStream(new CheckedInputStream(input, checksum));
+    }
+
+    int readInt() throws IOException {
+        return input.readInt();
+    }
+
+    int readByte() throws IOException {
+        return input.readUnsignedByte();
+    }
+
+    /**
+     * Reads a byte which may be at the end of the input, e.g. one which starts a record.
+     * @return the byte, or -1 at the end of the input
+     */
+    int readByteOrEnd() throws IOException {
+        return input.read();
+    }
+
+    long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable-length integer");
+    }
+
+    int readVarInt() throws IOException {
+        long value = readVarLong();
+        if ((value & ~0xFFFFFFFFL) != 0) {
+            throw new StreamCorruptedException("Malformed variable-length integer");
+        }
+        return (int) value;
+    }
+
+    long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a count of items, which is never negative.
+     */
+    int readCount() throws IOException {
+        int count = readVarInt();
+        if (count < 0) {
+            throw new StreamCorruptedException("Invalid count: " + count);
+        }
+        return count;
+    }
+
+    String readText() throws IOException {
+        int length = readVarInt() - 1;
+        if (length == -1) {
+            return null;
+        } else if (length < 0 || length > MAX_TEXT_LENGTH) {
+            throw new StreamCorruptedException("Invalid text length");
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    LocalDateTime readTime() throws IOException {
+        int nano = readVarInt() - 1;
+        if (nano == -1) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(readSignedVarLong(), nano, ZoneOffset.UTC);
+    }
+
+    /**
+     * Ends a section, verifying the checksum of what was read since the previous one.
+     * @throws StreamCorruptedException if it does not match
+     */
+    void endSection() throws IOException {
+        int actual = (int) checksum.getValue();
+        int expected = input.readInt();
+        checksum.reset();
+        if (actual != expected) {
+            throw new StreamCorruptedException("Checksum mismatch");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package backend.binary;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes the primitives of the binary store format, see {@link ModelBinary}: variable-length
+ * integers, length-prefixed texts and timestamps, in sections each followed by their checksum.
+ */
+class BinaryOutput {
+
+    private final CRC32 checksum = new CRC32();
+    private final DataOutputStream output;
+
+    BinaryOutput(OutputStream output) {
+        this.output = new DataOutputStream(new CheckedOutputStream(output, checksum));
+    }
+
+    void writeInt(int value) throws IOException {
+        output.writeInt(value);
+    }
+
+    void writeByte(int value) throws IOException {
+        output.writeByte(value);
+    }
+
+    /**
+     * Writes a non-negative integer in as few bytes as it needs, 7 bits at a time.
+     */
+    void writeVarLong(long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            output.writeByte((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte((int) remaining);
+    }
+
+    void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes an integer which may be negative, interleaving negative and positive values
+     * so that small values of either sign take few bytes.
+     */
+    void writeSignedVarLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a text, which may be null, as its length in UTF-8 followed by its bytes.
+     */
+    void writeText(String text) throws IOException {
+        if (text == null) {
+            writeVarInt(0);
+        } else {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Writes a time, which may be null, as seconds since the epoch and nanoseconds.
+     */
+    void writeTime(LocalDateTime time) throws IOException {
+        if (time == null) {
+            writeVarInt(0);
+        } else {
+            writeVarInt(time.getNano() + 1);
+            writeSignedVarLong(time.toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * Ends a section by writing the checksum of what was written since the previous one.
+     */
+    void endSection() throws IOException {
+        output.flush();
+        int value = (int) checksum.getValue();
+        output.writeInt(value);
+        output.flush();
+        checksum.reset();
+    }
+
+    void flush() throws IOException {
+        output.flush();
+    }
+}
@@ -0,0 +1,290 @@
+package backend.binary;
+
+import backend.interfaces.RepoStore;
+import backend.interfaces.StoreManifest;
+import backend.json.JSONStore;
+import backend.resource.Model;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores repos in a compact binary format (see {@link ModelBinary}), which is faster to load
+ * and save than JSON.
+ *
+ * Each repo is stored as a snapshot, to which a journal of the changes made since is appended on
+ * saving (see {@link Journal}), so that an update writes only what it changed. The journal is
+ * folded into a new snapshot in the background once it grows large.
+ *
+ * Repos stored as JSON are migrated: they are listed as stored, and on loading are rewritten
+ * in the binary format, after which their JSON files are removed.
+ */
+public class BinaryStore extends RepoStore {
+
+    private static final Logger logger = HTLog.get(BinaryStore.class);
+
+    public static final String EXTENSION = ".htrepo";
+    public static final String JOURNAL_EXTENSION = ".htjournal";
+
+    // The size below which a journal is never compacted
+    private static final long MIN_COMPACTION_SIZE = 256 * 1024;
+
+    // What was last read or written of each repo, by lower-cased repo id
+    private final Map<String, StoredState> storedStates = new ConcurrentHashMap<>();
+
+    private final JSONStore legacyStore;
+    private final StoreManifest manifest = new StoreManifest("binary-repos.manifest", EXTENSION);
+
+    public BinaryStore() {
+        this(new JSONStore());
+    }
+
+    /**
+     * @param legacyStore the store from which repos are migrated
+     */
+    public BinaryStore(JSONStore legacyStore) {
+        this.legacyStore = legacyStore;
+    }
+
+    @Override
+    public CompletableFuture<Model> loadRepository(String repoId) {
+        CompletableFuture<Model> response = new CompletableFuture<>();
+        addTask(new ReadTask(repoId, this, legacyStore, response));
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveRepository(String repoId, Model model) {
+        CompletableFuture<Boolean> response = new CompletableFuture<>();
+        addTask(new WriteTask(repoId, this, model, response));
+        return response;
+    }
+
+    @Override
+    public List<String> getStoredRepos() {
+        ensureDirectoryExists();
+        List<String> result;
+        try {
+            result = manifest.getRepoIds(BinaryStore::getRepositoryId);
+        } catch (IOException e) {
+            logger.error("Unable to open stored repository directory. ");
+            result = new ArrayList<>();
+        }
+
+        // Those not yet migrated
+        for (String repoId : legacyStore.getStoredRepos()) {
+            if (result.stream().noneMatch(repoId::equalsIgnoreCase)) {
+                result.add(repoId);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeStoredRepo(String repoId) {
+        CompletableFuture<Boolean> response = new CompletableFuture<>();
+        addTask(new DeleteTask(repoId, this, legacyStore, response));
+        return response;
+    }
+
+    static boolean isStored(String repoId) {
+        return getRepoPath(repoId, EXTENSION).map(path -> Files.isRegularFile(Paths.get(path))).orElse(false);
+    }
+
+    /**
+     * Reads the snapshot of a repo and replays its journal over it. A journal which could not be
+     * replayed completely, or which has grown large, is compacted.
+     * @throws NoSuchFileException if the repo is not stored in the binary format
+     */
+    Model readModel(String repoId) throws IOException {
+        Path file = getRepoFile(repoId);
+        Model model;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+            model = ModelBinary.read(input);
+        }
+        boolean isComplete = true;
+        Path journal = getJournalFile(repoId);
+        if (Files.exists(journal)) {
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(journal))) {
+                Journal.Replay replay = Journal.replay(model, input);
+                model = replay.model;
+                isComplete = replay.isComplete;
+                logger.info(HTLog.format(repoId, "Replayed " + replay.entries + " journal entries"));
+            } catch (IOException | DateTimeException e) {
+                logger.error(HTLog.format(repoId, "Unable to replay journal"), e);
+                isComplete = false;
+            }
+        }
+
+        if (!isComplete || needsCompaction(repoId)) {
+            // Entries appended after an incomplete one would not be replayed
+            writeSnapshot(repoId, model);
+        } else {
+            storedStates.put(repoId.toLowerCase(), new StoredState(model));
+        }
+        return model;
+    }
+
+    /**
+     * Saves a repo by appending the changes since it was last read or written to its journal,
+     * or by writing a snapshot of it if they are not known. Once the journal has grown large,
+     * it is compacted in the background.
+     * @return true on failure
+     */
+    boolean writeModel(String repoId, Model model) {
+        StoredState state = storedStates.get(repoId.toLowerCase());
+        if (state == null || !isStored(repoId)) {
+            return writeSnapshot(repoId, model);
+        }
+        try {
+            appendToJournal(repoId, state.diff(model));
+        } catch (IOException e) {
+            logger.error(HTLog.format(repoId, "Unable to append to journal"), e);
+            return writeSnapshot(repoId, model);
+        }
+        storedStates.put(repoId.toLowerCase(), new StoredState(model));
+        manifest.put(repoId, model.getIssues().size(), model.getUpdateSignature());
+        if (needsCompaction(repoId)) {
+            addFollowingTask(new CompactTask(repoId, this));
+        }
+        return false;
+    }
+
+    /**
+     * Folds the journal of a repo into a new snapshot, if it has not been already.
+     * @return true on failure
+     */
+    boolean compact(String repoId) {
+        if (!needsCompaction(repoId)) {
+            return false;
+        }
+        try {
+            // Written from what is stored, as later updates may have been journaled since this was requested
+            readModel(repoId);
+            return !isStored(repoId) || needsCompaction(repoId);
+        } catch (IOException | DateTimeException e) {
+            logger.error(HTLog.format(repoId, "Unable to compact journal"), e);
+            return true;
+        }
+    }
+
+    /**
+     * @return true on failure
+     */
+    boolean deleteModel(String repoId) {
+        storedStates.remove(repoId.toLowerCase());
+        try {
+            Files.deleteIfExists(getJournalFile(repoId));
+            Files.deleteIfExists(getRepoFile(repoId));
+            manifest.remove(repoId);
+            return false;
+        } catch (IOException e) {
+            logger.error(e.getLocalizedMessage(), e);
+            return true;
+        }
+    }
+
+    /**
+     * Writes to a temporary file first, which then replaces the stored one, so that a failure
+     * while writing does not leave it truncated. The journal is removed in between, so that
+     * stopping at any point leaves either the previous state or the new one.
+     * @return true on failure
+     */
+    private boolean writeSnapshot(String repoId, Model model) {
+        storedStates.remove(repoId.toLowerCase());
+        try {
+            Path file = getRepoFile(repoId);
+            Path temporary = Paths.get(file + ".tmp");
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                ModelBinary.write(model, output);
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            Files.deleteIfExists(getJournalFile(repoId));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error(e.getLocalizedMessage(), e);
+            return true;
+        }
+        storedStates.put(repoId.toLowerCase(), new StoredState(model));
+        manifest.put(repoId, model.getIssues().size(), model.getUpdateSignature());
+        return false;
+    }
+
+    private static void appendToJournal(String repoId, JournalEntry entry) throws IOException {
+        Path journal = getJournalFile(repoId);
+        boolean isNew = !Files.exists(journal);
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(journal,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (isNew) {
+                Journal.writeHeader(output, repoId);
+            }
+            Journal.writeEntry(output, entry);
+        }
+    }
+
+    /**
+     * A journal needs compaction once it is large in itself and relative to the snapshot,
+     * so that replaying it does not take longer than reading the snapshot.
+     */
+    private static boolean needsCompaction(String repoId) {
+        try {
+            Path journal = getJournalFile(repoId);
+            if (!Files.exists(journal)) {
+                return false;
+            }
+            long size = Files.size(journal);
+            return size > MIN_COMPACTION_SIZE && size > Files.size(getRepoFile(repoId)) / 2;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static Path getJournalFile(String repoId) throws IOException {
+        Optional<String> path = getRepoPath(repoId, JOURNAL_EXTENSION);
+        if (!path.isPresent()) {
+            throw new NoSuchFileException(RepoStore.directory);
+        }
+        return Paths.get(path.get());
+    }
+
+    private static Path getRepoFile(String repoId) throws IOException {
+        Optional<String> path = getRepoPath(repoId, EXTENSION);
+        if (!path.isPresent()) {
+            throw new NoSuchFileException(RepoStore.directory);
+        }
+        return Paths.get(path.get());
+    }
+
+    private static Optional<String> getRepositoryId(Path p) {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(p))) {
+            String repoId = ModelBinary.readRepoId(input);
+            if (String.valueOf(p.getFileName()).equalsIgnoreCase(escapeRepoName(repoId, EXTENSION))) {
+                logger.info("Adding " + p.getFileName() + " to stored repository list. ");
+                return Optional.of(repoId);
+            }
+        } catch (IOException e) {
+            logger.error("Unable to load repository from " + p.getFileName());
+        }
+        return Optional.empty();
+    }
+}
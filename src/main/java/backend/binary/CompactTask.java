@@ -0,0 +1,32 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+/**
+ * Folds the journal of a repo into a new snapshot, see {@link BinaryStore#compact(String)}.
+ */
+class CompactTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(CompactTask.class);
+
+    private final BinaryStore store;
+
+    public CompactTask(String repoId, BinaryStore store) {
+        super(repoId);
+        this.store = store;
+    }
+
+    @Override
+    public void run() {
+        if (store.compact(repoId)) {
+            logger.error(HTLog.format(repoId, "Unable to compact journal"));
+        }
+    }
+
+    @Override
+    public void fail(Throwable cause) {
+        logger.error(HTLog.format(repoId, "Unable to compact journal"), cause);
+    }
+}
@@ -0,0 +1,51 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.json.JSONStore;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+class DeleteTask extends StoreTask {
+
+    private final BinaryStore store;
+    private final JSONStore legacyStore;
+    public final CompletableFuture<Boolean> response;
+
+    protected DeleteTask(String repoId, BinaryStore store, JSONStore legacyStore,
+                         CompletableFuture<Boolean> response) {
+        super(repoId);
+        this.store = store;
+        this.legacyStore = legacyStore;
+        this.response = response;
+    }
+
+    @Override
+    public void run() {
+        boolean failed = store.deleteModel(repoId);
+        if (!BinaryStore.isStored(repoId)) {
+            // It may not have been migrated yet
+            failed |= removeLegacy();
+        }
+        response.complete(failed);
+    }
+
+    @Override
+    public void fail(Throwable cause) {
+        response.completeExceptionally(cause);
+    }
+
+    private boolean removeLegacy() {
+        if (legacyStore.getStoredRepos().stream().noneMatch(repoId::equalsIgnoreCase)) {
+            return false;
+        }
+        try {
+            return legacyStore.removeStoredRepo(repoId).get();
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package backend.binary;
+
+import backend.UpdateSignature;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.time.DateTimeException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads and writes the journal of a repo in the binary store: the changes made to it since its
+ * snapshot was written, see {@link JournalEntry}. Each save appends an entry, so that it writes
+ * only what changed; loading replays the entries over the snapshot.
+ *
+ * A journal starts with {@link #MAGIC}, the format {@link #VERSION} and the repo id, followed by
+ * its entries, whose sections are written as in {@link ModelBinary}. An entry which was not written
+ * completely, e.g. because the program was stopped, fails its checksum, and it and any after it
+ * are ignored.
+ */
+final class Journal {
+
+    static final int MAGIC = 0x48544A4C;
+    static final int VERSION = 1;
+
+    private static final int ENTRY = 0x45;
+    private static final int ENTRY_LABELS = 1;
+    private static final int ENTRY_MILESTONES = 1 << 1;
+    private static final int ENTRY_USERS = 1 << 2;
+
+    private Journal() {
+    }
+
+    static void writeHeader(OutputStream stream, String repoId) throws IOException {
+        BinaryOutput output = new BinaryOutput(stream);
+        output.writeInt(MAGIC);
+        output.writeVarInt(VERSION);
+        output.writeText(repoId);
+        output.endSection();
+    }
+
+    static void writeEntry(OutputStream stream, JournalEntry entry) throws IOException {
+        BinaryOutput output = new BinaryOutput(stream);
+        output.writeByte(ENTRY);
+        output.writeByte((entry.labels.isPresent() ? ENTRY_LABELS : 0)
+            | (entry.milestones.isPresent() ? ENTRY_MILESTONES : 0)
+            | (entry.users.isPresent() ? ENTRY_USERS : 0));
+        ModelBinary.writeUpdateSignature(output, entry.updateSignature);
+        output.writeVarInt(entry.removedIssueIds.size());
+        for (int id : entry.removedIssueIds) {
+            output.writeSignedVarLong(id);
+        }
+        output.endSection();
+
+        Map<String, Integer> symbols = ModelBinary.collectSymbols(
+            entry.users.orElse(Collections.emptyList()),
+            entry.labels.orElse(Collections.emptyList()),
+            entry.changedIssues);
+        ModelBinary.writeSymbols(output, symbols);
+        if (entry.users.isPresent()) {
+            ModelBinary.writeUsers(output, symbols, entry.users.get());
+        }
+        if (entry.labels.isPresent()) {
+            ModelBinary.writeLabels(output, symbols, entry.labels.get());
+        }
+        if (entry.milestones.isPresent()) {
+            ModelBinary.writeMilestones(output, entry.milestones.get());
+        }
+        ModelBinary.writeIssues(output, symbols, entry.changedIssues);
+        output.flush();
+    }
+
+    /**
+     * Replays the entries of a journal over the snapshot of its repo.
+     * @throws StreamCorruptedException if the input is not a journal of the repo in a supported version
+     */
+    static Replay replay(Model snapshot, InputStream stream) throws IOException {
+        BinaryInput input = new BinaryInput(stream);
+        if (input.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a journal");
+        }
+        int version = input.readVarInt();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported journal version " + version);
+        }
+        String repoId = input.readText();
+        input.endSection();
+        if (!snapshot.getRepoId().equalsIgnoreCase(repoId)) {
+            throw new StreamCorruptedException("Journal of " + repoId);
+        }
+
+        Model model = snapshot;
+        int entries = 0;
+        while (true) {
+            int marker = input.readByteOrEnd();
+            if (marker == -1) {
+                return new Replay(model, entries, true);
+            }
+            try {
+                if (marker != ENTRY) {
+                    throw new StreamCorruptedException("Not a journal entry");
+                }
+                model = readEntry(input, model.getRepoId()).applyTo(model);
+                entries++;
+            } catch (IOException | DateTimeException e) {
+                return new Replay(model, entries, false);
+            }
+        }
+    }
+
+    private static JournalEntry readEntry(BinaryInput input, String repoId) throws IOException {
+        int flags = input.readByte();
+        UpdateSignature updateSignature = ModelBinary.readUpdateSignature(input);
+        int count = input.readCount();
+        Set<Integer> removedIssueIds = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            removedIssueIds.add((int) input.readSignedVarLong());
+        }
+        input.endSection();
+
+        List<String> symbols = ModelBinary.readSymbols(input);
+        Optional<List<TurboUser>> users = (flags & ENTRY_USERS) != 0
+            ? Optional.of(ModelBinary.readUsers(input, repoId, symbols))
+            : Optional.empty();
+        Optional<List<TurboLabel>> labels = (flags & ENTRY_LABELS) != 0
+            ? Optional.of(ModelBinary.readLabels(input, repoId, symbols))
+            : Optional.empty();
+        Optional<List<TurboMilestone>> milestones = (flags & ENTRY_MILESTONES) != 0
+            ? Optional.of(ModelBinary.readMilestones(input, repoId))
+            : Optional.empty();
+        List<TurboIssue> changedIssues = ModelBinary.readIssues(input, repoId, symbols);
+
+        return new JournalEntry(changedIssues, removedIssueIds, labels, milestones, users, updateSignature);
+    }
+
+    /**
+     * The result of replaying a journal.
+     */
+    static final class Replay {
+        final Model model;
+        final int entries;
+        // False if an entry was not read completely, in which case the model is as of the entry before
+        final boolean isComplete;
+
+        Replay(Model model, int entries, boolean isComplete) {
+            this.model = model;
+            this.entries = entries;
+            this.isComplete = isComplete;
+        }
+    }
+}
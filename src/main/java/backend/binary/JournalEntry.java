@@ -0,0 +1,73 @@
+package backend.binary;
+
+import backend.UpdateSignature;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The changes to a stored model made by one update: the issues changed or added, those removed,
+ * the labels, milestones and users if any of them changed, and the new update signature.
+ */
+final class JournalEntry {
+
+    final List<TurboIssue> changedIssues;
+    final Set<Integer> removedIssueIds;
+    final Optional<List<TurboLabel>> labels;
+    final Optional<List<TurboMilestone>> milestones;
+    final Optional<List<TurboUser>> users;
+    final UpdateSignature updateSignature;
+
+    JournalEntry(List<TurboIssue> changedIssues, Set<Integer> removedIssueIds,
+                 Optional<List<TurboLabel>> labels, Optional<List<TurboMilestone>> milestones,
+                 Optional<List<TurboUser>> users, UpdateSignature updateSignature) {
+        this.changedIssues = changedIssues;
+        this.removedIssueIds = removedIssueIds;
+        this.labels = labels;
+        this.milestones = milestones;
+        this.users = users;
+        this.updateSignature = updateSignature;
+    }
+
+    /**
+     * Returns the given model with these changes made.
+     */
+    Model applyTo(Model model) {
+        Map<Integer, TurboIssue> changed = new LinkedHashMap<>();
+        changedIssues.forEach(issue -> changed.put(issue.getId(), issue));
+
+        List<TurboIssue> issues = new ArrayList<>(model.getIssues().size() + changedIssues.size());
+        Set<Integer> replaced = new HashSet<>();
+        for (TurboIssue issue : model.getIssues()) {
+            if (removedIssueIds.contains(issue.getId())) {
+                continue;
+            }
+            TurboIssue replacement = changed.get(issue.getId());
+            if (replacement == null) {
+                issues.add(issue);
+            } else {
+                issues.add(replacement);
+                replaced.add(issue.getId());
+            }
+        }
+        changed.values().stream()
+            .filter(issue -> !replaced.contains(issue.getId()))
+            .forEach(issues::add);
+
+        return new Model(model.getRepoId(), issues,
+            labels.orElse(model.getLabels()),
+            milestones.orElse(model.getMilestones()),
+            users.orElse(model.getUsers()),
+            updateSignature);
+    }
+}
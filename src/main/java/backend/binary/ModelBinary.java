@@ -0,0 +1,361 @@
+package backend.binary;
+
+import backend.UpdateSignature;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+import backend.resource.serialization.SerializableIssue;
+import backend.resource.serialization.SerializableLabel;
+import backend.resource.serialization.SerializableMilestone;
+import backend.resource.serialization.SerializableUser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads and writes models in the binary store format, which holds the same data as the JSON store.
+ *
+ * A file starts with {@link #MAGIC} and the format {@link #VERSION}, followed by these sections:
+ * the repo id and update signature; a table of the symbols repeated across resources, i.e. logins,
+ * label names and colours; then users, labels, milestones and issues, each as a count followed by
+ * their records, in which symbols are referred to by index. Every section is followed by its CRC-32.
+ *
+ * Integers are written in variable length, timestamps as seconds since the epoch, and texts as their
+ * length in UTF-8 followed by their bytes. Indices and lengths are one more than their value, so that
+ * 0 stands for null.
+ */
+final class ModelBinary {
+
+    static final int MAGIC = 0x48545354;
+    static final int VERSION = 1;
+
+    private static final int ISSUE_PULL_REQUEST = 1;
+    private static final int ISSUE_OPEN = 1 << 1;
+    private static final int ISSUE_MILESTONE = 1 << 2;
+    private static final int MILESTONE_OPEN = 1;
+    private static final int MILESTONE_DUE_DATE = 1 << 1;
+
+    // Lists are not preallocated beyond this, as counts are only verified with their section
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private ModelBinary() {
+    }
+
+    static void write(Model model, OutputStream stream) throws IOException {
+        BinaryOutput output = new BinaryOutput(stream);
+        output.writeInt(MAGIC);
+        output.writeVarInt(VERSION);
+        output.writeText(model.getRepoId());
+        writeUpdateSignature(output, model.getUpdateSignature());
+        output.endSection();
+
+        Map<String, Integer> symbols = collectSymbols(model.getUsers(), model.getLabels(), model.getIssues());
+        writeSymbols(output, symbols);
+        writeUsers(output, symbols, model.getUsers());
+        writeLabels(output, symbols, model.getLabels());
+        writeMilestones(output, model.getMilestones());
+        writeIssues(output, symbols, model.getIssues());
+        output.flush();
+    }
+
+    /**
+     * @throws StreamCorruptedException if the input is not a model in a supported version of the format,
+     * or is corrupted
+     */
+    static Model read(InputStream stream) throws IOException {
+        BinaryInput input = new BinaryInput(stream);
+        String repoId = readHeader(input);
+        UpdateSignature updateSignature = readUpdateSignature(input);
+        input.endSection();
+
+        List<String> symbols = readSymbols(input);
+        List<TurboUser> users = readUsers(input, repoId, symbols);
+        List<TurboLabel> labels = readLabels(input, repoId, symbols);
+        List<TurboMilestone> milestones = readMilestones(input, repoId);
+        List<TurboIssue> issues = readIssues(input, repoId, symbols);
+        return new Model(repoId, issues, labels, milestones, users, updateSignature);
+    }
+
+    @SuppressWarnings("unused")
+    private void ______SECTIONS______() {}
+
+    // Each of these writes or reads a section, including its checksum
+
+    static void writeSymbols(BinaryOutput output, Map<String, Integer> symbols) throws IOException {
+        output.writeVarInt(symbols.size());
+        for (String symbol : symbols.keySet()) {
+            output.writeText(symbol);
+        }
+        output.endSection();
+    }
+
+    static List<String> readSymbols(BinaryInput input) throws IOException {
+        int count = input.readCount();
+        List<String> symbols = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < count; i++) {
+            symbols.add(input.readText());
+        }
+        input.endSection();
+        return symbols;
+    }
+
+    static void writeUsers(BinaryOutput output, Map<String, Integer> symbols, List<TurboUser> users)
+        throws IOException {
+
+        output.writeVarInt(users.size());
+        for (TurboUser user : users) {
+            writeSymbol(output, symbols, user.getLoginName());
+            output.writeText(user.getRealName());
+            output.writeText(user.getAvatarURL());
+        }
+        output.endSection();
+    }
+
+    static List<TurboUser> readUsers(BinaryInput input, String repoId, List<String> symbols) throws IOException {
+        int count = input.readCount();
+        List<TurboUser> users = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < count; i++) {
+            users.add(new TurboUser(repoId, new SerializableUser(
+                readSymbol(input, symbols), input.readText(), input.readText())));
+        }
+        input.endSection();
+        return users;
+    }
+
+    static void writeLabels(BinaryOutput output, Map<String, Integer> symbols, List<TurboLabel> labels)
+        throws IOException {
+
+        output.writeVarInt(labels.size());
+        for (TurboLabel label : labels) {
+            writeSymbol(output, symbols, label.getActualName());
+            writeSymbol(output, symbols, label.getColour());
+        }
+        output.endSection();
+    }
+
+    static List<TurboLabel> readLabels(BinaryInput input, String repoId, List<String> symbols) throws IOException {
+        int count = input.readCount();
+        List<TurboLabel> labels = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < count; i++) {
+            labels.add(new TurboLabel(repoId, new SerializableLabel(
+                readSymbol(input, symbols), readSymbol(input, symbols))));
+        }
+        input.endSection();
+        return labels;
+    }
+
+    static void writeMilestones(BinaryOutput output, List<TurboMilestone> milestones) throws IOException {
+        output.writeVarInt(milestones.size());
+        for (TurboMilestone milestone : milestones) {
+            writeMilestone(output, milestone);
+        }
+        output.endSection();
+    }
+
+    static List<TurboMilestone> readMilestones(BinaryInput input, String repoId) throws IOException {
+        int count = input.readCount();
+        List<TurboMilestone> milestones = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < count; i++) {
+            milestones.add(new TurboMilestone(repoId, readMilestone(input)));
+        }
+        input.endSection();
+        return milestones;
+    }
+
+    static void writeIssues(BinaryOutput output, Map<String, Integer> symbols, List<TurboIssue> issues)
+        throws IOException {
+
+        output.writeVarInt(issues.size());
+        for (TurboIssue issue : issues) {
+            writeIssue(output, symbols, issue);
+        }
+        output.endSection();
+    }
+
+    static List<TurboIssue> readIssues(BinaryInput input, String repoId, List<String> symbols) throws IOException {
+        int count = input.readCount();
+        List<TurboIssue> issues = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < count; i++) {
+            issues.add(new TurboIssue(repoId, readIssue(input, symbols)));
+        }
+        input.endSection();
+        return issues;
+    }
+
+    @SuppressWarnings("unused")
+    private void ______RECORDS______() {}
+
+    /**
+     * Reads only the repo id of a model, skipping the rest.
+     */
+    static String readRepoId(InputStream stream) throws IOException {
+        return readHeader(new BinaryInput(stream));
+    }
+
+    private static String readHeader(BinaryInput input) throws IOException {
+        if (input.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a stored repo");
+        }
+        int version = input.readVarInt();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported store version " + version);
+        }
+        String repoId = input.readText();
+        if (repoId == null) {
+            throw new StreamCorruptedException("Missing repo id");
+        }
+        return repoId;
+    }
+
+    /**
+     * Returns the symbols of the given resources, with their indices.
+     */
+    static Map<String, Integer> collectSymbols(List<TurboUser> users, List<TurboLabel> labels,
+                                               List<TurboIssue> issues) {
+        // Insertion-ordered, so that indices follow the order in which symbols are written
+        Map<String, Integer> symbols = new LinkedHashMap<>();
+        for (TurboUser user : users) {
+            addSymbol(symbols, user.getLoginName());
+        }
+        for (TurboLabel label : labels) {
+            addSymbol(symbols, label.getActualName());
+            addSymbol(symbols, label.getColour());
+        }
+        for (TurboIssue issue : issues) {
+            addSymbol(symbols, issue.getCreator());
+            issue.getAssignee().ifPresent(assignee -> addSymbol(symbols, assignee));
+            issue.getLabels().forEach(label -> addSymbol(symbols, label));
+        }
+        return symbols;
+    }
+
+    private static void addSymbol(Map<String, Integer> symbols, String symbol) {
+        if (symbol != null && !symbols.containsKey(symbol)) {
+            symbols.put(symbol, symbols.size());
+        }
+    }
+
+    private static void writeSymbol(BinaryOutput output, Map<String, Integer> symbols, String symbol)
+        throws IOException {
+
+        output.writeVarInt(symbol == null ? 0 : symbols.get(symbol) + 1);
+    }
+
+    private static String readSymbol(BinaryInput input, List<String> symbols) throws IOException {
+        int index = input.readVarInt() - 1;
+        if (index == -1) {
+            return null;
+        } else if (index < 0 || index >= symbols.size()) {
+            throw new StreamCorruptedException("Invalid symbol " + index);
+        }
+        return symbols.get(index);
+    }
+
+    static void writeUpdateSignature(BinaryOutput output, UpdateSignature signature) throws IOException {
+        if (signature == null || signature.lastCheckTime == null) {
+            output.writeByte(0);
+            return;
+        }
+        output.writeByte(1);
+        output.writeText(signature.issuesETag);
+        output.writeText(signature.labelsETag);
+        output.writeText(signature.milestonesETag);
+        output.writeText(signature.collaboratorsETag);
+        output.writeSignedVarLong(signature.lastCheckTime.getTime());
+    }
+
+    static UpdateSignature readUpdateSignature(BinaryInput input) throws IOException {
+        if (input.readByte() == 0) {
+            return null;
+        }
+        return new UpdateSignature(input.readText(), input.readText(), input.readText(), input.readText(),
+            new Date(input.readSignedVarLong()));
+    }
+
+    private static void writeMilestone(BinaryOutput output, TurboMilestone milestone) throws IOException {
+        Optional<LocalDate> dueDate = milestone.getDueDate();
+        boolean hasDueDate = dueDate != null && dueDate.isPresent();
+        output.writeByte((milestone.isOpen() ? MILESTONE_OPEN : 0) | (hasDueDate ? MILESTONE_DUE_DATE : 0));
+        output.writeSignedVarLong(milestone.getId());
+        output.writeText(milestone.getTitle());
+        if (hasDueDate) {
+            output.writeSignedVarLong(dueDate.get().toEpochDay());
+        }
+        output.writeText(milestone.getDescription());
+        output.writeSignedVarLong(milestone.getOpenIssues());
+        output.writeSignedVarLong(milestone.getClosedIssues());
+    }
+
+    private static SerializableMilestone readMilestone(BinaryInput input) throws IOException {
+        int flags = input.readByte();
+        int id = (int) input.readSignedVarLong();
+        String title = input.readText();
+        Optional<LocalDate> dueDate = (flags & MILESTONE_DUE_DATE) != 0
+            ? Optional.of(LocalDate.ofEpochDay(input.readSignedVarLong()))
+            : Optional.empty();
+        String description = input.readText();
+        int openIssues = (int) input.readSignedVarLong();
+        int closedIssues = (int) input.readSignedVarLong();
+        return new SerializableMilestone(id, title, dueDate, description, (flags & MILESTONE_OPEN) != 0,
+            openIssues, closedIssues);
+    }
+
+    private static void writeIssue(BinaryOutput output, Map<String, Integer> symbols, TurboIssue issue)
+        throws IOException {
+
+        Optional<Integer> milestone = issue.getMilestone();
+        boolean hasMilestone = milestone != null && milestone.isPresent();
+        output.writeByte((issue.isPullRequest() ? ISSUE_PULL_REQUEST : 0)
+            | (issue.isOpen() ? ISSUE_OPEN : 0)
+            | (hasMilestone ? ISSUE_MILESTONE : 0));
+        output.writeSignedVarLong(issue.getId());
+        output.writeText(issue.getTitle());
+        writeSymbol(output, symbols, issue.getCreator());
+        output.writeTime(issue.getCreatedAt());
+        output.writeText(issue.getDescription());
+        output.writeTime(issue.getUpdatedAt());
+        output.writeSignedVarLong(issue.getCommentCount());
+        writeSymbol(output, symbols, issue.getAssignee().orElse(null));
+        output.writeVarInt(issue.getLabels().size());
+        for (String label : issue.getLabels()) {
+            writeSymbol(output, symbols, label);
+        }
+        if (hasMilestone) {
+            output.writeSignedVarLong(milestone.get());
+        }
+    }
+
+    private static SerializableIssue readIssue(BinaryInput input, List<String> symbols) throws IOException {
+        int flags = input.readByte();
+        int id = (int) input.readSignedVarLong();
+        String title = input.readText();
+        String creator = readSymbol(input, symbols);
+        LocalDateTime createdAt = input.readTime();
+        String description = input.readText();
+        LocalDateTime updatedAt = input.readTime();
+        int commentCount = (int) input.readSignedVarLong();
+        Optional<String> assignee = Optional.ofNullable(readSymbol(input, symbols));
+        int labelCount = input.readCount();
+        List<String> labels = new ArrayList<>(Math.min(labelCount, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < labelCount; i++) {
+            labels.add(readSymbol(input, symbols));
+        }
+        Optional<Integer> milestone = (flags & ISSUE_MILESTONE) != 0
+            ? Optional.of((int) input.readSignedVarLong())
+            : Optional.empty();
+        return new SerializableIssue(id, title, creator, createdAt, (flags & ISSUE_PULL_REQUEST) != 0,
+            description, updatedAt, commentCount, (flags & ISSUE_OPEN) != 0, assignee, labels, milestone);
+    }
+}
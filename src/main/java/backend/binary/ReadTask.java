@@ -0,0 +1,83 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.json.JSONStore;
+import backend.resource.Model;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+import util.exceptions.RepoStoreException;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+class ReadTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(ReadTask.class);
+
+    private final BinaryStore store;
+    private final JSONStore legacyStore;
+    public final CompletableFuture<Model> response;
+
+    public ReadTask(String repoId, BinaryStore store, JSONStore legacyStore, CompletableFuture<Model> response) {
+        super(repoId);
+        this.store = store;
+        this.legacyStore = legacyStore;
+        this.response = response;
+    }
+
+    @Override
+    public void run() {
+        try {
+            Model model = BinaryStore.isStored(repoId) ? load(repoId) : migrate(repoId);
+            response.complete(model);
+        } catch (RepoStoreException e) {
+            logger.error(HTLog.format(repoId, "Unable to load from store"));
+            response.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void fail(Throwable cause) {
+        response.completeExceptionally(cause);
+    }
+
+    private Model load(String repoId) throws RepoStoreException {
+        try {
+            Model model = store.readModel(repoId);
+            logger.info(HTLog.format(repoId, "Data loaded from binary store"));
+            return model;
+        } catch (IOException | DateTimeException e) {
+            logger.error(HTLog.format(repoId, "Binary data is corrupted"));
+            throw new RepoStoreException(e);
+        }
+    }
+
+    /**
+     * Loads a repo stored as JSON, rewriting it in the binary format.
+     */
+    private Model migrate(String repoId) throws RepoStoreException {
+        Model model;
+        try {
+            model = legacyStore.loadRepository(repoId).get();
+        } catch (ExecutionException e) {
+            throw new RepoStoreException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepoStoreException(e);
+        }
+
+        if (!store.writeModel(repoId, model)) {
+            logger.info(HTLog.format(repoId, "Migrated from JSON to binary store"));
+            try {
+                legacyStore.removeStoredRepo(repoId).get();
+            } catch (ExecutionException e) {
+                logger.error(HTLog.format(repoId, "Unable to remove from JSON store"), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,111 @@
+package backend.binary;
+
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * What is stored of a model, against which the changes to be journaled when it is next saved are found.
+ *
+ * Issues are kept as their 64-bit content hashes (see {@link TurboIssue#getContentHash()}). Labels,
+ * milestones and users are few, so they are kept as they are and compared in full.
+ *
+ * When the model to be saved was updated from the stored one (see {@link Model#setUpdatedFrom(Model, Set)}),
+ * only the issues reported as updated, or changed through either model, are compared.
+ */
+final class StoredState {
+
+    private final Map<Integer, Long> issueHashes;
+    private final List<TurboLabel> labels;
+    private final List<TurboMilestone> milestones;
+    private final List<TurboUser> users;
+
+    // The stored model, and the number of changes made through it when stored
+    private final WeakReference<Model> stored;
+    private final int changeCount;
+
+    StoredState(Model model) {
+        issueHashes = new HashMap<>(model.getIssues().size() * 4 / 3 + 1);
+        model.getIssues().forEach(issue -> issueHashes.put(issue.getId(), issue.getContentHash()));
+        labels = new ArrayList<>(model.getLabels());
+        milestones = new ArrayList<>(model.getMilestones());
+        users = new ArrayList<>(model.getUsers());
+        stored = new WeakReference<>(model);
+        changeCount = model.getChangeCount();
+    }
+
+    /**
+     * Returns the changes from what is stored to the given model.
+     */
+    JournalEntry diff(Model model) {
+        List<TurboIssue> changedIssues = new ArrayList<>();
+        Set<Integer> removedIssueIds = new HashSet<>();
+        if (!diffUpdatedIssues(model, changedIssues)) {
+            Set<Integer> ids = new HashSet<>();
+            for (TurboIssue issue : model.getIssues()) {
+                ids.add(issue.getId());
+                if (isChanged(issue)) {
+                    changedIssues.add(issue);
+                }
+            }
+            removedIssueIds.addAll(issueHashes.keySet());
+            removedIssueIds.removeAll(ids);
+        }
+
+        return new JournalEntry(changedIssues, removedIssueIds,
+            model.getLabels().equals(labels) ? Optional.empty() : Optional.of(model.getLabels()),
+            model.getMilestones().equals(milestones) ? Optional.empty() : Optional.of(model.getMilestones()),
+            model.getUsers().equals(users) ? Optional.empty() : Optional.of(model.getUsers()),
+            model.getUpdateSignature());
+    }
+
+    /**
+     * Finds the changed issues of a model updated from the stored one among those it reports.
+     * @return false if the model was not updated from the stored one, in which case all issues must be compared
+     */
+    private boolean diffUpdatedIssues(Model model, List<TurboIssue> changedIssues) {
+        Model storedModel = stored.get();
+        Optional<Set<Integer>> updated = storedModel == null
+            ? Optional.empty()
+            : model.getIssuesUpdatedFrom(storedModel);
+        if (!updated.isPresent()) {
+            return false;
+        }
+        // Updates never remove issues, and append those they add, which are then journaled in order
+        List<TurboIssue> issues = model.getIssues();
+        if (issues.size() < issueHashes.size()) {
+            return false;
+        }
+        List<TurboIssue> addedIssues = issues.subList(issueHashes.size(), issues.size());
+        if (addedIssues.stream().anyMatch(issue -> issueHashes.containsKey(issue.getId()))) {
+            return false;
+        }
+
+        Set<Integer> ids = new HashSet<>(updated.get());
+        ids.addAll(storedModel.getIssuesChangedSince(changeCount));
+        ids.addAll(model.getIssuesChangedSince(0));
+        for (int id : ids) {
+            if (issueHashes.containsKey(id)) {
+                model.getIssueById(id).filter(this::isChanged).ifPresent(changedIssues::add);
+            }
+        }
+        changedIssues.addAll(addedIssues);
+        return true;
+    }
+
+    private boolean isChanged(TurboIssue issue) {
+        Long hash = issueHashes.get(issue.getId());
+        return hash == null || hash != issue.getContentHash();
+    }
+}
@@ -0,0 +1,36 @@
+package backend.binary;
+
+import backend.interfaces.StoreTask;
+import backend.resource.Model;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+
+import java.util.concurrent.CompletableFuture;
+
+class WriteTask extends StoreTask {
+
+    private static final Logger logger = HTLog.get(WriteTask.class);
+
+    private final BinaryStore store;
+    public final Model toSave;
+    public final CompletableFuture<Boolean> response;
+
+    public WriteTask(String repoId, BinaryStore store, Model toSave, CompletableFuture<Boolean> response) {
+        super(repoId);
+        this.store = store;
+        this.toSave = toSave;
+        this.response = response;
+    }
+
+    @Override
+    public void run() {
+        boolean failed = store.writeModel(repoId, toSave);
+        logger.info(HTLog.format(repoId, failed ? "Unable to write to binary store" : "Written to binary store"));
+        response.complete(failed);
+    }
+
+    @Override
+    public void fail(Throwable cause) {
+        response.completeExceptionally(cause);
+    }
+}
@@ -13,6 +13,7 @@ import util.HTLog;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class DownloadMetadataTask extends GitHubRepoTask<Map<Integer, IssueMetadata>> {
@@ -21,12 +22,14 @@ public class DownloadMetadataTask extends GitHubRepoTask<Map<Integer, IssueMetad
 
     private final String repoId;
     private final List<TurboIssue> issuesToUpdate;
+    private final MetadataCache cache;
 
     public DownloadMetadataTask(TaskRunner taskRunner, Repo repo, String repoId,
-                                List<TurboIssue> issuesToUpdate) {
+                                List<TurboIssue> issuesToUpdate, MetadataCache cache) {
         super(taskRunner, repo);
         this.repoId = repoId;
         this.issuesToUpdate = issuesToUpdate;
+        this.cache = cache;
     }
 
     @Override
@@ -38,14 +41,26 @@ public class DownloadMetadataTask extends GitHubRepoTask<Map<Integer, IssueMetad
             String currCommentsETag = issue.getMetadata().getCommentsETag();
             int id = issue.getId();
 
+            // Without metadata, e.g. when just loaded from the store, the issue may still have been downloaded
+            Optional<IssueMetadata> cached = currEventsETag.isEmpty() ? cache.get(repoId, id) : Optional.empty();
+            if (cached.isPresent()) {
+                currEventsETag = cached.get().getEventsETag();
+            }
+
             ImmutablePair<List<TurboIssueEvent>, String> changes = repo.getUpdatedEvents(repoId, id, currEventsETag);
 
             List<TurboIssueEvent> events = changes.getLeft();
             String updatedEventsETag = changes.getRight();
 
+            // Unchanged since then, so nothing was downloaded
+            if (cached.isPresent() && updatedEventsETag.equals(currEventsETag)) {
+                events = cached.get().getEvents();
+            }
+
             List<Comment> comments = repo.getAllComments(repoId, issue);
 
             IssueMetadata metadata = IssueMetadata.intermediate(events, comments, updatedEventsETag, currCommentsETag);
+            cache.put(repoId, id, metadata);
             result.put(id, metadata);
         });
 
@@ -19,6 +19,7 @@ public class GitHubSource extends RepoSource {
     private static final Logger logger = HTLog.get(GitHubSource.class);
 
     private final Repo gitHub = new GitHubRepo();
+    private final MetadataCache metadataCache = new MetadataCache(MetadataCache.DEFAULT_CAPACITY);
 
     @Override
     public String getName() {
@@ -51,7 +52,7 @@ public class GitHubSource extends RepoSource {
 
     @Override
     public CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(String repoId, List<TurboIssue> issues) {
-        return addTask(new DownloadMetadataTask(this, gitHub, repoId, issues)).response;
+        return addTask(new DownloadMetadataTask(this, gitHub, repoId, issues, metadataCache)).response;
     }
 
     @Override
@@ -0,0 +1,48 @@
+package backend.github;
+
+import backend.IssueMetadata;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The metadata last downloaded for issues, so that it can be reused if it is unchanged,
+ * e.g. after the model of a repo is reloaded from the store, which does not hold metadata.
+ *
+ * Entries are keyed by repo and issue, and hold the events ETag they were downloaded with, so that
+ * their events are only reused if GitHub reports them unchanged for that ETag.
+ * At most a fixed number are kept; the least recently used are evicted.
+ */
+public class MetadataCache {
+
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    private final Map<String, IssueMetadata> entries;
+
+    public MetadataCache(int capacity) {
+        entries = new LinkedHashMap<String, IssueMetadata>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IssueMetadata> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the metadata last downloaded for an issue, if it is kept.
+     */
+    synchronized Optional<IssueMetadata> get(String repoId, int issueId) {
+        return Optional.ofNullable(entries.get(key(repoId, issueId)));
+    }
+
+    synchronized void put(String repoId, int issueId, IssueMetadata metadata) {
+        if (!metadata.getEventsETag().isEmpty()) {
+            entries.put(key(repoId, issueId), metadata);
+        }
+    }
+
+    private static String key(String repoId, int issueId) {
+        return repoId.toLowerCase() + "#" + issueId;
+    }
+}
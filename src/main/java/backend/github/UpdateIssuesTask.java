@@ -2,6 +2,7 @@ package backend.github;
 
 import backend.interfaces.Repo;
 import backend.interfaces.TaskRunner;
+import backend.resource.IssueMerge;
 import backend.resource.Model;
 import backend.resource.TurboIssue;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
@@ -11,8 +12,9 @@ import util.HTLog;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
-public class UpdateIssuesTask extends GitHubRepoTask<GitHubRepoTask.Result<TurboIssue>> {
+public class UpdateIssuesTask extends GitHubRepoTask<UpdateIssuesTask.IssuesResult> {
 
     private static final Logger logger = HTLog.get(UpdateIssuesTask.class);
 
@@ -38,11 +40,23 @@ public class UpdateIssuesTask extends GitHubRepoTask<GitHubRepoTask.Result<Turbo
         logger.info(HTLog.format(model.getRepoId(), "%s pr(s)) changed%s",
                 updatedPullRequests.size(), updatedPullRequests.isEmpty() ? "" : ": " + updatedPullRequests));
 
-        List<TurboIssue> updated = updatedIssues.isEmpty()
-            ? existing
-            : TurboIssue.reconcile(existing, updatedIssues);
-        updated = TurboIssue.combineWithPullRequests(updated, updatedPullRequests);
+        IssueMerge merge = IssueMerge.merge(existing, updatedIssues, updatedPullRequests);
+        logger.info(HTLog.format(model.getRepoId(), "Merged updates: " + merge));
 
-        response.complete(new Result<>(updated, changes.middle, changes.right));
+        // Keeps the existing list if nothing changed, so that it is not copied
+        response.complete(new IssuesResult(merge.isEmpty() ? existing : merge.getIssues(),
+            merge.getUpdatedIds(), changes.middle, changes.right));
+    }
+
+    /**
+     * The updated issues, with the ids of those which were added or changed by the update.
+     */
+    public static class IssuesResult extends Result<TurboIssue> {
+        public final Set<Integer> updatedIssueIds;
+
+        public IssuesResult(List<TurboIssue> items, Set<Integer> updatedIssueIds, String eTag, Date lastCheckTime) {
+            super(items, eTag, lastCheckTime);
+            this.updatedIssueIds = updatedIssueIds;
+        }
     }
 }
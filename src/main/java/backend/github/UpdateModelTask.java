@@ -33,7 +33,7 @@ public class UpdateModelTask extends GitHubRepoTask<Model> {
         taskRunner.execute(usersTask);
 
         try {
-            GitHubRepoTask.Result<TurboIssue> issuesResult = issuesTask.response.get();
+            UpdateIssuesTask.IssuesResult issuesResult = issuesTask.response.get();
             GitHubRepoTask.Result<TurboLabel> labelsResult = labelsTask.response.get();
             GitHubRepoTask.Result<TurboMilestone> milestonesResult = milestonesTask.response.get();
             GitHubRepoTask.Result<TurboUser> usersResult = usersTask.response.get();
@@ -44,6 +44,8 @@ public class UpdateModelTask extends GitHubRepoTask<Model> {
 
             Model result = new Model(model.getRepoId(), issuesResult.items,
                 labelsResult.items, milestonesResult.items, usersResult.items, newSignature);
+            result.setUpdatedFrom(model, issuesResult.updatedIssueIds);
+            result.deriveIndexFrom(model);
 
             logger.info(HTLog.format(model.getRepoId(), "Updated model with " + result.summarise()));
             response.complete(result);
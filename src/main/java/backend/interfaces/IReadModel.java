@@ -0,0 +1,20 @@
+package backend.interfaces;
+
+import backend.resource.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * The read-only part of {@link IModel}, which immutable views of the models,
+ * such as snapshots of them, also implement.
+ */
+public interface IReadModel extends IBaseModel {
+    String getDefaultRepo();
+    Optional<Model> getModelById(String repoId);
+    Optional<TurboUser> getAssigneeOfIssue(TurboIssue issue);
+    List<TurboLabel> getLabelsOfIssue(TurboIssue issue);
+    List<TurboLabel> getLabelsOfIssue(TurboIssue issue, Predicate<TurboLabel> predicate);
+    Optional<TurboMilestone> getMilestoneOfIssue(TurboIssue issue);
+}
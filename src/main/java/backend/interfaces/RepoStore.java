@@ -1,34 +1,89 @@
 package backend.interfaces;
 
 import backend.resource.Model;
-import backend.resource.serialization.SerializableModel;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+import util.StripedExecutor;
 import util.Utility;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public abstract class RepoStore {
+
+    private static final Logger logger = HTLog.get(RepoStore.class);
+
     protected static String directory = "store";
     public static final String TEST_DIRECTORY = "store/test";
-    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    // Store tasks are mostly waiting on the disk, so this need not depend on the processors available
+    private static final int THREADS = 4;
+
+    // Tasks of each repo run in order, while those of different repos may run in parallel
+    private final StripedExecutor pool = new StripedExecutor(THREADS);
 
     public static String escapeRepoName(String repoName) {
-        return repoName.replace("/", "-") + ".json";
+        return escapeRepoName(repoName, ".json");
     }
 
+    public static String escapeRepoName(String repoName, String extension) {
+        return repoName.replace("/", "-") + extension;
+    }
+
+    /**
+     * Runs a task after those already added for its repo. One added by a task of the same repo,
+     * which may be waiting for it, runs immediately instead.
+     */
     protected void addTask(StoreTask task) {
-        pool.execute(task);
+        pool.execute(getStripe(task), guard(task));
+    }
+
+    /**
+     * Runs a task after those already added for its repo, even if added by one of them, which
+     * must then not wait for it.
+     */
+    protected void addFollowingTask(StoreTask task) {
+        pool.executeLater(getStripe(task), guard(task));
+    }
+
+    /**
+     * Fails the task if it throws, as its response would otherwise never be completed.
+     */
+    private static Runnable guard(StoreTask task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error(HTLog.format(task.repoId, "Store task failed"), e);
+                task.fail(e);
+            }
+        };
+    }
+
+    private static String getStripe(StoreTask task) {
+        return task.repoId.toLowerCase();
     }
 
     public abstract CompletableFuture<Model> loadRepository(String repoId);
-    public abstract CompletableFuture<Boolean> saveRepository(String repoId, SerializableModel model);
+    public abstract CompletableFuture<Boolean> saveRepository(String repoId, Model model);
+    public abstract List<String> getStoredRepos();
+    public abstract CompletableFuture<Boolean> removeStoredRepo(String repoId);
 
     private static Optional<String> getRepoPath(String repoId) {
+        return getRepoPath(repoId, ".json");
+    }
+
+    protected static Optional<String> getRepoPath(String repoId, String extension) {
         if (ensureDirectoryExists()) {
-            String newRepoName = RepoStore.escapeRepoName(repoId);
+            String newRepoName = RepoStore.escapeRepoName(repoId, extension);
             return Optional.of(new File(RepoStore.directory, newRepoName).getAbsolutePath());
         }
         return Optional.empty();
@@ -38,8 +93,23 @@ public abstract class RepoStore {
         return Utility.writeFile(getRepoPath(repoId).orElse(""), output, issueCount);
     }
 
-    public static Optional<String> read(String repoId) {
-        return Utility.readFile(getRepoPath(repoId).orElse(""));
+    /**
+     * Returns true on corruption of the written data, as with {@link #write(String, String, int)}.
+     */
+    public static boolean write(String repoId, Utility.FileContent output, int issueCount) {
+        return Utility.writeFile(getRepoPath(repoId).orElse(""), output, issueCount);
+    }
+
+    /**
+     * Opens the stored data of a repo for reading as a stream.
+     * @throws NoSuchFileException if the repo is not stored
+     */
+    public static BufferedReader openReader(String repoId) throws IOException {
+        Optional<String> path = getRepoPath(repoId);
+        if (!path.isPresent()) {
+            throw new NoSuchFileException(RepoStore.directory);
+        }
+        return Files.newBufferedReader(Paths.get(path.get()), StandardCharsets.UTF_8);
     }
 
     public static boolean delete(String repoId) {
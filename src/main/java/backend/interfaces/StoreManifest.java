@@ -0,0 +1,207 @@
+package backend.interfaces;
+
+import backend.UpdateSignature;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.logging.log4j.Logger;
+import util.HTLog;
+import util.Utility;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An index of the repos in a store, kept in a small file beside their files, so that listing them
+ * does not need those to be read. For each repo it records its id, file name, size, modification
+ * time, issue count and update signature, and it is rewritten atomically whenever one is saved
+ * or removed.
+ *
+ * Files not recorded, or changed since they were, e.g. by an earlier version, are read for their
+ * repo id once, after which they are recorded too.
+ */
+public class StoreManifest {
+
+    private static final Logger logger = HTLog.get(StoreManifest.class);
+    private static final Gson gson = new Gson();
+
+    private static final int VERSION = 1;
+
+    // Stores may share a manifest, e.g. two of the same kind
+    private static final Object lock = new Object();
+
+    private final String fileName;
+    private final String extension;
+
+    /**
+     * @param fileName the name of the manifest in the store directory, which must not end
+     *                 with the extension of the repo files
+     * @param extension the extension of the repo files
+     */
+    public StoreManifest(String fileName, String extension) {
+        this.fileName = fileName;
+        this.extension = extension;
+    }
+
+    /**
+     * Lists the repos in the store directory.
+     * @param readRepoId reads the repo id from a file which is not recorded
+     */
+    public List<String> getRepoIds(Function<Path, Optional<String>> readRepoId) throws IOException {
+        synchronized (lock) {
+            Map<String, Entry> recorded = read();
+            List<Entry> entries = new ArrayList<>();
+            boolean isChanged = false;
+            try (Stream<Path> files = Files.walk(Paths.get(RepoStore.directory), 1)) {
+                for (Path file : files.filter(this::isRepoFile).collect(Collectors.toList())) {
+                    Entry entry = recorded.get(String.valueOf(file.getFileName()));
+                    if (entry != null && entry.isCurrent(file)) {
+                        entries.add(entry);
+                    } else {
+                        isChanged = true;
+                        Optional<String> repoId = readRepoId.apply(file);
+                        if (repoId.isPresent()) {
+                            entries.add(new Entry(repoId.get(), file, -1, null));
+                        }
+                    }
+                }
+            }
+            if (isChanged || entries.size() != recorded.size()) {
+                write(entries);
+            }
+            return entries.stream().map(entry -> entry.repoId).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Records a repo which has been saved.
+     */
+    public void put(String repoId, int issueCount, UpdateSignature updateSignature) {
+        synchronized (lock) {
+            Path file = Paths.get(RepoStore.directory, RepoStore.escapeRepoName(repoId, extension));
+            List<Entry> entries = removeEntry(repoId);
+            try {
+                entries.add(new Entry(repoId, file, issueCount, updateSignature.isEmpty() ? null : updateSignature));
+            } catch (IOException e) {
+                logger.error(HTLog.format(repoId, "Unable to record in store manifest"), e);
+            }
+            write(entries);
+        }
+    }
+
+    /**
+     * Records a repo which has been removed.
+     */
+    public void remove(String repoId) {
+        synchronized (lock) {
+            write(removeEntry(repoId));
+        }
+    }
+
+    private List<Entry> removeEntry(String repoId) {
+        return read().values().stream()
+            .filter(entry -> !entry.repoId.equalsIgnoreCase(repoId))
+            .collect(Collectors.toList());
+    }
+
+    private boolean isRepoFile(Path file) {
+        String name = String.valueOf(file.getFileName());
+        return Files.isRegularFile(file) && name.toLowerCase().endsWith(extension.toLowerCase());
+    }
+
+    private Path getFile() {
+        return Paths.get(RepoStore.directory, fileName);
+    }
+
+    /**
+     * Returns the recorded repos by file name, which are none if the manifest is missing or corrupted.
+     */
+    private Map<String, Entry> read() {
+        Map<String, Entry> result = new HashMap<>();
+        Path file = getFile();
+        if (!Files.exists(file)) {
+            return result;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Contents contents = gson.fromJson(reader, Contents.class);
+            if (contents == null || contents.version != VERSION || contents.repos == null
+                || contents.checksum != checksum(contents.repos)) {
+                logger.error("Store manifest " + fileName + " is corrupted");
+                return result;
+            }
+            contents.repos.forEach(entry -> result.put(entry.fileName, entry));
+        } catch (IOException | JsonParseException e) {
+            logger.error("Unable to read store manifest " + fileName, e);
+        }
+        return result;
+    }
+
+    private void write(List<Entry> entries) {
+        if (!RepoStore.ensureDirectoryExists()) {
+            return;
+        }
+        Contents contents = new Contents(entries);
+        Utility.writeFile(getFile().toString(), writer -> gson.toJson(contents, writer), 0);
+    }
+
+    private static long checksum(List<Entry> entries) {
+        CRC32 checksum = new CRC32();
+        for (Entry entry : entries) {
+            String line = entry.repoId + '\0' + entry.fileName + '\0' + entry.size + '\0' + entry.modified
+                + '\0' + entry.issueCount + '\n';
+            checksum.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return checksum.getValue();
+    }
+
+    private static final class Contents {
+        private final int version;
+        private final long checksum;
+        private final List<Entry> repos;
+
+        Contents(List<Entry> repos) {
+            this.version = VERSION;
+            this.checksum = checksum(repos);
+            this.repos = repos;
+        }
+    }
+
+    private static final class Entry {
+        private final String repoId;
+        private final String fileName;
+        private final long size;
+        private final long modified;
+        // -1 and null if the repo was recorded without being saved
+        private final int issueCount;
+        private final UpdateSignature updateSignature;
+
+        Entry(String repoId, Path file, int issueCount, UpdateSignature updateSignature) throws IOException {
+            this.repoId = repoId;
+            this.fileName = String.valueOf(file.getFileName());
+            this.size = Files.size(file);
+            this.modified = Files.getLastModifiedTime(file).toMillis();
+            this.issueCount = issueCount;
+            this.updateSignature = updateSignature;
+        }
+
+        private boolean isCurrent(Path file) {
+            try {
+                return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == modified;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
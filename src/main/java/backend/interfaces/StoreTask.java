@@ -8,5 +8,9 @@ public abstract class StoreTask implements Runnable {
     }
 
     public abstract void run();
-}
 
+    /**
+     * Completes the response of the task, if it has one, with the exception thrown by {@link #run()}.
+     */
+    public abstract void fail(Throwable cause);
+}
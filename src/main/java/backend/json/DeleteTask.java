@@ -1,6 +1,7 @@
 package backend.json;
 
 import backend.interfaces.RepoStore;
+import backend.interfaces.StoreManifest;
 import backend.interfaces.StoreTask;
 
 import java.io.IOException;
@@ -11,15 +12,24 @@ import java.nio.file.Paths;
 import java.util.concurrent.CompletableFuture;
 
 class DeleteTask extends StoreTask {
+    private final StoreManifest manifest;
     public final CompletableFuture<Boolean> response;
 
-    protected DeleteTask(String repoId, CompletableFuture<Boolean> response) {
+    protected DeleteTask(String repoId, StoreManifest manifest, CompletableFuture<Boolean> response) {
         super(repoId);
+        this.manifest = manifest;
         this.response = response;
     }
 
     @Override
     public void run() {
-        response.complete(RepoStore.delete(repoId));
+        boolean failed = RepoStore.delete(repoId);
+        manifest.remove(repoId);
+        response.complete(failed);
+    }
+
+    @Override
+    public void fail(Throwable cause) {
+        response.completeExceptionally(cause);
     }
 }
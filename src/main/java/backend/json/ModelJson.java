@@ -0,0 +1,157 @@
+package backend.json;
+
+import backend.UpdateSignature;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+import backend.resource.serialization.SerializableIssue;
+import backend.resource.serialization.SerializableLabel;
+import backend.resource.serialization.SerializableMilestone;
+import backend.resource.serialization.SerializableModel;
+import backend.resource.serialization.SerializableUser;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Reads and writes models in the JSON format of {@link SerializableModel}, streaming them
+ * resource by resource, so that neither the whole JSON text nor a serializable copy of the
+ * whole model is held in memory at once.
+ */
+final class ModelJson {
+
+    private static final Gson gson = new Gson();
+
+    private ModelJson() {
+    }
+
+    static void write(Model model, Writer output) throws IOException {
+        JsonWriter writer = new JsonWriter(output);
+        writer.beginObject();
+        writer.name("repoId").value(model.getRepoId());
+        writer.name("updateSignature");
+        gson.toJson(model.getUpdateSignature(), UpdateSignature.class, writer);
+
+        writer.name("issues").beginArray();
+        for (TurboIssue issue : model.getIssues()) {
+            gson.toJson(new SerializableIssue(issue), SerializableIssue.class, writer);
+        }
+        writer.endArray();
+        writer.name("labels").beginArray();
+        for (TurboLabel label : model.getLabels()) {
+            gson.toJson(new SerializableLabel(label), SerializableLabel.class, writer);
+        }
+        writer.endArray();
+        writer.name("milestones").beginArray();
+        for (TurboMilestone milestone : model.getMilestones()) {
+            gson.toJson(new SerializableMilestone(milestone), SerializableMilestone.class, writer);
+        }
+        writer.endArray();
+        writer.name("users").beginArray();
+        for (TurboUser user : model.getUsers()) {
+            gson.toJson(new SerializableUser(user), SerializableUser.class, writer);
+        }
+        writer.endArray();
+
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * @throws JsonParseException if the input is not a model, e.g. if it is missing any of its resources
+     */
+    static Model read(Reader input) throws IOException {
+        JsonReader reader = new JsonReader(input);
+        String repoId = null;
+        UpdateSignature updateSignature = null;
+        List<TurboIssue> issues = null;
+        List<TurboLabel> labels = null;
+        List<TurboMilestone> milestones = null;
+        List<TurboUser> users = null;
+
+        // Resources are converted as they are read, which needs the repo id; it is written first
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "repoId":
+                repoId = reader.nextString();
+                break;
+            case "updateSignature":
+                updateSignature = gson.fromJson(reader, UpdateSignature.class);
+                break;
+            case "issues":
+                String issuesRepoId = requireRepoId(repoId);
+                issues = readArray(reader, SerializableIssue.class, i -> new TurboIssue(issuesRepoId, i));
+                break;
+            case "labels":
+                String labelsRepoId = requireRepoId(repoId);
+                labels = readArray(reader, SerializableLabel.class, l -> new TurboLabel(labelsRepoId, l));
+                break;
+            case "milestones":
+                String milestonesRepoId = requireRepoId(repoId);
+                milestones = readArray(reader, SerializableMilestone.class,
+                    m -> new TurboMilestone(milestonesRepoId, m));
+                break;
+            case "users":
+                String usersRepoId = requireRepoId(repoId);
+                users = readArray(reader, SerializableUser.class, u -> new TurboUser(usersRepoId, u));
+                break;
+            default:
+                reader.skipValue();
+                break;
+            }
+        }
+        reader.endObject();
+
+        if (issues == null || labels == null || milestones == null || users == null) {
+            throw new JsonParseException("Incomplete model of " + repoId);
+        }
+        return new Model(repoId, issues, labels, milestones, users, updateSignature);
+    }
+
+    /**
+     * Reads only the repo id of a model, skipping the rest.
+     */
+    static Optional<String> readRepoId(Reader input) throws IOException {
+        JsonReader reader = new JsonReader(input);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("repoId") && reader.peek() == JsonToken.STRING) {
+                return Optional.of(reader.nextString());
+            }
+            reader.skipValue();
+        }
+        return Optional.empty();
+    }
+
+    private static String requireRepoId(String repoId) {
+        if (repoId == null) {
+            throw new JsonParseException("Resources stored before the repo id");
+        }
+        return repoId;
+    }
+
+    private static <S, R> List<R> readArray(JsonReader reader, Class<S> type, Function<S, R> convert)
+        throws IOException {
+
+        List<R> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(convert.apply(gson.fromJson(reader, type)));
+        }
+        reader.endArray();
+        return result;
+    }
+}
@@ -3,16 +3,15 @@ package backend.json;
 import backend.interfaces.RepoStore;
 import backend.interfaces.StoreTask;
 import backend.resource.Model;
-import backend.resource.serialization.SerializableModel;
-import com.google.gson.Gson;
 import com.google.gson.JsonParseException;
-import com.google.gson.reflect.TypeToken;
 import org.apache.logging.log4j.Logger;
 import util.HTLog;
 import util.exceptions.JSONLoadException;
 import util.exceptions.RepoStoreException;
 
-import java.util.Optional;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.concurrent.CompletableFuture;
 
 class ReadTask extends StoreTask {
@@ -37,6 +36,11 @@ class ReadTask extends StoreTask {
         }
     }
 
+    @Override
+    public void fail(Throwable cause) {
+        response.completeExceptionally(cause);
+    }
+
     /**
      * Loads repository data from RepoStore into a new Model.
      * @param repoId the string id of the repository to be loaded
@@ -45,24 +49,16 @@ class ReadTask extends StoreTask {
      *         retrieved from the local store or is corrupted
      */
     private Model load(String repoId) throws RepoStoreException {
-        Optional<String> input = RepoStore.read(repoId);
-
-        if (!input.isPresent()) {
-            logger.error("Unable to load " + repoId + " from JSON cache");
-            throw new JSONLoadException();
-        } else {
+        try (BufferedReader input = RepoStore.openReader(repoId)) {
+            Model model = ModelJson.read(input);
             logger.info(HTLog.format(repoId, "Data loaded from JSON cache"));
-
-            try {
-                SerializableModel sModel = new Gson().fromJson(input.get(),
-                        new TypeToken<SerializableModel>(){}.getType());
-
-                return new Model(sModel);
-            } catch (NullPointerException | JsonParseException e) {
-                logger.error(HTLog.format(repoId, "JSON data is corrupted"));
-                throw new JSONLoadException(e);
-            }
+            return model;
+        } catch (NoSuchFileException e) {
+            logger.error("Unable to load " + repoId + " from JSON cache");
+            throw new JSONLoadException(e);
+        } catch (IOException | IllegalStateException | NullPointerException | JsonParseException e) {
+            logger.error(HTLog.format(repoId, "JSON data is corrupted"));
+            throw new JSONLoadException(e);
         }
     }
 }
-
@@ -1,10 +1,9 @@
 package backend.json;
 
 import backend.interfaces.RepoStore;
+import backend.interfaces.StoreManifest;
 import backend.interfaces.StoreTask;
-import backend.resource.serialization.SerializableModel;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import backend.resource.Model;
 import org.apache.logging.log4j.Logger;
 import util.HTLog;
 
@@ -14,12 +13,14 @@ class WriteTask extends StoreTask {
 
     private static final Logger logger = HTLog.get(WriteTask.class);
 
-    public final SerializableModel toSave;
+    public final Model toSave;
+    private final StoreManifest manifest;
     public final CompletableFuture<Boolean> response;
 
-    public WriteTask(String repoName, SerializableModel toSave, CompletableFuture<Boolean> response) {
+    public WriteTask(String repoName, Model toSave, StoreManifest manifest, CompletableFuture<Boolean> response) {
         super(repoName);
         this.toSave = toSave;
+        this.manifest = manifest;
         this.response = response;
     }
 
@@ -28,11 +29,16 @@ class WriteTask extends StoreTask {
         response.complete(save(repoId, toSave));
     }
 
-    private boolean save(String repoId, SerializableModel model) {
-        String output = new Gson().toJson(model);
-        boolean corruptedJson = RepoStore.write(repoId, output, model.issues.size());
+    @Override
+    public void fail(Throwable cause) {
+        response.completeExceptionally(cause);
+    }
+
+    private boolean save(String repoId, Model model) {
+        boolean corruptedJson = RepoStore.write(repoId, writer -> ModelJson.write(model, writer),
+            model.getIssues().size());
+        manifest.put(repoId, model.getIssues().size(), model.getUpdateSignature());
         logger.info(HTLog.format(repoId, "Written to JSON store"));
         return corruptedJson;
     }
 }
-
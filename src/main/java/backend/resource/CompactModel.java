@@ -0,0 +1,293 @@
+package backend.resource;
+
+import backend.IssueMetadata;
+import backend.UpdateSignature;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A read-only copy of a model which holds its issues column-wise rather than as objects, for models
+ * which are kept but not in use (see {@link backend.ModelResidency}).
+ *
+ * Ids, comment counts and milestones are held as ints, dates as epoch seconds and nanoseconds, and
+ * whether issues are open or pull requests as bitsets. Creators, assignees and label names are held
+ * once each, as symbols referred to by int ids; the labels of each issue are a range of a single array
+ * of label symbol ids. Titles and (compressed) descriptions are shared with the issues copied.
+ *
+ * Issues are materialised as new {@link TurboIssue} views only when asked for, e.g. all of them when
+ * the model is used again (see {@link #toModel()}). Changes to views do not affect the copy.
+ */
+public final class CompactModel {
+
+    // Symbol ids standing for an absent value, and for a missing one (as an unset field)
+    private static final int ABSENT = -1;
+    private static final int MISSING = -2;
+
+    private static final int NO_MILESTONE = Integer.MIN_VALUE;
+    private static final int MISSING_MILESTONE = Integer.MIN_VALUE + 1;
+
+    private final String repoId;
+    private final UpdateSignature updateSignature;
+    private final List<TurboLabel> labels;
+    private final List<TurboMilestone> milestones;
+    private final List<TurboUser> users;
+
+    private final String[] symbols;
+
+    private final int[] ids;
+    private final int[] creators;
+    private final Dates createdAt;
+    private final BitSet pullRequests = new BitSet();
+    private final String[] titles;
+    private final CompressedText[] descriptions;
+    private final Dates updatedAt;
+    private final int[] commentCounts;
+    private final BitSet open = new BitSet();
+    private final int[] assignees;
+    private final int[] milestoneIds;
+
+    // The labels of issue i are those from labelOffsets[i] to labelOffsets[i + 1]; null label lists are marked
+    private final int[] labelOffsets;
+    private final int[] labelSymbols;
+    private final BitSet missingLabels = new BitSet();
+
+    private final IssueMetadata[] metadata;
+    private final Dates markedReadAt;
+    private final Dates labelsLastModifiedAt;
+    private final long[] contentHashes;
+
+    private CompactModel(Model model) {
+        repoId = model.getRepoId();
+        updateSignature = model.getUpdateSignature();
+        labels = model.getLabels();
+        milestones = model.getMilestones();
+        users = model.getUsers();
+
+        List<TurboIssue> issues = model.getIssues();
+        int size = issues.size();
+        ids = new int[size];
+        creators = new int[size];
+        createdAt = new Dates(size);
+        titles = new String[size];
+        descriptions = new CompressedText[size];
+        updatedAt = new Dates(size);
+        commentCounts = new int[size];
+        assignees = new int[size];
+        milestoneIds = new int[size];
+        labelOffsets = new int[size + 1];
+        metadata = new IssueMetadata[size];
+        markedReadAt = new Dates(size);
+        labelsLastModifiedAt = new Dates(size);
+        contentHashes = new long[size];
+
+        Map<String, Integer> symbolIds = new HashMap<>();
+        List<String> symbolList = new ArrayList<>();
+        int labelCount = 0;
+        for (TurboIssue issue : issues) {
+            labelCount += issue.getLabels() == null ? 0 : issue.getLabels().size();
+        }
+        int[] labelIds = new int[labelCount];
+
+        for (int i = 0; i < size; i++) {
+            TurboIssue issue = issues.get(i);
+            ids[i] = issue.getId();
+            creators[i] = symbolId(symbolIds, symbolList, issue.getCreator());
+            createdAt.set(i, Optional.ofNullable(issue.getCreatedAt()));
+            if (issue.isPullRequest()) {
+                pullRequests.set(i);
+            }
+            titles[i] = issue.getTitle();
+            descriptions[i] = issue.getCompressedDescription();
+            updatedAt.set(i, Optional.ofNullable(issue.getUpdatedAt()));
+            commentCounts[i] = issue.getCommentCount();
+            if (issue.isOpen()) {
+                open.set(i);
+            }
+            assignees[i] = issue.getAssignee() == null
+                ? MISSING
+                : issue.getAssignee().map(assignee -> symbolId(symbolIds, symbolList, assignee)).orElse(ABSENT);
+            milestoneIds[i] = issue.getMilestone() == null
+                ? MISSING_MILESTONE
+                : issue.getMilestone().orElse(NO_MILESTONE);
+
+            int offset = labelOffsets[i];
+            if (issue.getLabels() == null) {
+                missingLabels.set(i);
+            } else {
+                for (String label : issue.getLabels()) {
+                    labelIds[offset++] = symbolId(symbolIds, symbolList, label);
+                }
+            }
+            labelOffsets[i + 1] = offset;
+
+            metadata[i] = issue.getMetadata();
+            markedReadAt.set(i, issue.getMarkedReadAt());
+            labelsLastModifiedAt.set(i, issue.getOwnLabelsLastModifiedAt());
+            contentHashes[i] = issue.getContentHash();
+        }
+        labelSymbols = labelIds;
+        symbols = symbolList.toArray(new String[symbolList.size()]);
+    }
+
+    /**
+     * Returns a compact copy of the given model, which should no longer be changed.
+     */
+    public static CompactModel of(Model model) {
+        return new CompactModel(model);
+    }
+
+    private static int symbolId(Map<String, Integer> symbolIds, List<String> symbolList, String symbol) {
+        if (symbol == null) {
+            return MISSING;
+        }
+        Integer id = symbolIds.get(symbol);
+        if (id == null) {
+            id = symbolList.size();
+            symbolIds.put(symbol, id);
+            symbolList.add(symbol);
+        }
+        return id;
+    }
+
+    public String getRepoId() {
+        return repoId;
+    }
+
+    public int getIssueCount() {
+        return ids.length;
+    }
+
+    /**
+     * Returns a new view of the issue with the given ordinal, its position in the model copied.
+     */
+    public TurboIssue getIssue(int ordinal) {
+        SymbolTable symbolTable = SymbolTable.of(repoId);
+        return new TurboIssue(symbolTable.getRepoId(), ids[ordinal],
+            symbolTable.intern(symbol(creators[ordinal])), createdAt.get(ordinal).orElse(null),
+            pullRequests.get(ordinal), titles[ordinal], descriptions[ordinal], updatedAt.get(ordinal).orElse(null),
+            commentCounts[ordinal], open.get(ordinal), getAssignee(symbolTable, ordinal),
+            getLabels(symbolTable, ordinal), getMilestone(ordinal), metadata[ordinal],
+            markedReadAt.get(ordinal), labelsLastModifiedAt.get(ordinal), contentHashes[ordinal]);
+    }
+
+    /**
+     * Returns a new view of the issue with the given id, if any. The ids are scanned, as this is
+     * meant for occasional lookups.
+     */
+    public Optional<TurboIssue> getIssueById(int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return Optional.of(getIssue(i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns a new model with all issues materialised, which may be used and changed as usual.
+     */
+    public Model toModel() {
+        List<TurboIssue> issues = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            issues.add(getIssue(i));
+        }
+        return new Model(repoId, issues, labels, milestones, users, updateSignature);
+    }
+
+    private String symbol(int symbolId) {
+        return symbolId < 0 ? null : symbols[symbolId];
+    }
+
+    private Optional<String> getAssignee(SymbolTable symbolTable, int ordinal) {
+        switch (assignees[ordinal]) {
+        case MISSING:
+            return null;
+        case ABSENT:
+            return Optional.empty();
+        default:
+            return Optional.of(symbolTable.intern(symbols[assignees[ordinal]]));
+        }
+    }
+
+    private List<String> getLabels(SymbolTable symbolTable, int ordinal) {
+        if (missingLabels.get(ordinal)) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(labelOffsets[ordinal + 1] - labelOffsets[ordinal]);
+        for (int i = labelOffsets[ordinal]; i < labelOffsets[ordinal + 1]; i++) {
+            result.add(symbol(labelSymbols[i]));
+        }
+        return symbolTable.internLabels(result);
+    }
+
+    private Optional<Integer> getMilestone(int ordinal) {
+        switch (milestoneIds[ordinal]) {
+        case MISSING_MILESTONE:
+            return null;
+        case NO_MILESTONE:
+            return Optional.empty();
+        default:
+            return Optional.of(milestoneIds[ordinal]);
+        }
+    }
+
+    /**
+     * Returns an estimate of the memory held by this copy, in bytes, in the same terms as
+     * {@link Model#getEstimatedSize()}.
+     */
+    public long getEstimatedSize() {
+        long size = Model.ESTIMATED_RESOURCE_SIZE * (labels.size() + milestones.size() + users.size());
+        // Per issue: ints, references, a content hash and the offset of its labels, and four dates
+        size += (5 * 4L + 3 * 8L + 8L + 4L + 4 * Dates.ESTIMATED_SIZE) * ids.length
+            + 4L * labelSymbols.length + (open.size() + pullRequests.size() + missingLabels.size()) / 8;
+        for (String symbol : symbols) {
+            size += 40 + 2L * symbol.length();
+        }
+        for (int i = 0; i < ids.length; i++) {
+            size += (titles[i] == null ? 0 : 40 + 2L * titles[i].length())
+                + (descriptions[i] == null ? 0 : descriptions[i].getFootprint());
+        }
+        return size;
+    }
+
+    /**
+     * Optional dates of the issues, by ordinal, as epoch seconds (in UTC, as for local dates) and
+     * nanoseconds.
+     */
+    private static final class Dates {
+        static final long ESTIMATED_SIZE = 8 + 4;
+
+        private static final long NO_DATE = Long.MIN_VALUE;
+
+        private final long[] seconds;
+        private final int[] nanos;
+
+        Dates(int size) {
+            seconds = new long[size];
+            nanos = new int[size];
+        }
+
+        void set(int ordinal, Optional<LocalDateTime> date) {
+            if (date == null || !date.isPresent()) {
+                seconds[ordinal] = NO_DATE;
+            } else {
+                seconds[ordinal] = date.get().toEpochSecond(ZoneOffset.UTC);
+                nanos[ordinal] = date.get().getNano();
+            }
+        }
+
+        Optional<LocalDateTime> get(int ordinal) {
+            if (seconds[ordinal] == NO_DATE) {
+                return Optional.empty();
+            }
+            return Optional.of(LocalDateTime.ofEpochSecond(seconds[ordinal], nanos[ordinal], ZoneOffset.UTC));
+        }
+    }
+}
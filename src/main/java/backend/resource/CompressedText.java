@@ -0,0 +1,167 @@
+package backend.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A piece of text which is held compressed, for long texts which are rarely read, e.g. issue descriptions.
+ * They are only read when filtering by description or keyword, and when opening an issue.
+ *
+ * Texts shorter than {@link #MIN_COMPRESSED_LENGTH} are kept as they are, as compressing them saves little.
+ * Recently read texts are kept decompressed in a shared LRU cache, so that evaluating several filters
+ * against the same issues does not decompress them each time.
+ *
+ * Instances are immutable, and equal if their texts are; the hash code is that of the text.
+ * A 64-bit hash of the text is also kept, for the content hashes of resources (see {@link ContentHash}).
+ */
+final class CompressedText {
+
+    static final int MIN_COMPRESSED_LENGTH = 256;
+    private static final int MAX_CACHED_TEXTS = 512;
+
+    private static final Map<CompressedText, String> recentlyRead =
+        Collections.synchronizedMap(new LinkedHashMap<CompressedText, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CompressedText, String> eldest) {
+                return size() > MAX_CACHED_TEXTS;
+            }
+        });
+
+    // Exactly one of these is non-null
+    private final String text;
+    private final byte[] compressed;
+
+    private final int length;
+    private final int hash;
+    private final long contentHash;
+
+    private CompressedText(String text, byte[] compressed, int length, int hash, long contentHash) {
+        this.text = text;
+        this.compressed = compressed;
+        this.length = length;
+        this.hash = hash;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Returns the given text, compressed if it is long enough; null if it is null.
+     */
+    static CompressedText of(String text) {
+        if (text == null) {
+            return null;
+        } else if (text.length() < MIN_COMPRESSED_LENGTH) {
+            return new CompressedText(text, null, text.length(), text.hashCode(), ContentHash.of(text));
+        } else {
+            return new CompressedText(null, compress(text), text.length(), text.hashCode(), ContentHash.of(text));
+        }
+    }
+
+    /**
+     * Returns a 64-bit hash of the text, see {@link ContentHash}.
+     */
+    long getContentHash() {
+        return contentHash;
+    }
+
+    String get() {
+        if (text != null) {
+            return text;
+        }
+        String result = recentlyRead.get(this);
+        if (result == null) {
+            result = decompress(compressed, length);
+            recentlyRead.put(this, result);
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #get()}, but does not add the text to the cache of recently read texts,
+     * so that reading many texts once does not evict those read repeatedly.
+     */
+    String getUncached() {
+        if (text != null) {
+            return text;
+        }
+        String result = recentlyRead.get(this);
+        return result == null ? decompress(compressed, length) : result;
+    }
+
+    /**
+     * Returns an estimate of the memory held by this text, in bytes.
+     */
+    long getFootprint() {
+        return compressed != null ? 16 + compressed.length : 40 + 2L * length;
+    }
+
+    private static byte[] compress(String text) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(text.length() / 2);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String decompress(byte[] compressed, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            // UTF-8 takes at least a byte per character
+            ByteArrayOutputStream output = new ByteArrayOutputStream(length);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                output.write(buffer, 0, inflated);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            // Only this class compresses texts, so this cannot happen
+            throw new IllegalStateException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompressedText that = (CompressedText) o;
+        if (hash != that.hash || length != that.length) {
+            return false;
+        } else if (compressed != null && that.compressed != null) {
+            // Compression is deterministic, so equal texts compress to equal bytes
+            return Arrays.equals(compressed, that.compressed);
+        } else {
+            return get().equals(that.get());
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return get();
+    }
+}
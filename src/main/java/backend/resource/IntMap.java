@@ -0,0 +1,93 @@
+package backend.resource;
+
+/**
+ * A map from ints to objects, without boxing keys: keys and values are kept in parallel arrays,
+ * probed linearly from the hash of the key. Supports only insertion, as it is meant to be built
+ * once and then looked up.
+ */
+final class IntMap<V> {
+
+    // Marks an unused slot; the value of this key is kept separately
+    private static final int FREE = 0;
+
+    private int[] keys;
+    private Object[] values;
+    private int size = 0;
+
+    private boolean hasFreeKey = false;
+    private Object freeKeyValue = null;
+
+    IntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Associates the value with the key, unless the key already has a value.
+     */
+    void putIfAbsent(int key, V value) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                freeKeyValue = value;
+            }
+            return;
+        }
+
+        int slot = find(keys, key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            // Keep at most half of the slots used, so that probes stay short
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        if (key == FREE) {
+            return (V) freeKeyValue;
+        }
+        return (V) values[find(keys, key)];
+    }
+
+    int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    /**
+     * Returns the slot holding the key, or the free slot where it would be inserted.
+     */
+    private static int find(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        // Spreads consecutive ids, which are the common case, over the table
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package backend.resource;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over the issues of a single Model.
+ *
+ * Each issue is assigned a dense ordinal (its position in the model's issue list). For each label,
+ * label group, assignee, author and milestone, the index keeps a posting list: a bitset of the ordinals
+ * of the issues that have that attribute. Filter qualifiers over those attributes can then be answered
+ * by combining posting lists instead of testing every issue.
+ *
+ * Attributes compared by value rather than looked up (ids, creation dates and whether issues are pull
+ * requests) are kept in compact columns indexed by ordinal, which qualifiers scan over their candidates
+ * without going through the issues themselves.
+ *
+ * Only attributes which resolve to a resource in the model are indexed (e.g. a label name on an issue
+ * which is not one of the repo's labels is ignored), mirroring Model#getLabelsOfIssue and friends.
+ *
+ * Safe for concurrent queries: the only mutable state, the label postings, is guarded by the index.
+ */
+public class IssueIndex {
+
+    private final Model model;
+    private final List<TurboIssue> issues;
+    private final IntMap<Integer> ordinalsById;
+
+    private final Map<String, BitSet> byLabel = new HashMap<>();
+    private final Map<String, BitSet> byLabelGroup = new HashMap<>();
+    private final Map<String, BitSet> byAssignee = new HashMap<>();
+    private final Map<String, BitSet> byAuthor = new HashMap<>();
+    private final Map<Integer, BitSet> byMilestone = new HashMap<>();
+    private final BitSet open = new BitSet();
+    private final BitSet all = new BitSet();
+    private final TextIndex text;
+
+    private final int[] ids;
+    // Days since the epoch, or NO_DATE for issues without a creation time
+    private final long[] createdDays;
+    private final BitSet pullRequests = new BitSet();
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    IssueIndex(Model model, List<TurboIssue> issues, Optional<IssueIndex> previous) {
+        this.model = model;
+        this.issues = issues;
+        this.text = new TextIndex(issues, previous.map(IssueIndex::getTextIndex));
+        this.ordinalsById = new IntMap<>(issues.size());
+        this.ids = new int[issues.size()];
+        this.createdDays = new long[issues.size()];
+
+        for (int i = 0; i < issues.size(); i++) {
+            TurboIssue issue = issues.get(i);
+            ordinalsById.putIfAbsent(issue.getId(), i);
+            all.set(i);
+            if (issue.isOpen()) {
+                open.set(i);
+            }
+            ids[i] = issue.getId();
+            LocalDateTime createdAt = issue.getCreatedAt();
+            createdDays[i] = createdAt == null ? NO_DATE : createdAt.toLocalDate().toEpochDay();
+            if (issue.isPullRequest()) {
+                pullRequests.set(i);
+            }
+            post(byAuthor, issue.getCreator(), i);
+            final int ordinal = i;
+            model.getAssigneeOfIssue(issue).ifPresent(user -> post(byAssignee, user.getLoginName(), ordinal));
+            model.getMilestoneOfIssue(issue).ifPresent(milestone -> post(byMilestone, milestone.getId(), ordinal));
+            addLabels(issue, i);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private void ______UPDATES______() {}
+
+    /**
+     * Must be called before the labels of an indexed issue are changed.
+     * See also {@link #labelsChanged(TurboIssue)}.
+     */
+    synchronized void labelsChanging(TurboIssue issue) {
+        Optional<Integer> ordinal = getOrdinal(issue.getId());
+        if (ordinal.isPresent()) {
+            for (TurboLabel label : model.getLabelsOfIssue(issue)) {
+                unpost(byLabel, label.getActualName(), ordinal.get());
+                label.getGroup().ifPresent(group -> unpost(byLabelGroup, group, ordinal.get()));
+            }
+        }
+    }
+
+    /**
+     * Must be called after the labels of an indexed issue are changed.
+     */
+    synchronized void labelsChanged(TurboIssue issue) {
+        getOrdinal(issue.getId()).ifPresent(ordinal -> addLabels(issue, ordinal));
+    }
+
+    private void addLabels(TurboIssue issue, int ordinal) {
+        for (TurboLabel label : model.getLabelsOfIssue(issue)) {
+            post(byLabel, label.getActualName(), ordinal);
+            label.getGroup().ifPresent(group -> post(byLabelGroup, group, ordinal));
+        }
+    }
+
+    private static <K> void post(Map<K, BitSet> postings, K key, int ordinal) {
+        postings.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+    }
+
+    private static <K> void unpost(Map<K, BitSet> postings, K key, int ordinal) {
+        BitSet posting = postings.get(key);
+        if (posting != null) {
+            posting.clear(ordinal);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private void ______QUERIES______() {}
+
+    /**
+     * Returns an estimate of the memory held by this index, in bytes, not counting the issues.
+     */
+    public synchronized long getEstimatedSize() {
+        // Per issue: its id and creation day, and its boxed ordinal by id in a map at most half full
+        long size = 64 + (4L + 8L + 2 * (4L + 8L) + 16L) * issues.size()
+            + getEstimatedSize(open) + getEstimatedSize(all) + getEstimatedSize(pullRequests)
+            + text.getEstimatedSize();
+        for (Map<?, BitSet> postings : Arrays.asList(byLabel, byLabelGroup, byAssignee, byAuthor, byMilestone)) {
+            size += 48;
+            // Each entry and its key, which is shared with the resources but may be boxed
+            for (BitSet posting : postings.values()) {
+                size += 48 + getEstimatedSize(posting);
+            }
+        }
+        return size;
+    }
+
+    private static long getEstimatedSize(BitSet bits) {
+        return 32 + bits.size() / 8;
+    }
+
+    public String getRepoId() {
+        return model.getRepoId();
+    }
+
+    public int size() {
+        return issues.size();
+    }
+
+    public TurboIssue getIssue(int ordinal) {
+        return issues.get(ordinal);
+    }
+
+    public Optional<Integer> getOrdinal(int issueId) {
+        return Optional.ofNullable(ordinalsById.get(issueId));
+    }
+
+    /**
+     * Returns the full-text index over the titles and descriptions of the indexed issues.
+     */
+    public TextIndex getTextIndex() {
+        return text;
+    }
+
+    /**
+     * Returns a new bitset containing every issue in the index.
+     */
+    public BitSet all() {
+        return (BitSet) all.clone();
+    }
+
+    /**
+     * Returns a new bitset containing every open issue in the index.
+     */
+    public BitSet open() {
+        return (BitSet) open.clone();
+    }
+
+    /**
+     * Returns a new bitset containing every closed issue in the index.
+     */
+    public BitSet closed() {
+        BitSet closed = all();
+        closed.andNot(open);
+        return closed;
+    }
+
+    /**
+     * Returns a new bitset containing every pull request in the index.
+     */
+    public BitSet pullRequests() {
+        return (BitSet) pullRequests.clone();
+    }
+
+    /**
+     * Returns the candidates whose ids satisfy the predicate.
+     */
+    public BitSet withIds(BitSet candidates, IntPredicate id) {
+        BitSet result = new BitSet();
+        for (int i = candidates.nextSetBit(0); i >= 0 && i < ids.length; i = candidates.nextSetBit(i + 1)) {
+            if (id.test(ids[i])) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the candidates created on days (counted from the epoch) which satisfy the predicate.
+     * Issues without a creation time are excluded.
+     */
+    public BitSet createdOn(BitSet candidates, LongPredicate epochDay) {
+        BitSet result = new BitSet();
+        for (int i = candidates.nextSetBit(0); i >= 0 && i < createdDays.length; i = candidates.nextSetBit(i + 1)) {
+            if (createdDays[i] != NO_DATE && epochDay.test(createdDays[i])) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the union of the posting lists of the labels whose actual names satisfy the predicate.
+     */
+    public synchronized BitSet withLabels(Predicate<String> actualName) {
+        return union(byLabel, actualName);
+    }
+
+    /**
+     * Returns the union of the posting lists of the label groups satisfying the predicate.
+     */
+    public synchronized BitSet withLabelGroups(Predicate<String> group) {
+        return union(byLabelGroup, group);
+    }
+
+    /**
+     * Returns the union of the posting lists of the assignees satisfying the predicate.
+     */
+    public BitSet withAssignees(Predicate<TurboUser> assignee) {
+        return union(byAssignee, login -> model.getUserByLogin(login).filter(assignee).isPresent());
+    }
+
+    /**
+     * Returns the union of the posting lists of the authors (creator logins) satisfying the predicate.
+     */
+    public BitSet withAuthors(Predicate<String> creator) {
+        return union(byAuthor, creator);
+    }
+
+    /**
+     * Returns the union of the posting lists of the milestones satisfying the predicate.
+     */
+    public BitSet withMilestones(Predicate<TurboMilestone> milestone) {
+        return union(byMilestone, id -> model.getMilestoneById(id).filter(milestone).isPresent());
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> postings, Predicate<K> keyPredicate) {
+        BitSet result = new BitSet();
+        postings.forEach((key, posting) -> {
+            if (keyPredicate.test(key)) {
+                result.or(posting);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+package backend.resource;
+
+import org.apache.logging.log4j.Logger;
+import org.eclipse.egit.github.core.PullRequest;
+import util.HTLog;
+import util.Utility;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The result of merging updates to the issues of a repository into its existing issues: the
+ * merged issues, and the ids of those which were added or changed, so that consumers of the
+ * merged issues need only look at those (see {@link Model#setUpdatedFrom(Model, Set)}).
+ *
+ * Existing issues are indexed by id once, so merging takes time linear in the number of existing
+ * issues and updates. Issues which are not updated are carried over as the same instances, and
+ * updated issues take the place of the issues they update; new issues are appended.
+ */
+public final class IssueMerge {
+
+    private static final Logger logger = HTLog.get(IssueMerge.class);
+
+    private final List<TurboIssue> issues;
+    private final BitSet added = new BitSet();
+    private final BitSet changed = new BitSet();
+
+    private IssueMerge(List<TurboIssue> existing) {
+        this.issues = new ArrayList<>(existing);
+    }
+
+    /**
+     * Merges updated issues, then updated pull requests, into the given issues, which are not modified.
+     *
+     * An updated issue replaces the existing issue with the same id, if any, keeping its transient
+     * state and more recently modified labels. A pull request updates the issue with the same number
+     * if it was updated more recently; pull requests without issues are ignored.
+     */
+    public static IssueMerge merge(List<TurboIssue> existing, List<TurboIssue> updatedIssues,
+                                   List<PullRequest> updatedPullRequests) {
+        IssueMerge merge = new IssueMerge(existing);
+        IntMap<Integer> positions = new IntMap<>(existing.size() + updatedIssues.size());
+        for (int i = 0; i < existing.size(); i++) {
+            positions.putIfAbsent(existing.get(i).getId(), i);
+        }
+
+        for (TurboIssue update : updatedIssues) {
+            Integer position = positions.get(update.getId());
+            if (position == null) {
+                positions.putIfAbsent(update.getId(), merge.issues.size());
+                merge.added.set(merge.issues.size());
+                merge.issues.add(new TurboIssue(update));
+            } else {
+                merge.issues.set(position, merge.issues.get(position).updatedWith(update));
+                merge.changed.set(position);
+            }
+        }
+
+        for (PullRequest pullRequest : updatedPullRequests) {
+            Integer position = positions.get(pullRequest.getNumber());
+            if (position == null) {
+                logger.error("No corresponding issue for pull request " + pullRequest);
+            } else if (isMoreRecent(pullRequest, merge.issues.get(position))) {
+                merge.issues.set(position, merge.issues.get(position).combineWithPullRequest(pullRequest));
+                merge.changed.set(position);
+            }
+        }
+
+        // Issues added and then changed again are reported as added
+        merge.changed.andNot(merge.added);
+        return merge;
+    }
+
+    private static boolean isMoreRecent(PullRequest pullRequest, TurboIssue issue) {
+        if (pullRequest.getUpdatedAt() == null) {
+            return false;
+        }
+        LocalDateTime pullRequestUpdatedAt = Utility.dateToLocalDateTime(pullRequest.getUpdatedAt());
+        return pullRequestUpdatedAt.isAfter(issue.getUpdatedAt());
+    }
+
+    /**
+     * Returns the merged issues, as an unmodifiable list.
+     */
+    public List<TurboIssue> getIssues() {
+        return Collections.unmodifiableList(issues);
+    }
+
+    /**
+     * Returns the ids of the issues which did not exist before.
+     */
+    public Set<Integer> getAddedIds() {
+        return selectIds(added);
+    }
+
+    /**
+     * Returns the ids of the existing issues which were replaced by updated versions of them.
+     */
+    public Set<Integer> getChangedIds() {
+        return selectIds(changed);
+    }
+
+    /**
+     * Returns the ids of the issues which were added or changed.
+     */
+    public Set<Integer> getUpdatedIds() {
+        Set<Integer> result = getAddedIds();
+        result.addAll(getChangedIds());
+        return result;
+    }
+
+    /**
+     * Returns true if merging changed nothing, in which case the merged issues are the existing ones.
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty();
+    }
+
+    private Set<Integer> selectIds(BitSet positions) {
+        Set<Integer> result = new HashSet<>(positions.cardinality() * 4 / 3 + 1);
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            result.add(issues.get(i).getId());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d issue(s) added, %d changed, %d unchanged",
+            added.cardinality(), changed.cardinality(), issues.size() - added.cardinality() - changed.cardinality());
+    }
+}
@@ -0,0 +1,118 @@
+package backend.resource;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parts of a label name: an optional group, the delimiter after it, and the name within the group,
+ * e.g. "priority.high" is the name "high" in the exclusive group "priority".
+ *
+ * Names are parsed once and interned, as the same few label names are matched against every issue on
+ * every refresh. Each also holds its lower-cased counterpart, for case-insensitive matching.
+ */
+public final class LabelName {
+
+    // Label names are few per repo, so this only bounds pathological growth
+    private static final int MAX_INTERNED = 4096;
+    private static final Map<String, LabelName> interned = new ConcurrentHashMap<>();
+
+    private final String actualName;
+    private final Optional<String> delimiter;
+    private final Optional<String> group;
+    private final String name;
+    private final LabelName lowerCase;
+
+    private LabelName(String actualName) {
+        this.actualName = actualName;
+        this.delimiter = findDelimiter(actualName);
+
+        if (delimiter.isPresent()) {
+            // Escaping due to constants not being valid regexes
+            String[] segments = actualName.split("\\" + delimiter.get());
+            if (segments.length > 1) {
+                // group.name
+                group = Optional.of(segments[0]);
+                name = segments[1];
+            } else if (actualName.endsWith(delimiter.get())) {
+                // group.
+                group = Optional.of(segments[0]);
+                name = "";
+            } else {
+                // .name
+                group = Optional.empty();
+                name = segments[0];
+            }
+        } else {
+            // name
+            group = Optional.empty();
+            name = actualName;
+        }
+
+        String lowerCaseName = actualName.toLowerCase();
+        this.lowerCase = lowerCaseName.equals(actualName) ? this : of(lowerCaseName);
+    }
+
+    /**
+     * Returns the parsed form of the given label name.
+     */
+    public static LabelName of(String actualName) {
+        LabelName result = interned.get(actualName);
+        if (result == null) {
+            if (interned.size() >= MAX_INTERNED) {
+                interned.clear();
+            }
+            LabelName parsed = new LabelName(actualName);
+            result = interned.putIfAbsent(actualName, parsed);
+            if (result == null) {
+                result = parsed;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the delimiter following the group of the given label name, if it has one: the first
+     * delimiter in the name, provided something comes before it.
+     */
+    public static Optional<String> findDelimiter(String actualName) {
+        for (int i = 0; i < actualName.length(); i++) {
+            char c = actualName.charAt(i);
+            if (TurboLabel.EXCLUSIVE_DELIMITER.charAt(0) == c) {
+                return i > 0 ? Optional.of(TurboLabel.EXCLUSIVE_DELIMITER) : Optional.empty();
+            } else if (TurboLabel.NONEXCLUSIVE_DELIMITER.charAt(0) == c) {
+                return i > 0 ? Optional.of(TurboLabel.NONEXCLUSIVE_DELIMITER) : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    public String getActualName() {
+        return actualName;
+    }
+
+    public Optional<String> getDelimiter() {
+        return delimiter;
+    }
+
+    public Optional<String> getGroup() {
+        return group;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isExclusive() {
+        return delimiter.isPresent() && delimiter.get().equals(TurboLabel.EXCLUSIVE_DELIMITER);
+    }
+
+    public LabelName toLowerCase() {
+        return lowerCase;
+    }
+
+    @Override
+    public String toString() {
+        return actualName;
+    }
+}
@@ -0,0 +1,108 @@
+package backend.resource;
+
+/**
+ * A map from longs to objects, without boxing keys, as {@link IntMap} is for ints.
+ * Supports only insertion, as it is meant to be built once and then looked up.
+ */
+final class LongMap<V> {
+
+    // Marks an unused slot; the value of this key is kept separately
+    private static final long FREE = 0;
+
+    private long[] keys;
+    private Object[] values;
+    private int size = 0;
+
+    private boolean hasFreeKey = false;
+    private Object freeKeyValue = null;
+
+    LongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Associates the value with the key, unless the key already has a value.
+     */
+    void putIfAbsent(long key, V value) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                freeKeyValue = value;
+            }
+            return;
+        }
+
+        int slot = find(keys, key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            // Keep at most half of the slots used, so that probes stay short
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == FREE) {
+            return (V) freeKeyValue;
+        }
+        return (V) values[find(keys, key)];
+    }
+
+    int size() {
+        return size + (hasFreeKey ? 1 : 0);
+    }
+
+    /**
+     * Returns the keys which have values, in no particular order.
+     */
+    long[] keys() {
+        long[] result = new long[size()];
+        int i = 0;
+        if (hasFreeKey) {
+            result[i++] = FREE;
+        }
+        for (long key : keys) {
+            if (key != FREE) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the slot holding the key, or the free slot where it would be inserted.
+     */
+    private static int find(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
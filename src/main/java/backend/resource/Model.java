@@ -7,9 +7,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import util.Utility;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unused")
@@ -22,8 +28,34 @@ public class Model implements IBaseModel {
     private final List<TurboMilestone> milestones;
     private final List<TurboUser> users;
 
+    // Lookups by id or name, built on construction; the first of several with the same key wins
+    private final IntMap<TurboIssue> issuesById;
+    private final IntMap<TurboMilestone> milestonesById;
+    private final Map<String, TurboLabel> labelsByActualName;
+    private final Map<String, TurboUser> usersByLogin;
+
+    // Built on first use, see getIssueIndex
+    private IssueIndex issueIndex = null;
+
+    // The index of a previous version of this model, see deriveIndexFrom
+    private Optional<IssueIndex> previousIssueIndex = Optional.empty();
+
+    // The previous version of this model and the ids of the issues updated since, see setUpdatedFrom
+    private WeakReference<Model> updatedFrom = new WeakReference<>(null);
+    private Set<Integer> updatedIssueIds = Collections.emptySet();
+
+    // Computed on first use, see getDigest; reset when issues are changed through this model
+    private boolean hasDigest = false;
+    private long digest = 0;
+
+    // Ids of issues changed through this model, in order of change
+    private final List<Integer> changedIssueIds = new ArrayList<>();
+
     private static final Logger logger = LogManager.getLogger(Model.class);
 
+    // Labels, milestones and users are small and similar in size
+    static final long ESTIMATED_RESOURCE_SIZE = 128;
+
     /**
      * Standard constructor.
      */
@@ -33,10 +65,19 @@ public class Model implements IBaseModel {
 
         this.updateSignature = updateSignature;
         this.repoId = repoId;
-        this.issues = issues;
-        this.labels = labels;
-        this.milestones = milestones;
-        this.users = users;
+        this.issues = Collections.unmodifiableList(new ArrayList<>(issues));
+        this.labels = Collections.unmodifiableList(new ArrayList<>(labels));
+        this.milestones = Collections.unmodifiableList(new ArrayList<>(milestones));
+        this.users = Collections.unmodifiableList(new ArrayList<>(users));
+
+        this.issuesById = new IntMap<>(issues.size());
+        this.issues.forEach(issue -> issuesById.putIfAbsent(issue.getId(), issue));
+        this.milestonesById = new IntMap<>(milestones.size());
+        milestones.forEach(milestone -> milestonesById.putIfAbsent(milestone.getId(), milestone));
+        this.labelsByActualName = new HashMap<>();
+        labels.forEach(label -> labelsByActualName.putIfAbsent(label.getActualName(), label));
+        this.usersByLogin = new HashMap<>();
+        users.forEach(user -> usersByLogin.putIfAbsent(user.getLoginName(), user));
     }
 
     /**
@@ -46,53 +87,40 @@ public class Model implements IBaseModel {
     public Model(String repoId, List<TurboIssue> issues,
         List<TurboLabel> labels, List<TurboMilestone> milestones, List<TurboUser> users) {
 
-        this.updateSignature = UpdateSignature.EMPTY;
-        this.repoId = repoId;
-        this.issues = issues;
-        this.labels = labels;
-        this.milestones = milestones;
-        this.users = users;
+        this(repoId, issues, labels, milestones, users, UpdateSignature.EMPTY);
     }
 
     /**
      * Constructor for the empty model.
      */
     public Model(String repoId) {
-        this.updateSignature = UpdateSignature.EMPTY;
-        this.repoId = repoId;
-        this.issues = new ArrayList<>();
-        this.labels = new ArrayList<>();
-        this.milestones = new ArrayList<>();
-        this.users = new ArrayList<>();
+        this(repoId, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(),
+             UpdateSignature.EMPTY);
     }
 
     /**
      * Copy constructor.
      */
     public Model(Model model) {
-        this.updateSignature = model.updateSignature;
-        this.repoId = model.getRepoId();
-        this.issues = new ArrayList<>(model.getIssues());
-        this.labels = new ArrayList<>(model.getLabels());
-        this.milestones = new ArrayList<>(model.getMilestones());
-        this.users = new ArrayList<>(model.getUsers());
+        this(model.getRepoId(), model.getIssues(), model.getLabels(), model.getMilestones(), model.getUsers(),
+             model.updateSignature);
     }
 
     public Model(SerializableModel model) {
-        this.updateSignature = model.updateSignature;
-        this.repoId = model.repoId;
-        this.issues = model.issues.stream()
-            .map(i -> new TurboIssue(model.repoId, i))
-            .collect(Collectors.toList());
-        this.labels = model.labels.stream()
-            .map(l -> new TurboLabel(model.repoId, l))
-            .collect(Collectors.toList());
-        this.milestones = model.milestones.stream()
-            .map(m -> new TurboMilestone(model.repoId, m))
-            .collect(Collectors.toList());
-        this.users = model.users.stream()
-            .map(u -> new TurboUser(model.repoId, u))
-            .collect(Collectors.toList());
+        this(model.repoId,
+             model.issues.stream()
+                 .map(i -> new TurboIssue(model.repoId, i))
+                 .collect(Collectors.toList()),
+             model.labels.stream()
+                 .map(l -> new TurboLabel(model.repoId, l))
+                 .collect(Collectors.toList()),
+             model.milestones.stream()
+                 .map(m -> new TurboMilestone(model.repoId, m))
+                 .collect(Collectors.toList()),
+             model.users.stream()
+                 .map(u -> new TurboUser(model.repoId, u))
+                 .collect(Collectors.toList()),
+             model.updateSignature);
     }
 
     public String getRepoId() {
@@ -103,62 +131,112 @@ public class Model implements IBaseModel {
         return updateSignature;
     }
 
+    // The lists of resources are unmodifiable, so they are returned without copying
+
     @Override
-    public synchronized List<TurboIssue> getIssues() {
-        return new ArrayList<>(issues);
+    public List<TurboIssue> getIssues() {
+        return issues;
     }
 
     @Override
     public List<TurboLabel> getLabels() {
-        return new ArrayList<>(labels);
+        return labels;
     }
 
     @Override
     public List<TurboMilestone> getMilestones() {
-        return new ArrayList<>(milestones);
+        return milestones;
     }
 
     @Override
     public List<TurboUser> getUsers() {
-        return new ArrayList<>(users);
+        return users;
     }
 
     @SuppressWarnings("unused")
     private void ______OPERATIONS_____() {}
 
+    /**
+     * Returns the inverted index over the issues of this model, building it if necessary.
+     * The index is kept up to date with changes made through this model.
+     */
+    public synchronized IssueIndex getIssueIndex() {
+        if (issueIndex == null) {
+            issueIndex = new IssueIndex(this, issues, previousIssueIndex);
+            previousIssueIndex = Optional.empty();
+        }
+        return issueIndex;
+    }
+
+    /**
+     * Lets the index of this model be built from that of a previous version of the same
+     * repository, so that the text of issues carried over unchanged is not indexed again.
+     * Has no effect if the previous model was never indexed.
+     */
+    public synchronized void deriveIndexFrom(Model previous) {
+        assert previous.getRepoId().equals(repoId);
+        if (issueIndex == null) {
+            previousIssueIndex = previous.getBuiltIssueIndex();
+        }
+    }
+
+    /**
+     * Records that this model is a version of a previous one in which only the issues with the given ids
+     * were added or changed, all others being carried over as they were (see {@link IssueMerge}).
+     * The previous model is not kept from being garbage-collected.
+     */
+    public synchronized void setUpdatedFrom(Model previous, Set<Integer> updatedIssueIds) {
+        assert previous.getRepoId().equals(repoId);
+        this.updatedFrom = new WeakReference<>(previous);
+        this.updatedIssueIds = Collections.unmodifiableSet(new HashSet<>(updatedIssueIds));
+    }
+
+    /**
+     * Returns the ids of the issues added or changed since the given model, if this model was updated
+     * from it (see {@link #setUpdatedFrom(Model, Set)}); no issues are removed by updates. Issues changed
+     * through either model are not included, see {@link #getIssuesChangedSince(int)}.
+     */
+    public synchronized Optional<Set<Integer>> getIssuesUpdatedFrom(Model previous) {
+        return updatedFrom.get() == previous ? Optional.of(updatedIssueIds) : Optional.empty();
+    }
+
+    private synchronized Optional<IssueIndex> getBuiltIssueIndex() {
+        return Optional.ofNullable(issueIndex);
+    }
+
+    /**
+     * Returns the number of changes made to issues through this model so far,
+     * for use with {@link #getIssuesChangedSince(int)}.
+     */
+    public synchronized int getChangeCount() {
+        return changedIssueIds.size();
+    }
+
+    /**
+     * Returns the ids of the issues changed through this model after the given number of changes.
+     */
+    public synchronized Set<Integer> getIssuesChangedSince(int changeCount) {
+        return new HashSet<>(changedIssueIds.subList(changeCount, changedIssueIds.size()));
+    }
+
     public Optional<TurboIssue> getIssueById(int issueId) {
         assert issueId >= 1 : "Invalid issue id " + issueId;
-        for (TurboIssue issue : getIssues()) {
-            if (issue.getId() == issueId) {
-                return Optional.of(issue);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(issuesById.get(issueId));
     }
 
     public Optional<TurboLabel> getLabelByActualName(String labelName) {
         assert labelName != null && !labelName.isEmpty() : "Invalid label name " + labelName;
-        for (TurboLabel label : getLabels()) {
-            if (label.getActualName().equals(labelName)) {
-                return Optional.of(label);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(labelsByActualName.get(labelName));
     }
 
     public Optional<TurboUser> getUserByLogin(String login) {
         assert login != null && !login.isEmpty() : "Invalid user name " + login;
-        for (TurboUser user : getUsers()) {
-            if (user.getLoginName().equals(login)) {
-                return Optional.of(user);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(usersByLogin.get(login));
     }
 
     public Optional<TurboMilestone> getMilestoneByTitle(String title) {
         assert title != null && !title.isEmpty() : "Invalid milestone title " + title;
-        for (TurboMilestone milestone : getMilestones()) {
+        for (TurboMilestone milestone : milestones) {
             if (milestone.getTitle().equals(title)) {
                 return Optional.of(milestone);
             }
@@ -168,12 +246,7 @@ public class Model implements IBaseModel {
 
     public Optional<TurboMilestone> getMilestoneById(int id) {
         assert id >= 1 : "Invalid milestone id " + id;
-        for (TurboMilestone milestone : getMilestones()) {
-            if (milestone.getId() == id) {
-                return Optional.of(milestone);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(milestonesById.get(id));
     }
 
     public Optional<TurboMilestone> getMilestoneOfIssue(TurboIssue issue) {
@@ -185,10 +258,15 @@ public class Model implements IBaseModel {
     }
 
     public List<TurboLabel> getLabelsOfIssue(TurboIssue issue) {
-        return issue.getLabels().stream()
-            .map(this::getLabelByActualName)
-            .filter(Optional::isPresent).map(Optional::get)
-            .collect(Collectors.toList());
+        List<String> labelNames = issue.getLabels();
+        List<TurboLabel> result = new ArrayList<>(labelNames.size());
+        for (String labelName : labelNames) {
+            TurboLabel label = labelsByActualName.get(labelName);
+            if (label != null) {
+                result.add(label);
+            }
+        }
+        return result;
     }
 
     /**
@@ -199,14 +277,87 @@ public class Model implements IBaseModel {
      */
     public synchronized Optional<TurboIssue> replaceIssueLabels(int issueId, List<String> labels) {
         Optional<TurboIssue> issueLookUpResult = getIssueById(issueId);
+        hasDigest = false;
         return Utility.safeFlatMapOptional(issueLookUpResult,
                 (issue) -> {
+                    if (issueIndex != null) {
+                        issueIndex.labelsChanging(issue);
+                    }
                     issue.setLabels(labels);
+                    if (issueIndex != null) {
+                        issueIndex.labelsChanged(issue);
+                    }
+                    changedIssueIds.add(issueId);
                     return Optional.of(new TurboIssue(issue));
                 },
                 () -> logger.error("Issue " + issueId + " not found in model for " + repoId));
     }
 
+    /**
+     * Returns an estimate of the memory held by the resources of this model, in bytes,
+     * including its issue index and that of a previous version it is to be derived from, if built.
+     */
+    public synchronized long getEstimatedSize() {
+        long size = ESTIMATED_RESOURCE_SIZE * (labels.size() + milestones.size() + users.size());
+        for (TurboIssue issue : issues) {
+            size += issue.getEstimatedSize();
+        }
+        if (issueIndex != null) {
+            size += issueIndex.getEstimatedSize();
+        }
+        if (previousIssueIndex.isPresent()) {
+            size += previousIssueIndex.get().getEstimatedSize();
+        }
+        return size;
+    }
+
+    /**
+     * Returns a digest of the stored content of this model's resources: the content hashes of its
+     * issues, labels, milestones and users, in order. Models with different digests differ in content.
+     *
+     * Issues cache their content hashes, and unchanged issues are carried over between versions of a
+     * model, so only the hashes of changed issues are computed.
+     */
+    public synchronized long getDigest() {
+        if (!hasDigest) {
+            long result = issues.size();
+            for (TurboIssue issue : issues) {
+                result = mix(result, issue.getContentHash());
+            }
+            // The hash codes of the other resources cover just their few stored fields
+            result = mix(result, labels.size());
+            for (TurboLabel label : labels) {
+                result = mix(result, label.hashCode());
+            }
+            result = mix(result, milestones.size());
+            for (TurboMilestone milestone : milestones) {
+                result = mix(result, milestone.hashCode());
+            }
+            result = mix(result, users.size());
+            for (TurboUser user : users) {
+                result = mix(result, user.hashCode());
+            }
+            digest = result;
+            hasDigest = true;
+        }
+        return digest;
+    }
+
+    private static long mix(long digest, long hash) {
+        return (digest + hash) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Returns true if this model has the same stored content as {@code other}, judging by their
+     * update signatures and digests. This takes constant time once digests are computed, unlike
+     * {@link #equals(Object)}, which compares every resource field by field.
+     */
+    public boolean hasSameContentAs(Model other) {
+        return repoId.equals(other.repoId)
+            && updateSignature.equals(other.updateSignature)
+            && getDigest() == other.getDigest();
+    }
+
     @SuppressWarnings("unused")
     private void ______BOILERPLATE______() {}
 
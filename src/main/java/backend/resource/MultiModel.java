@@ -2,6 +2,7 @@ package backend.resource;
 
 import backend.IssueMetadata;
 import backend.interfaces.IModel;
+import backend.interfaces.IReadModel;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import prefs.Preferences;
@@ -9,16 +10,24 @@ import util.Utility;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Thread-safe. The only top-level state in the application.
+ *
+ * The models are held in an immutable {@link Snapshot}. Writers, which are serialised, replace it with a
+ * new version of it, so readers get a consistent view of all models without locking or copying. Changes
+ * made to issues in place through this object (e.g. replacing labels) also publish a new version, so a
+ * snapshot version identifies the state of the models for caching.
  */
 @SuppressWarnings("unused")
 public class MultiModel implements IModel {
 
-    private final HashMap<String, Model> models;
+    private final AtomicReference<Snapshot> snapshot =
+        new AtomicReference<>(new Snapshot(0, new HashMap<>(), null));
     private final Preferences prefs;
 
     // A pending repository is one that has been requested to load but has
@@ -26,17 +35,34 @@ public class MultiModel implements IModel {
     // requests for the same repository to load it multiple times.
     private final HashSet<String> pendingRepositories;
 
-    // Guaranteed to have a value throughout
-    private String defaultRepo = null;
-
     private static final Logger logger = LogManager.getLogger(MultiModel.class.getName());
 
     public MultiModel(Preferences prefs) {
-        this.models = new HashMap<>();
         this.pendingRepositories = new HashSet<>();
         this.prefs = prefs;
     }
 
+    /**
+     * Returns the current state of the models, which later changes do not affect.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publishes a new version of the models. Must be called while holding the lock of this object,
+     * so that concurrent writers do not overwrite each other's changes.
+     */
+    private void publish(Map<String, Model> models, String defaultRepo) {
+        assert Thread.holdsLock(this);
+        snapshot.set(new Snapshot(snapshot.get().getVersion() + 1, models, defaultRepo));
+    }
+
+    private void publish() {
+        Snapshot current = snapshot.get();
+        publish(current.models, current.defaultRepo);
+    }
+
     public synchronized MultiModel addPending(Model model) {
         String repoId = model.getRepoId();
         Optional<String> matchingRepoId = pendingRepositories.stream()
@@ -44,17 +70,21 @@ public class MultiModel implements IModel {
                 .findFirst();
         assert matchingRepoId.isPresent() : "No pending repository " + repoId + "!";
         pendingRepositories.remove(matchingRepoId.get());
-        add(model);
+        // Before publishing, so that readers never see the new issues unprocessed
         preprocessNewIssues(model);
+        add(model);
         return this;
     }
 
     private synchronized MultiModel add(Model model) {
-        this.models.put(model.getRepoId(), model);
+        Map<String, Model> models = new HashMap<>(snapshot.get().models);
+        models.put(model.getRepoId(), model);
+        publish(models, snapshot.get().defaultRepo);
         return this;
     }
 
     public synchronized MultiModel removeRepoModelById(String repoId) {
+        Map<String, Model> models = new HashMap<>(snapshot.get().models);
         Optional<String> repoIdCorrectCase = models.keySet().stream()
                 .filter(key -> key.equalsIgnoreCase(repoId)).findFirst();
         if (!repoIdCorrectCase.isPresent()) {
@@ -63,24 +93,30 @@ public class MultiModel implements IModel {
         
         Optional<Model> repoModelToBeDeleted = getModelById(repoIdCorrectCase.get());
         if (repoModelToBeDeleted.isPresent()) {
-            this.models.remove(repoModelToBeDeleted.get().getRepoId());
+            models.remove(repoModelToBeDeleted.get().getRepoId());
+            SymbolTable.release(repoModelToBeDeleted.get().getRepoId());
+            publish(models, snapshot.get().defaultRepo);
         } else {
             logger.error("RepoModel to be deleted does not exist.");
         }
         return this;
     }
 
-    public synchronized Model get(String repoId) {
-        return models.get(repoId);
+    public Model get(String repoId) {
+        return snapshot.get().models.get(repoId);
     }
 
-    public synchronized List<Model> toModels() {
-        return new ArrayList<>(models.values());
+    /**
+     * Returns the models of all repositories, as an unmodifiable list.
+     */
+    public List<Model> toModels() {
+        return snapshot.get().getModels();
     }
 
     public synchronized MultiModel replace(List<Model> newModels) {
-        this.models.clear();
-        newModels.forEach(this::add);
+        Map<String, Model> models = new HashMap<>();
+        newModels.forEach(model -> models.put(model.getRepoId(), model));
+        publish(models, snapshot.get().defaultRepo);
         return this;
     }
 
@@ -93,13 +129,15 @@ public class MultiModel implements IModel {
      */
     public synchronized Optional<TurboIssue> replaceIssueLabels(String repoId, int issueId, List<String> labels) {
         Optional<Model> modelLookUpResult = getModelById(repoId);
-        return Utility.safeFlatMapOptional(modelLookUpResult,
+        Optional<TurboIssue> result = Utility.safeFlatMapOptional(modelLookUpResult,
                 (model) -> model.replaceIssueLabels(issueId, labels),
                 () -> logger.error("Model " + repoId + " not found in models"));
+        publish();
+        return result;
     }
 
     public synchronized void insertMetadata(String repoId, Map<Integer, IssueMetadata> metadata, String currentUser) {
-        models.get(repoId).getIssues().forEach(issue -> {
+        get(repoId).getIssues().forEach(issue -> {
             if (metadata.containsKey(issue.getId())) {
                 IssueMetadata toBeInserted = metadata.get(issue.getId());
 
@@ -112,6 +150,7 @@ public class MultiModel implements IModel {
                     issue.getMetadata().getEvents(), issue.getMetadata().getEventsETag()));
             }
         });
+        publish();
     }
 
     private static LocalDateTime reconcileCreationDate(LocalDateTime lastNonSelfUpdate,
@@ -135,83 +174,65 @@ public class MultiModel implements IModel {
     }
 
     @Override
-    public synchronized String getDefaultRepo() {
-        return defaultRepo;
+    public String getDefaultRepo() {
+        return snapshot.get().defaultRepo;
     }
 
     @Override
     public synchronized void setDefaultRepo(String repoId) {
-        this.defaultRepo = repoId;
+        publish(snapshot.get().models, repoId);
     }
 
     @Override
-    public synchronized List<TurboIssue> getIssues() {
-        List<TurboIssue> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getIssues()));
-        return result;
+    public List<TurboIssue> getIssues() {
+        return snapshot.get().getIssues();
     }
 
     @Override
-    public synchronized List<TurboLabel> getLabels() {
-        List<TurboLabel> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getLabels()));
-        return result;
+    public List<TurboLabel> getLabels() {
+        return snapshot.get().getLabels();
     }
 
     @Override
-    public synchronized List<TurboMilestone> getMilestones() {
-        List<TurboMilestone> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getMilestones()));
-        return result;
+    public List<TurboMilestone> getMilestones() {
+        return snapshot.get().getMilestones();
     }
 
     @Override
-    public synchronized List<TurboUser> getUsers() {
-        List<TurboUser> result = new ArrayList<>();
-        models.values().forEach(m -> result.addAll(m.getUsers()));
-        return result;
+    public List<TurboUser> getUsers() {
+        return snapshot.get().getUsers();
     }
 
     @Override
-    public synchronized Optional<Model> getModelById(String repoId) {
-        return models.containsKey(repoId)
-            ? Optional.of(models.get(repoId))
-            : Optional.empty();
+    public Optional<Model> getModelById(String repoId) {
+        return snapshot.get().getModelById(repoId);
     }
 
     @Override
     public Optional<TurboUser> getAssigneeOfIssue(TurboIssue issue) {
-        return getModelById(issue.getRepoId())
-            .flatMap(m -> m.getAssigneeOfIssue(issue));
+        return snapshot.get().getAssigneeOfIssue(issue);
     }
 
     @Override
     public List<TurboLabel> getLabelsOfIssue(TurboIssue issue, Predicate<TurboLabel> predicate) {
-        return getModelById(issue.getRepoId())
-            .flatMap(m -> Optional.of(m.getLabelsOfIssue(issue)))
-            .get().stream()
-            .filter(predicate)
-            .collect(Collectors.toList());
+        return snapshot.get().getLabelsOfIssue(issue, predicate);
     }
 
     @Override
     public List<TurboLabel> getLabelsOfIssue(TurboIssue issue) {
-        return getModelById(issue.getRepoId())
-            .flatMap(m -> Optional.of(m.getLabelsOfIssue(issue)))
-            .get();
+        return snapshot.get().getLabelsOfIssue(issue);
     }
 
     @Override
     public Optional<TurboMilestone> getMilestoneOfIssue(TurboIssue issue) {
-        return getModelById(issue.getRepoId())
-            .flatMap(m -> m.getMilestoneOfIssue(issue));
+        return snapshot.get().getMilestoneOfIssue(issue);
     }
 
     public synchronized boolean isRepositoryPending(String repoId) {
         return pendingRepositories.stream().anyMatch(pendingRepo -> pendingRepo.equalsIgnoreCase(repoId));
     }
 
-    public void queuePendingRepository(String repoId) {
+    public synchronized void queuePendingRepository(String repoId) {
         pendingRepositories.add(repoId);
     }
 
@@ -236,13 +257,126 @@ public class MultiModel implements IModel {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         MultiModel that = (MultiModel) o;
-        return models.equals(that.models);
+        return snapshot.get().models.equals(that.snapshot.get().models);
     }
 
     @Override
     public int hashCode() {
-        return models.hashCode();
+        return snapshot.get().models.hashCode();
     }
 
+    /**
+     * An immutable version of the models of all repositories.
+     *
+     * Lists of resources across all repositories are built on first use and shared by all readers.
+     * A refresh evaluates filters against a single snapshot, so that they all see the same models
+     * even if these are replaced meanwhile.
+     */
+    public static final class Snapshot implements IReadModel {
+
+        private final long version;
+        // Not wrapped, as it is passed on to later versions; never changed once published
+        private final Map<String, Model> models;
+        private final List<Model> modelList;
+        private final String defaultRepo;
+
+        private volatile List<TurboIssue> issues = null;
+        private volatile List<TurboLabel> labels = null;
+        private volatile List<TurboMilestone> milestones = null;
+        private volatile List<TurboUser> users = null;
+
+        Snapshot(long version, Map<String, Model> models, String defaultRepo) {
+            this.version = version;
+            this.models = models;
+            this.modelList = Collections.unmodifiableList(new ArrayList<>(models.values()));
+            this.defaultRepo = defaultRepo;
+        }
+
+        /**
+         * Returns the version of this snapshot, which is greater than that of every earlier snapshot
+         * of the same models.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public List<Model> getModels() {
+            return modelList;
+        }
+
+        @Override
+        public Optional<Model> getModelById(String repoId) {
+            return Optional.ofNullable(models.get(repoId));
+        }
+
+        @Override
+        public String getDefaultRepo() {
+            return defaultRepo;
+        }
+
+        @Override
+        public Optional<TurboUser> getAssigneeOfIssue(TurboIssue issue) {
+            return getModelById(issue.getRepoId())
+                .flatMap(m -> m.getAssigneeOfIssue(issue));
+        }
+
+        @Override
+        public List<TurboLabel> getLabelsOfIssue(TurboIssue issue, Predicate<TurboLabel> predicate) {
+            return getLabelsOfIssue(issue).stream()
+                .filter(predicate)
+                .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<TurboLabel> getLabelsOfIssue(TurboIssue issue) {
+            return getModelById(issue.getRepoId())
+                .flatMap(m -> Optional.of(m.getLabelsOfIssue(issue)))
+                .get();
+        }
+
+        @Override
+        public Optional<TurboMilestone> getMilestoneOfIssue(TurboIssue issue) {
+            return getModelById(issue.getRepoId())
+                .flatMap(m -> m.getMilestoneOfIssue(issue));
+        }
+
+        @Override
+        public List<TurboIssue> getIssues() {
+            if (issues == null) {
+                issues = concatenate(Model::getIssues);
+            }
+            return issues;
+        }
+
+        @Override
+        public List<TurboLabel> getLabels() {
+            if (labels == null) {
+                labels = concatenate(Model::getLabels);
+            }
+            return labels;
+        }
+
+        @Override
+        public List<TurboMilestone> getMilestones() {
+            if (milestones == null) {
+                milestones = concatenate(Model::getMilestones);
+            }
+            return milestones;
+        }
+
+        @Override
+        public List<TurboUser> getUsers() {
+            if (users == null) {
+                users = concatenate(Model::getUsers);
+            }
+            return users;
+        }
+
+        private <T> List<T> concatenate(Function<Model, List<T>> resources) {
+            List<T> result = new ArrayList<>();
+            modelList.forEach(model -> result.addAll(resources.apply(model)));
+            return Collections.unmodifiableList(result);
+        }
+    }
 }
 
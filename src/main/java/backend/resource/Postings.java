@@ -0,0 +1,208 @@
+package backend.resource;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Compact posting lists: sorted sets of issue ordinals, each held in a single byte array.
+ *
+ * A sparse list holds the gaps between consecutive ordinals as variable-length integers, 7 bits
+ * per byte, so that most ordinals take one or two bytes. A dense one, which is used when it is
+ * smaller, holds a bit per ordinal up to the largest. The first byte tells which.
+ */
+final class Postings {
+
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    private Postings() {
+    }
+
+    /**
+     * Encodes the first count of the given ordinals, which must be sorted and distinct.
+     */
+    static byte[] encode(int[] ordinals, int count) {
+        if (count == 0) {
+            return new byte[] {SPARSE};
+        }
+        int sparseLength = 1;
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            sparseLength += varIntLength(ordinals[i] - previous - 1);
+            previous = ordinals[i];
+        }
+        int denseLength = 1 + (ordinals[count - 1] >>> 3) + 1;
+
+        if (denseLength < sparseLength) {
+            byte[] result = new byte[denseLength];
+            result[0] = DENSE;
+            for (int i = 0; i < count; i++) {
+                result[1 + (ordinals[i] >>> 3)] |= 1 << (ordinals[i] & 7);
+            }
+            return result;
+        }
+        byte[] result = new byte[sparseLength];
+        result[0] = SPARSE;
+        int position = 1;
+        previous = -1;
+        for (int i = 0; i < count; i++) {
+            position = writeVarInt(result, position, ordinals[i] - previous - 1);
+            previous = ordinals[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ordinals of a posting list, in ascending order.
+     */
+    static int[] decode(byte[] posting) {
+        int[] result = new int[count(posting)];
+        int count = 0;
+        if (posting[0] == DENSE) {
+            for (int i = 1; i < posting.length; i++) {
+                for (int bits = posting[i] & 0xFF; bits != 0; bits &= bits - 1) {
+                    result[count++] = ((i - 1) << 3) + Integer.numberOfTrailingZeros(bits);
+                }
+            }
+        } else {
+            int ordinal = -1;
+            int position = 1;
+            while (position < posting.length) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = posting[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                ordinal += gap + 1;
+                result[count++] = ordinal;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of ordinals in a posting list.
+     */
+    static int count(byte[] posting) {
+        int count = 0;
+        if (posting[0] == DENSE) {
+            for (int i = 1; i < posting.length; i++) {
+                count += Integer.bitCount(posting[i] & 0xFF);
+            }
+        } else {
+            for (int i = 1; i < posting.length; i++) {
+                if (posting[i] >= 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the candidates which are in the posting list, as a new bitset.
+     */
+    static BitSet and(byte[] posting, BitSet candidates) {
+        BitSet result = new BitSet();
+        if (posting[0] == DENSE) {
+            int limit = (posting.length - 1) << 3;
+            for (int i = candidates.nextSetBit(0); i >= 0 && i < limit; i = candidates.nextSetBit(i + 1)) {
+                if ((posting[1 + (i >>> 3)] & (1 << (i & 7))) != 0) {
+                    result.set(i);
+                }
+            }
+        } else {
+            int ordinal = -1;
+            int position = 1;
+            while (position < posting.length) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = posting[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                ordinal += gap + 1;
+                if (candidates.get(ordinal)) {
+                    result.set(ordinal);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an estimate of the memory held by a posting list, in bytes.
+     */
+    static long getFootprint(byte[] posting) {
+        return 16 + posting.length;
+    }
+
+    private static int varIntLength(int value) {
+        int length = 1;
+        for (int remaining = value >>> 7; remaining != 0; remaining >>>= 7) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int writeVarInt(byte[] bytes, int position, int value) {
+        int remaining = value;
+        int next = position;
+        while ((remaining & ~0x7F) != 0) {
+            bytes[next++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        bytes[next++] = (byte) remaining;
+        return next;
+    }
+
+    /**
+     * Builds a posting list from ordinals carried over from another, which may be in any order,
+     * and ordinals added in ascending order. The two must not overlap.
+     */
+    static final class Builder {
+        private byte[] carried = null;
+
+        // Added ordinals, held as in a sparse list while building, as they may be many
+        private byte[] added = new byte[8];
+        private int addedLength = 1;
+        private int lastAdded = -1;
+
+        /**
+         * @param ordinals the carried ordinals, which are reordered
+         */
+        void carry(int[] ordinals, int count) {
+            Arrays.sort(ordinals, 0, count);
+            carried = encode(ordinals, count);
+        }
+
+        void add(int ordinal) {
+            if (addedLength + 5 > added.length) {
+                added = Arrays.copyOf(added, added.length * 2);
+            }
+            addedLength = writeVarInt(added, addedLength, ordinal - lastAdded - 1);
+            lastAdded = ordinal;
+        }
+
+        byte[] build() {
+            if (addedLength == 1 && carried != null) {
+                return carried;
+            }
+            byte[] addedPosting = Arrays.copyOf(added, addedLength);
+            addedPosting[0] = SPARSE;
+            int addedCount = count(addedPosting);
+            int carriedCount = carried == null ? 0 : count(carried);
+            int[] ordinals = Arrays.copyOf(decode(addedPosting), addedCount + carriedCount);
+            if (carriedCount > 0) {
+                System.arraycopy(decode(carried), 0, ordinals, addedCount, carriedCount);
+                Arrays.sort(ordinals);
+            }
+            return encode(ordinals, addedCount + carriedCount);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package backend.resource;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of the strings repeated across the resources of a repo, e.g. logins and label
+ * names, and of the label lists of its issues, so that each is held once however many resources refer
+ * to it. Deserialization produces new strings for every resource, so resources built from GitHub or
+ * the store intern theirs here.
+ *
+ * Label lists are interned as unmodifiable lists backed by arrays; issues with the same labels share one.
+ *
+ * Canonical instances are held weakly, so those which no resource refers to any more, e.g. the label lists
+ * issues had before they were relabelled, are dropped instead of accumulating while the repo is open.
+ */
+public final class SymbolTable {
+
+    private static final Map<String, SymbolTable> tables = new ConcurrentHashMap<>();
+
+    private final String repoId;
+    private final WeakInterner<String> symbols = new WeakInterner<>();
+    private final WeakInterner<List<String>> labelLists = new WeakInterner<>();
+
+    private SymbolTable(String repoId) {
+        this.repoId = repoId;
+    }
+
+    /**
+     * Returns the symbol table of the given repo.
+     */
+    public static SymbolTable of(String repoId) {
+        SymbolTable table = tables.get(repoId);
+        if (table == null) {
+            SymbolTable created = new SymbolTable(repoId);
+            table = tables.putIfAbsent(repoId, created);
+            if (table == null) {
+                table = created;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Discards the symbol table of the given repo, e.g. when it is no longer open. Resources still
+     * referring to its symbols keep them; the repo gets a new table if it is opened again.
+     */
+    public static void release(String repoId) {
+        tables.remove(repoId);
+    }
+
+    /**
+     * Returns the canonical instance of the repo id.
+     */
+    public String getRepoId() {
+        return repoId;
+    }
+
+    public String intern(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        return symbols.intern(symbol);
+    }
+
+    public Optional<String> intern(Optional<String> symbol) {
+        return symbol != null && symbol.isPresent() ? Optional.of(intern(symbol.get())) : symbol;
+    }
+
+    /**
+     * Returns the canonical, unmodifiable list of the given label names.
+     */
+    public List<String> internLabels(List<String> labels) {
+        if (labels == null) {
+            return null;
+        } else if (labels.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = labelLists.get(labels);
+        if (result == null) {
+            String[] names = new String[labels.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = intern(labels.get(i));
+            }
+            result = labelLists.intern(Collections.unmodifiableList(Arrays.asList(names)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the canonical list of the given label names with another added.
+     */
+    public List<String> internLabels(List<String> labels, String label) {
+        List<String> result = new ArrayList<>(labels.size() + 1);
+        result.addAll(labels);
+        result.add(label);
+        return internLabels(result);
+    }
+
+    /**
+     * Canonical instances of values, each held only as long as something else refers to it.
+     */
+    private static final class WeakInterner<T> {
+        private final Map<T, WeakReference<T>> instances = new WeakHashMap<>();
+
+        /**
+         * Returns the canonical instance equal to the value, or null if there is none.
+         */
+        synchronized T get(T value) {
+            WeakReference<T> reference = instances.get(value);
+            return reference == null ? null : reference.get();
+        }
+
+        /**
+         * Returns the canonical instance equal to the value, which becomes it if there is none.
+         */
+        synchronized T intern(T value) {
+            T canonical = get(value);
+            if (canonical == null) {
+                instances.put(value, new WeakReference<>(value));
+                canonical = value;
+            }
+            return canonical;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package backend.resource;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Trigram index over the titles and descriptions of the issues of a single Model.
+ *
+ * Issues are identified by the same ordinals as in the owning {@link IssueIndex}. For every
+ * trigram (three consecutive characters) of the lower-cased title or description, the index
+ * keeps a posting list of the issues containing it (see {@link Postings}). A substring query can
+ * only match issues which contain all of its trigrams, so only those candidates need the exact
+ * containment check. Queries shorter than a trigram cannot be narrowed down and check every candidate.
+ *
+ * The index can be built from that of a previous version of the model: issues which are carried
+ * over unchanged (as {@link TurboIssue#reconcile(List, List)} does for issues which were not
+ * updated) keep their lower-cased titles, and their ordinals are copied over from the previous
+ * posting lists instead of their text being tokenised again.
+ *
+ * Lower-cased titles are kept for the containment check, but descriptions are not, as they are large
+ * and held compressed by issues (see {@link CompressedText}); they are read again for candidates only,
+ * at most once per refresh (see {@link Descriptions}).
+ */
+public class TextIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final List<Entry> entries;
+    private final Grams titleGrams;
+    private final Grams descriptionGrams;
+
+    TextIndex(List<TurboIssue> issues, Optional<TextIndex> previous) {
+        Map<TurboIssue, Integer> previousOrdinals = new IdentityHashMap<>();
+        previous.ifPresent(index -> {
+            for (int i = 0; i < index.entries.size(); i++) {
+                previousOrdinals.put(index.entries.get(i).issue, i);
+            }
+        });
+
+        // The ordinal of each issue of the previous index in this one, if carried over
+        int[] carriedOrdinals = new int[previous.map(index -> index.entries.size()).orElse(0)];
+        Arrays.fill(carriedOrdinals, -1);
+        BitSet changed = new BitSet();
+
+        entries = new ArrayList<>(issues.size());
+        for (int i = 0; i < issues.size(); i++) {
+            TurboIssue issue = issues.get(i);
+            Integer previousOrdinal = previousOrdinals.get(issue);
+            Entry entry = previousOrdinal == null ? null : previous.get().entries.get(previousOrdinal);
+            if (entry == null || !entry.isUpToDate() || carriedOrdinals[previousOrdinal] != -1) {
+                entry = new Entry(issue);
+                changed.set(i);
+            } else {
+                carriedOrdinals[previousOrdinal] = i;
+            }
+            entries.add(entry);
+        }
+
+        titleGrams = new Grams(previous.map(index -> index.titleGrams), carriedOrdinals,
+            changed, i -> entries.get(i).title);
+        descriptionGrams = new Grams(previous.map(index -> index.descriptionGrams), carriedOrdinals,
+            changed, i -> lowerCaseDescription(entries.get(i).issue));
+    }
+
+    /**
+     * Returns the candidates whose titles contain the given lower-cased string.
+     */
+    public BitSet withTitleContaining(String lowerCaseQuery, BitSet candidates) {
+        BitSet result = titleGrams.narrow(lowerCaseQuery, candidates);
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            if (!entries.get(i).title.contains(lowerCaseQuery)) {
+                result.clear(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the candidates whose descriptions contain the given lower-cased string,
+     * reading those which need to be checked through the given descriptions of this index.
+     */
+    public BitSet withDescriptionContaining(String lowerCaseQuery, BitSet candidates, Descriptions descriptions) {
+        assert descriptions.index == this;
+        BitSet result = descriptionGrams.narrow(lowerCaseQuery, candidates);
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            if (!descriptions.getLowerCase(i).contains(lowerCaseQuery)) {
+                result.clear(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new cache for the descriptions of the issues of this index, see {@link Descriptions}.
+     */
+    public Descriptions newDescriptions() {
+        return new Descriptions(this);
+    }
+
+    /**
+     * Returns an estimate of the memory held by this index, in bytes, not counting the issues.
+     */
+    public long getEstimatedSize() {
+        long size = 16 + 8L * entries.size() + titleGrams.getEstimatedSize() + descriptionGrams.getEstimatedSize();
+        for (Entry entry : entries) {
+            size += entry.getEstimatedSize();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the lower-cased text of an issue, which may be null (e.g. as stored), treating null as empty.
+     */
+    private static String toLowerCase(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    private static String lowerCaseDescription(TurboIssue issue) {
+        return toLowerCase(issue.getDescriptionUncached());
+    }
+
+    /**
+     * Returns the distinct trigrams of a string, each packed into a long.
+     */
+    private static long[] grams(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * The posting lists of the trigrams of one text of each issue, looked up by binary search
+     * over the trigrams in ascending order.
+     */
+    private static final class Grams {
+        private final long[] grams;
+        private final byte[][] postings;
+
+        /**
+         * @param previous the trigrams of the same text in the previous index, if any
+         * @param carriedOrdinals the ordinal in this index of each issue of the previous one, or -1
+         * @param changed the ordinals of the issues whose text is to be tokenised
+         * @param text the lower-cased text of the issue of an ordinal
+         */
+        Grams(Optional<Grams> previous, int[] carriedOrdinals, BitSet changed,
+              IntFunction<String> text) {
+            LongMap<Postings.Builder> builders = new LongMap<>(previous.map(g -> g.grams.length).orElse(1024));
+
+            if (previous.isPresent()) {
+                for (int g = 0; g < previous.get().grams.length; g++) {
+                    int[] ordinals = Postings.decode(previous.get().postings[g]);
+                    int count = 0;
+                    for (int previousOrdinal : ordinals) {
+                        int ordinal = carriedOrdinals[previousOrdinal];
+                        if (ordinal != -1) {
+                            ordinals[count++] = ordinal;
+                        }
+                    }
+                    if (count > 0) {
+                        Postings.Builder builder = new Postings.Builder();
+                        builder.carry(ordinals, count);
+                        builders.putIfAbsent(previous.get().grams[g], builder);
+                    }
+                }
+            }
+
+            for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+                for (long gram : grams(text.apply(i))) {
+                    Postings.Builder builder = builders.get(gram);
+                    if (builder == null) {
+                        builder = new Postings.Builder();
+                        builders.putIfAbsent(gram, builder);
+                    }
+                    builder.add(i);
+                }
+            }
+
+            grams = builders.keys();
+            Arrays.sort(grams);
+            postings = new byte[grams.length][];
+            for (int g = 0; g < grams.length; g++) {
+                postings[g] = builders.get(grams[g]).build();
+            }
+        }
+
+        /**
+         * Intersects the candidates with the posting lists of all trigrams of the query,
+         * starting from the shortest.
+         */
+        BitSet narrow(String query, BitSet candidates) {
+            long[] queryGrams = grams(query);
+            List<byte[]> queryPostings = new ArrayList<>(queryGrams.length);
+            for (long gram : queryGrams) {
+                int g = Arrays.binarySearch(grams, gram);
+                if (g < 0) {
+                    return new BitSet();
+                }
+                queryPostings.add(postings[g]);
+            }
+            queryPostings.sort(Comparator.comparingInt(posting -> posting.length));
+
+            BitSet result = (BitSet) candidates.clone();
+            for (byte[] posting : queryPostings) {
+                if (result.isEmpty()) {
+                    break;
+                }
+                result = Postings.and(posting, result);
+            }
+            return result;
+        }
+
+        long getEstimatedSize() {
+            long size = 16 + 8L * grams.length + 16 + 8L * postings.length;
+            for (byte[] posting : postings) {
+                size += Postings.getFootprint(posting);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * The indexed text of a single issue.
+     */
+    private static class Entry {
+        private final TurboIssue issue;
+
+        // The text as it was when the entry was created, to detect issues changed in place
+        private final String originalTitle;
+        private final CompressedText originalDescription;
+
+        private final String title;
+
+        Entry(TurboIssue issue) {
+            this.issue = issue;
+            this.originalTitle = issue.getTitle();
+            this.originalDescription = issue.getCompressedDescription();
+            this.title = toLowerCase(originalTitle);
+        }
+
+        boolean isUpToDate() {
+            // Compares descriptions without decompressing them
+            return Objects.equals(originalTitle, issue.getTitle())
+                && Objects.equals(originalDescription, issue.getCompressedDescription());
+        }
+
+        long getEstimatedSize() {
+            // The original texts are shared with the issue
+            return 32 + (title.equals(originalTitle) || title.isEmpty() ? 0 : 40 + 2L * title.length());
+        }
+    }
+
+    /**
+     * The lower-cased descriptions of the issues of an index, read when first needed and then kept,
+     * so that each is decompressed at most once however many filters search it. Meant to be used
+     * for one refresh, after which it should be dropped, as it holds the descriptions uncompressed.
+     *
+     * Thread-safe.
+     */
+    public static final class Descriptions {
+        private final TextIndex index;
+        private final String[] lowerCase;
+
+        Descriptions(TextIndex index) {
+            this.index = index;
+            this.lowerCase = new String[index.entries.size()];
+        }
+
+        synchronized String getLowerCase(int ordinal) {
+            String result = lowerCase[ordinal];
+            if (result == null) {
+                result = lowerCaseDescription(index.entries.get(ordinal).issue);
+                lowerCase[ordinal] = result;
+            }
+            return result;
+        }
+    }
+}
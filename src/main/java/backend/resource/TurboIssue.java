@@ -12,6 +12,7 @@ import util.Utility;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,6 +28,9 @@ public class TurboIssue {
     public static final String STATE_CLOSED = "closed";
     public static final String STATE_OPEN = "open";
 
+    // Object headers, dates, optionals and other fixed-size fields
+    private static final long ESTIMATED_OVERHEAD = 256;
+
     /**
      * Serialized fields.
      *
@@ -45,7 +49,8 @@ public class TurboIssue {
 
     // Mutable
     private String title;
-    private String description;
+    // Held compressed if long, as descriptions are large and rarely read
+    private CompressedText description;
     private LocalDateTime updatedAt;
     private int commentCount;
     private boolean isOpen;
@@ -67,6 +72,9 @@ public class TurboIssue {
        the labels must also update this field. If this is empty, updatedAt time is used instead */
     private Optional<LocalDateTime> labelsLastModifiedAt = Optional.empty();
 
+    // Hash of the serialized fields, computed on first use; methods changing them must reset it to 0
+    private long contentHash = 0;
+
     @SuppressWarnings("unused")
     private void ______CONSTRUCTORS______() {}
 
@@ -114,63 +122,95 @@ public class TurboIssue {
         this.commentCount = issue.commentCount;
         this.isOpen = issue.isOpen;
         this.assignee = issue.assignee;
-        this.labels = new ArrayList<>(issue.labels);
+        this.labels = issue.labels;
         this.milestone = issue.milestone;
 
         this.metadata = issue.metadata;
         this.repoId = issue.repoId;
         this.markedReadAt = issue.markedReadAt;
         this.labelsLastModifiedAt = Optional.of(issue.getLabelsLastModifiedAt());
+        this.contentHash = issue.contentHash;
+    }
+
+    /**
+     * Constructor for views of issues held column-wise, see {@link CompactModel}.
+     */
+    TurboIssue(String repoId, int id, String creator, LocalDateTime createdAt, boolean isPullRequest,
+               String title, CompressedText description, LocalDateTime updatedAt, int commentCount,
+               boolean isOpen, Optional<String> assignee, List<String> labels, Optional<Integer> milestone,
+               IssueMetadata metadata, Optional<LocalDateTime> markedReadAt,
+               Optional<LocalDateTime> labelsLastModifiedAt, long contentHash) {
+        this.id = id;
+        this.creator = creator;
+        this.createdAt = createdAt;
+        this.isPullRequest = isPullRequest;
+
+        this.title = title;
+        this.description = description;
+        this.updatedAt = updatedAt;
+        this.commentCount = commentCount;
+        this.isOpen = isOpen;
+        this.assignee = assignee;
+        this.labels = labels;
+        this.milestone = milestone;
+
+        this.repoId = repoId;
+        this.metadata = metadata;
+        this.markedReadAt = markedReadAt;
+        this.labelsLastModifiedAt = labelsLastModifiedAt;
+        this.contentHash = contentHash;
     }
 
     public TurboIssue(String repoId, Issue issue) {
+        SymbolTable symbols = SymbolTable.of(repoId);
         this.id = issue.getNumber();
         this.title = issue.getTitle() == null
             ? ""
             : issue.getTitle();
-        this.creator = issue.getUser().getLogin();
+        this.creator = symbols.intern(issue.getUser().getLogin());
         this.createdAt = Utility.dateToLocalDateTime(issue.getCreatedAt());
         this.isPullRequest = isPullRequest(issue);
 
-        this.description = issue.getBody() == null
+        this.description = CompressedText.of(issue.getBody() == null
             ? ""
-            : issue.getBody();
+            : issue.getBody());
         this.updatedAt = issue.getUpdatedAt() != null ?
                 Utility.dateToLocalDateTime(issue.getUpdatedAt()) : this.createdAt;
         this.commentCount = issue.getComments();
         this.isOpen = issue.getState().equals(STATE_OPEN);
         this.assignee = issue.getAssignee() == null
             ? Optional.empty()
-            : Optional.of(issue.getAssignee().getLogin());
-        this.labels = issue.getLabels().stream()
+            : Optional.of(symbols.intern(issue.getAssignee().getLogin()));
+        this.labels = symbols.internLabels(issue.getLabels().stream()
             .map(Label::getName)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
         this.milestone = issue.getMilestone() == null
             ? Optional.empty()
             : Optional.of(issue.getMilestone().getNumber());
 
         this.metadata = IssueMetadata.empty();
-        this.repoId = repoId;
+        this.repoId = symbols.getRepoId();
         this.markedReadAt = Optional.empty();
     }
 
     public TurboIssue(String repoId, SerializableIssue issue) {
+        SymbolTable symbols = SymbolTable.of(repoId);
         this.id = issue.getId();
-        this.creator = issue.getCreator();
+        this.creator = symbols.intern(issue.getCreator());
         this.createdAt = issue.getCreatedAt();
         this.isPullRequest = issue.isPullRequest();
 
         this.title = issue.getTitle();
-        this.description = issue.getDescription();
+        this.description = CompressedText.of(issue.getDescription());
         this.updatedAt = replaceNull(issue.getUpdatedAt(), this.createdAt);
         this.commentCount = issue.getCommentCount();
         this.isOpen = issue.isOpen();
-        this.assignee = issue.getAssignee();
-        this.labels = issue.getLabels();
+        this.assignee = symbols.intern(issue.getAssignee());
+        this.labels = symbols.internLabels(issue.getLabels());
         this.milestone = issue.getMilestone();
 
         this.metadata = IssueMetadata.empty();
-        this.repoId = repoId;
+        this.repoId = symbols.getRepoId();
         this.markedReadAt = Optional.empty();
     }
 
@@ -183,12 +223,12 @@ public class TurboIssue {
 
     private void mutableFieldDefaults() {
         this.title = "";
-        this.description = "";
+        this.description = CompressedText.of("");
         this.updatedAt = replaceNull(this.createdAt, LocalDateTime.now());
         this.commentCount = 0;
         this.isOpen = true;
         this.assignee = Optional.empty();
-        this.labels = new ArrayList<>();
+        this.labels = Collections.emptyList();
         this.milestone = Optional.empty();
 
         this.metadata = IssueMetadata.empty();
@@ -229,6 +269,7 @@ public class TurboIssue {
                         this, this.getLabels(), otherIssue.getLabels());
             this.labels = otherIssue.getLabels();
             this.labelsLastModifiedAt = Optional.of(otherIssue.getLabelsLastModifiedAt());
+            this.contentHash = 0;
         }
     }
 
@@ -250,27 +291,7 @@ public class TurboIssue {
      * @param changed
      */
     public static List<TurboIssue> reconcile(List<TurboIssue> existing, List<TurboIssue> changed) {
-        List<TurboIssue> existingCopy = new ArrayList<>(existing);
-        for (TurboIssue issue : changed) {
-            int id = issue.getId();
-
-            Optional<Integer> correspondingIssueIndex = findIssueWithId(existingCopy, id);
-            if (!correspondingIssueIndex.isPresent()) {
-                existingCopy.add(new TurboIssue(issue));
-            } else {
-                TurboIssue existingIssue = existingCopy.get(correspondingIssueIndex.get());
-                TurboIssue newIssue = new TurboIssue(issue);
-
-                // newIssue is constructed from an external Issue object.
-                // It won't have the transient state that its TurboIssue
-                // counterpart has, so we have to explicitly transfer it.
-                newIssue.transferTransientState(existingIssue);
-                newIssue.reconcile(existingIssue);
-
-                existingCopy.set(correspondingIssueIndex.get(), newIssue);
-            }
-        }
-        return existingCopy;
+        return new ArrayList<>(IssueMerge.merge(existing, changed, new ArrayList<>()).getIssues());
     }
 
     /**
@@ -282,22 +303,24 @@ public class TurboIssue {
      */
     public static List<TurboIssue> combineWithPullRequests(List<TurboIssue> issues,
                                                            List<PullRequest> pullRequests) {
-        List<TurboIssue> issuesCopy = new ArrayList<>(issues);
-
-        for (PullRequest pullRequest : pullRequests) {
-            int id = pullRequest.getNumber();
-
-            Optional<Integer> corresponding = findIssueWithId(issuesCopy, id);
-            if (corresponding.isPresent()) {
-                TurboIssue issue = issuesCopy.get(corresponding.get());
-                issuesCopy.set(corresponding.get(), issue.combineWithPullRequest(pullRequest));
-            } else {
-                String errorMsg = "No corresponding issue for pull request " + pullRequest;
-                logger.error(errorMsg);
-            }
-        }
+        return new ArrayList<>(IssueMerge.merge(issues, new ArrayList<>(), pullRequests).getIssues());
+    }
 
-        return issuesCopy;
+    /**
+     * Returns a new issue with the content of {@code update}, an updated version of this issue,
+     * keeping the transient state of this issue and its more recently modified elements.
+     * This issue is not mutated.
+     * @param update
+     */
+    TurboIssue updatedWith(TurboIssue update) {
+        TurboIssue newIssue = new TurboIssue(update);
+
+        // newIssue is constructed from an external Issue object.
+        // It won't have the transient state that its TurboIssue
+        // counterpart has, so we have to explicitly transfer it.
+        newIssue.transferTransientState(this);
+        newIssue.reconcile(this);
+        return newIssue;
     }
 
     /**
@@ -366,14 +389,43 @@ public class TurboIssue {
 
     public void setTitle(String title) {
         this.title = title;
+        this.contentHash = 0;
     }
 
     public String getDescription() {
+        return description == null ? null : description.get();
+    }
+
+    /**
+     * Same as {@link #getDescription()}, but does not keep the description in the cache of recently
+     * read texts, for callers which read many descriptions once or keep them themselves.
+     */
+    String getDescriptionUncached() {
+        return description == null ? null : description.getUncached();
+    }
+
+    /**
+     * Returns an estimate of the memory held by this issue, in bytes. Label lists are shared between
+     * issues, so they are not counted.
+     */
+    long getEstimatedSize() {
+        return ESTIMATED_OVERHEAD + 2L * title.length() + (description == null ? 0 : description.getFootprint());
+    }
+
+    CompressedText getCompressedDescription() {
         return description;
     }
 
+    /**
+     * Returns when the labels of this issue were last modified, if they were modified on their own.
+     */
+    Optional<LocalDateTime> getOwnLabelsLastModifiedAt() {
+        return labelsLastModifiedAt;
+    }
+
     public void setDescription(String description) {
-        this.description = description;
+        this.description = CompressedText.of(description);
+        this.contentHash = 0;
     }
 
     public LocalDateTime getUpdatedAt() {
@@ -382,6 +434,7 @@ public class TurboIssue {
 
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = replaceNull(updatedAt, this.createdAt);
+        this.contentHash = 0;
     }
 
     public int getCommentCount() {
@@ -390,6 +443,7 @@ public class TurboIssue {
 
     public void setCommentCount(int commentCount) {
         this.commentCount = commentCount;
+        this.contentHash = 0;
     }
 
     public boolean isOpen() {
@@ -398,6 +452,7 @@ public class TurboIssue {
 
     public void setOpen(boolean isOpen) {
         this.isOpen = isOpen;
+        this.contentHash = 0;
     }
 
     public Optional<String> getAssignee() {
@@ -406,19 +461,24 @@ public class TurboIssue {
 
     public void setAssignee(String assignee) {
         this.assignee = Optional.of(assignee);
+        this.contentHash = 0;
     }
 
     public void setAssignee(TurboUser assignee) {
         setAssignee(assignee.getLoginName());
     }
 
+    /**
+     * Returns the labels of this issue, as an unmodifiable list shared with other issues with the same labels.
+     */
     public List<String> getLabels() {
         return labels;
     }
 
     public void setLabels(List<String> labels) {
-        this.labels = labels;
+        this.labels = SymbolTable.of(repoId).internLabels(labels);
         this.labelsLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.contentHash = 0;
     }
 
     public LocalDateTime getLabelsLastModifiedAt() {
@@ -426,8 +486,9 @@ public class TurboIssue {
     }
 
     public void addLabel(String label) {
-        this.labels.add(label);
+        this.labels = SymbolTable.of(repoId).internLabels(labels, label);
         this.labelsLastModifiedAt = Optional.of(LocalDateTime.now());
+        this.contentHash = 0;
     }
 
     public void addLabel(TurboLabel label) {
@@ -441,6 +502,7 @@ public class TurboIssue {
 
     public void setMilestone(Integer milestone) {
         this.milestone = Optional.of(milestone);
+        this.contentHash = 0;
     }
 
     public void setMilestone(TurboMilestone milestone) {
@@ -463,6 +525,27 @@ public class TurboIssue {
         this.markedReadAt = markedReadAt;
     }
 
+    /**
+     * Returns a 64-bit hash of the serialized fields of this issue (see {@link ContentHash}), which is
+     * cached until they change. Unlike {@link #hashCode()}, transient state is not considered.
+     */
+    public long getContentHash() {
+        long hash = contentHash;
+        if (hash == 0) {
+            ContentHash content = new ContentHash()
+                .add(id).add(creator).add(createdAt).add(isPullRequest).add(title)
+                .add(description == null ? ContentHash.of(null) : description.getContentHash())
+                .add(updatedAt).add(commentCount).add(isOpen).add(assignee).add(milestone);
+            content.add(labels == null ? -1 : labels.size());
+            if (labels != null) {
+                labels.forEach(content::add);
+            }
+            hash = content.get();
+            contentHash = hash;
+        }
+        return hash;
+    }
+
     public boolean isCurrentlyRead() {
         if (!getMarkedReadAt().isPresent()) {
             return false;
@@ -7,8 +7,6 @@ import javafx.scene.control.Tooltip;
 import org.eclipse.egit.github.core.Label;
 
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @SuppressWarnings("unused")
 public class TurboLabel implements Comparable<TurboLabel> {
@@ -27,6 +25,9 @@ public class TurboLabel implements Comparable<TurboLabel> {
 
     private final String repoId;
 
+    // Parsed on first use; immutable, so it is safe to share without synchronization
+    private LabelName parsedName;
+
     private void ______CONSTRUCTORS______() {
     }
 
@@ -60,43 +61,42 @@ public class TurboLabel implements Comparable<TurboLabel> {
     }
 
     public TurboLabel(String repoId, Label label) {
-        this.actualName = label.getName();
-        this.colour = label.getColor();
-        this.repoId = repoId;
+        SymbolTable symbols = SymbolTable.of(repoId);
+        this.actualName = symbols.intern(label.getName());
+        this.colour = symbols.intern(label.getColor());
+        this.repoId = symbols.getRepoId();
     }
 
     public TurboLabel(String repoId, SerializableLabel label) {
-        this.actualName = label.getActualName();
-        this.colour = label.getColour();
-        this.repoId = repoId;
+        SymbolTable symbols = SymbolTable.of(repoId);
+        this.actualName = symbols.intern(label.getActualName());
+        this.colour = symbols.intern(label.getColour());
+        this.repoId = symbols.getRepoId();
     }
 
     private void ______METHODS______() {
     }
 
     public static Optional<String> getDelimiter(String name) {
-
-        // Escaping due to constants not being valid regexes
-        Pattern p = Pattern.compile(String.format("^[^\\%s\\%s]+(\\%s|\\%s)",
-            EXCLUSIVE_DELIMITER,
-            NONEXCLUSIVE_DELIMITER,
-            EXCLUSIVE_DELIMITER,
-            NONEXCLUSIVE_DELIMITER));
-        Matcher m = p.matcher(name);
-
-        if (m.find()) {
-            return Optional.of(m.group(1));
-        } else {
-            return Optional.empty();
-        }
+        return LabelName.findDelimiter(name);
     }
 
     private static String joinWith(String group, String name, boolean exclusive) {
         return group + (exclusive ? EXCLUSIVE_DELIMITER : NONEXCLUSIVE_DELIMITER) + name;
     }
 
+    /**
+     * Returns the parsed form of the name of this label, which is shared by labels with the same name.
+     */
+    public LabelName getParsedName() {
+        if (parsedName == null) {
+            parsedName = LabelName.of(actualName);
+        }
+        return parsedName;
+    }
+
     public boolean isExclusive() {
-        return getDelimiter(actualName).isPresent() && getDelimiter(actualName).get().equals(EXCLUSIVE_DELIMITER);
+        return getParsedName().isExclusive();
     }
 
     public boolean hasGroup() {
@@ -104,53 +104,11 @@ public class TurboLabel implements Comparable<TurboLabel> {
     }
 
     public Optional<String> getGroup() {
-        if (getDelimiter(actualName).isPresent()) {
-            String delimiter = getDelimiter(actualName).get();
-            // Escaping due to constants not being valid regexes
-            String[] segments = actualName.split("\\" + delimiter);
-            assert segments.length >= 1;
-            if (segments.length == 1) {
-                if (actualName.endsWith(delimiter)) {
-                    // group.
-                    return Optional.of(segments[0]);
-                } else {
-                    // .name
-                    return Optional.empty();
-                }
-            } else {
-                // group.name
-                assert segments.length == 2;
-                return Optional.of(segments[0]);
-            }
-        } else {
-            // name
-            return Optional.empty();
-        }
+        return getParsedName().getGroup();
     }
 
     public String getName() {
-        if (getDelimiter(actualName).isPresent()) {
-            String delimiter = getDelimiter(actualName).get();
-            // Escaping due to constants not being valid regexes
-            String[] segments = actualName.split("\\" + delimiter);
-            assert segments.length >= 1;
-            if (segments.length == 1) {
-                if (actualName.endsWith(delimiter)) {
-                    // group.
-                    return "";
-                } else {
-                    // .name
-                    return segments[0];
-                }
-            } else {
-                // group.name
-                assert segments.length == 2;
-                return segments[1];
-            }
-        } else {
-            // name
-            return actualName;
-        }
+        return getParsedName().getName();
     }
 
     public String getStyle() {
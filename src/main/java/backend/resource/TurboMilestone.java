@@ -57,7 +57,7 @@ public class TurboMilestone {
         this.isOpen = milestone.getState().equals(STATE_OPEN);
         this.openIssues = milestone.getOpenIssues();
         this.closedIssues = milestone.getClosedIssues();
-        this.repoId = repoId;
+        this.repoId = SymbolTable.of(repoId).getRepoId();
     }
 
     public TurboMilestone(String repoId, SerializableMilestone milestone) {
@@ -68,7 +68,7 @@ public class TurboMilestone {
         this.isOpen = milestone.isOpen();
         this.openIssues = milestone.getOpenIssues();
         this.closedIssues = milestone.getClosedIssues();
-        this.repoId = repoId;
+        this.repoId = SymbolTable.of(repoId).getRepoId();
     }
 
     // Copy constructor, for now only used to ensure DummyRepo updates work properly.
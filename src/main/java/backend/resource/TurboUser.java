@@ -54,17 +54,19 @@ public class TurboUser {
     }
 
     public TurboUser(String repoId, User user) {
-        this.loginName = replaceNull(user.getLogin(), "");
+        SymbolTable symbols = SymbolTable.of(replaceNull(repoId, ""));
+        this.loginName = symbols.intern(replaceNull(user.getLogin(), ""));
         this.realName = replaceNull(user.getName(), "");
         this.avatarURL = replaceNull(user.getAvatarUrl(), "");
-        this.repoId = replaceNull(repoId, "");
+        this.repoId = symbols.getRepoId();
     }
 
     public TurboUser(String repoId, SerializableUser user) {
-        this.loginName = replaceNull(user.getLoginName(), "");
+        SymbolTable symbols = SymbolTable.of(replaceNull(repoId, ""));
+        this.loginName = symbols.intern(replaceNull(user.getLoginName(), ""));
         this.realName = replaceNull(user.getRealName(), "");
         this.avatarURL = replaceNull(user.getAvatarURL(), "");
-        this.repoId = replaceNull(repoId, "");
+        this.repoId = symbols.getRepoId();
     }
 
     private void ______METHODS______() {
@@ -41,6 +41,26 @@ public class SerializableIssue {
         this.milestone = issue.getMilestone();
     }
 
+    /**
+     * Constructor for deserialization from formats other than JSON.
+     */
+    public SerializableIssue(int id, String title, String creator, LocalDateTime createdAt, boolean isPullRequest,
+                             String description, LocalDateTime updatedAt, int commentCount, boolean isOpen,
+                             Optional<String> assignee, List<String> labels, Optional<Integer> milestone) {
+        this.id = id;
+        this.title = title;
+        this.creator = creator;
+        this.createdAt = createdAt;
+        this.isPullRequest = isPullRequest;
+        this.description = description;
+        this.updatedAt = updatedAt;
+        this.commentCount = commentCount;
+        this.isOpen = isOpen;
+        this.assignee = assignee;
+        this.labels = labels;
+        this.milestone = milestone;
+    }
+
     public int getId() {
         return id;
     }
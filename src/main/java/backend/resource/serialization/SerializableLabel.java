@@ -17,6 +17,14 @@ public class SerializableLabel {
         this.colour = label.getColour();
     }
 
+    /**
+     * Constructor for deserialization from formats other than JSON.
+     */
+    public SerializableLabel(String actualName, String colour) {
+        this.actualName = actualName;
+        this.colour = colour;
+    }
+
     public String getActualName() {
         return actualName;
     }
@@ -29,6 +29,20 @@ public class SerializableMilestone {
         this.closedIssues = milestone.getClosedIssues();
     }
 
+    /**
+     * Constructor for deserialization from formats other than JSON.
+     */
+    public SerializableMilestone(int id, String title, Optional<LocalDate> dueDate, String description,
+                                 boolean isOpen, int openIssues, int closedIssues) {
+        this.id = id;
+        this.title = title;
+        this.dueDate = dueDate;
+        this.description = description;
+        this.isOpen = isOpen;
+        this.openIssues = openIssues;
+        this.closedIssues = closedIssues;
+    }
+
     public int getId() {
         return id;
     }
@@ -18,6 +18,15 @@ public class SerializableUser {
         this.avatarURL = user.getAvatarURL();
     }
 
+    /**
+     * Constructor for deserialization from formats other than JSON.
+     */
+    public SerializableUser(String loginName, String realName, String avatarURL) {
+        this.loginName = loginName;
+        this.realName = realName;
+        this.avatarURL = avatarURL;
+    }
+
     public String getLoginName() {
         return loginName;
     }
@@ -1,6 +1,7 @@
 package backend.stub;
 
 import backend.github.DownloadMetadataTask;
+import backend.github.MetadataCache;
 import backend.interfaces.TaskRunner;
 import backend.resource.TurboIssue;
 
@@ -12,8 +13,9 @@ public class DownloadMetadataTaskStub extends DownloadMetadataTask {
     public DownloadMetadataTaskStub(TaskRunner taskRunner,
                                     DummyRepo repo,
                                     String repoId,
-                                    List<TurboIssue> issuesToUpdate) {
-        super(taskRunner, repo, repoId, issuesToUpdate);
+                                    List<TurboIssue> issuesToUpdate,
+                                    MetadataCache cache) {
+        super(taskRunner, repo, repoId, issuesToUpdate, cache);
     }
 
     @Override
@@ -303,7 +303,7 @@ public class DummyRepoState {
         ImmutablePair<TurboIssue, IssueMetadata> mutables = produceMutables(issueId);
         TurboIssue toRename = mutables.getLeft();
         IssueMetadata metadataOfIssue = mutables.getRight();
-        List<TurboIssueEvent> eventsOfIssue = metadataOfIssue.getEvents();
+        List<TurboIssueEvent> eventsOfIssue = new ArrayList<>(metadataOfIssue.getEvents());
 
         // Mutate the copies
         eventsOfIssue.add(new TurboIssueEvent(new User().setLogin("test-nonself"),
@@ -364,7 +364,7 @@ public class DummyRepoState {
         ImmutablePair<TurboIssue, IssueMetadata> mutables = produceMutables(issueId);
         TurboIssue toSet = mutables.getLeft();
         IssueMetadata metadataOfIssue = mutables.getRight();
-        List<TurboIssueEvent> eventsOfIssue = metadataOfIssue.getEvents();
+        List<TurboIssueEvent> eventsOfIssue = new ArrayList<>(metadataOfIssue.getEvents());
 
         // Mutate the copies
         List<String> labelsOfIssue = toSet.getLabels();
@@ -392,7 +392,7 @@ public class DummyRepoState {
         ImmutablePair<TurboIssue, IssueMetadata> mutables = produceMutables(issueId);
         TurboIssue toComment = mutables.getLeft();
         IssueMetadata metadataOfIssue = mutables.getRight();
-        List<Comment> commentsOfIssue = metadataOfIssue.getComments();
+        List<Comment> commentsOfIssue = new ArrayList<>(metadataOfIssue.getComments());
 
         // Mutate the copies
         Comment toAdd = new Comment();
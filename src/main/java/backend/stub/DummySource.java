@@ -4,6 +4,7 @@ import backend.IssueMetadata;
 import backend.UserCredentials;
 import backend.github.CheckRateLimitTask;
 import backend.github.DownloadRepoTask;
+import backend.github.MetadataCache;
 import backend.github.ReplaceIssueLabelsTask;
 import backend.github.UpdateModelTask;
 import backend.interfaces.RepoSource;
@@ -19,6 +20,7 @@ import java.util.concurrent.CompletableFuture;
 public class DummySource extends RepoSource {
 
     private final DummyRepo dummy = new DummyRepo();
+    private final MetadataCache metadataCache = new MetadataCache(MetadataCache.DEFAULT_CAPACITY);
 
     @Override
     public String getName() {
@@ -45,7 +47,7 @@ public class DummySource extends RepoSource {
     @Override
     public CompletableFuture<Map<Integer, IssueMetadata>> downloadMetadata(String repoId,
                                                                            List<TurboIssue> issues) {
-        return addTask(new DownloadMetadataTaskStub(this, dummy, repoId, issues)).response;
+        return addTask(new DownloadMetadataTaskStub(this, dummy, repoId, issues, metadataCache)).response;
     }
 
     @Override
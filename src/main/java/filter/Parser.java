@@ -7,7 +7,9 @@ import filter.lexer.TokenType;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
@@ -17,12 +19,42 @@ import util.Utility;
 
 public final class Parser {
 
+    private static final int MAX_CACHED_PARSES = 256;
+
+    // Filter expressions are immutable, so the most recently parsed ones are shared between callers,
+    // e.g. the filter box re-parsing its text on every key, or panels with the same filter
+    private static final Map<String, FilterExpression> parseCache = new LinkedHashMap<String, FilterExpression>(
+            MAX_CACHED_PARSES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FilterExpression> eldest) {
+            return size() > MAX_CACHED_PARSES;
+        }
+    };
+
     private Parser(ArrayList<Token> input) {
         this.input = input;
     }
+
+    /**
+     * Parses a filter string. The result may be shared with other callers parsing the same string.
+     *
+     * @throws ParseException if the string is not a valid filter
+     */
     public static FilterExpression parse(String input) {
         if (input == null || input.isEmpty()) return Qualifier.EMPTY;
-        return new Parser(new Lexer(input).lex()).parseExpression(0);
+
+        synchronized (parseCache) {
+            FilterExpression cached = parseCache.get(input);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Strings which do not parse are not cached, so they are re-parsed to throw again
+        FilterExpression result = new Parser(new Lexer(input).lex()).parseExpression(0);
+        synchronized (parseCache) {
+            parseCache.put(input, result);
+        }
+        return result;
     }
 
     private final ArrayList<Token> input;
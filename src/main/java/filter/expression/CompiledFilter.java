@@ -0,0 +1,171 @@
+package filter.expression;
+
+import backend.interfaces.IReadModel;
+import backend.resource.IssueIndex;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import filter.MetaQualifierInfo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A filter expression which has been prepared for repeated evaluation against a model.
+ *
+ * Everything about a filter expression which does not depend on the issue being tested
+ * (milestone aliases, meta-qualifiers, the implicit default repo conjunct) is resolved
+ * once on construction, so that testing an issue is a plain walk of the predicate tree.
+ * The operands of the predicate are ordered by a {@link FilterPlanner}, so that cheap and
+ * selective ones are evaluated first.
+ *
+ * A compiled filter is bound to the state of the model at compilation time (e.g. the
+ * default repo and its milestones), so it should be recompiled once per refresh.
+ */
+public class CompiledFilter {
+
+    private final IReadModel model;
+    private final String defaultRepo;
+
+    // The expression as given, which identifies the panel this filter belongs to
+    private final FilterExpression source;
+
+    // The expression with milestone aliases resolved, including meta-qualifiers
+    private final FilterExpression expression;
+
+    // The expression which is actually tested against issues, planned, and its conjuncts
+    private final FilterExpression predicate;
+    private final List<FilterExpression> conjuncts;
+
+    private final MetaQualifierInfo info;
+    private final boolean hasUpdatedQualifier;
+    private final boolean isIncremental;
+
+    /**
+     * Compiles a filter expression, resolving milestone aliases against the given model.
+     */
+    public static CompiledFilter compile(IReadModel model, FilterExpression expr) {
+        return new CompiledFilter(model, expr, Qualifier.replaceMilestoneAliases(model, expr));
+    }
+
+    CompiledFilter(IReadModel model, FilterExpression source, FilterExpression expression) {
+        this.model = model;
+        this.defaultRepo = model.getDefaultRepo();
+        this.source = source;
+        this.expression = expression;
+
+        List<Qualifier> metaQualifiers = expression.find(Qualifier::isMetaQualifier);
+        this.info = new MetaQualifierInfo(metaQualifiers);
+        this.hasUpdatedQualifier = Qualifier.hasUpdatedQualifier(expression);
+        this.isIncremental = !hasUpdatedQualifier
+            && expression.find(Qualifier::isReadStateQualifier).isEmpty();
+        this.predicate = new FilterPlanner(model, info, getRepoIds(defaultRepo, expression))
+            .plan(buildPredicate(defaultRepo, expression, metaQualifiers));
+        this.conjuncts = predicate.getConjuncts();
+    }
+
+    /**
+     * Returns the repos a filter expression is evaluated against: those of its repo qualifiers,
+     * or else the default repo.
+     */
+    private static Collection<String> getRepoIds(String defaultRepo, FilterExpression expr) {
+        Set<String> repoIds = Qualifier.getMetaQualifierContent(expr, QualifierType.REPO);
+        return repoIds.isEmpty() ? Collections.singletonList(defaultRepo) : repoIds;
+    }
+
+    private static FilterExpression buildPredicate(String defaultRepo, FilterExpression expr,
+                                                   List<Qualifier> metaQualifiers) {
+        FilterExpression exprWithNormalQualifiers = expr.filter(Qualifier::shouldNotBeStripped);
+
+        // Preprocessing for repo qualifier
+        boolean containsRepoQualifier = metaQualifiers.stream()
+                .anyMatch(q -> q.getType() == QualifierType.REPO);
+
+        if (!containsRepoQualifier) {
+            exprWithNormalQualifiers = new Conjunction(
+                new Qualifier(QualifierType.REPO, defaultRepo),
+                exprWithNormalQualifiers);
+        }
+        return exprWithNormalQualifiers;
+    }
+
+    public boolean isSatisfiedBy(TurboIssue issue) {
+        return predicate.isSatisfiedBy(model, issue, info);
+    }
+
+    /**
+     * Returns the issues of the given repository models which satisfy this filter, evaluated
+     * against the inverted index of each model. Issues are returned in model order.
+     */
+    public List<TurboIssue> getMatchingIssues(Collection<Model> repoModels) {
+        return getMatchingIssues(repoModels, new SharedEvaluation(Collections.singletonList(this)));
+    }
+
+    /**
+     * As {@link #getMatchingIssues(Collection)}, reusing the results of conjuncts shared with the
+     * other filters evaluated through the given shared evaluation.
+     */
+    public List<TurboIssue> getMatchingIssues(Collection<Model> repoModels, SharedEvaluation shared) {
+        List<FilterExpression> orderedConjuncts = shared.order(conjuncts);
+        Stream<Model> models = shared.isParallel() ? repoModels.parallelStream() : repoModels.stream();
+        return models
+            .map(repoModel -> getMatchingIssues(repoModel.getIssueIndex(), orderedConjuncts, shared))
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+    }
+
+    private List<TurboIssue> getMatchingIssues(IssueIndex index, List<FilterExpression> orderedConjuncts,
+                                               SharedEvaluation shared) {
+        BitSet matches = index.all();
+        for (FilterExpression conjunct : orderedConjuncts) {
+            matches = shared.getMatchingIssues(conjunct, model, index, matches, info);
+        }
+        List<TurboIssue> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(index.getIssue(i));
+        }
+        return result;
+    }
+
+    List<FilterExpression> getConjuncts() {
+        return conjuncts;
+    }
+
+    public FilterExpression getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the default repo at compilation time, which issues are restricted to if the filter has no repo qualifier.
+     */
+    public String getDefaultRepo() {
+        return defaultRepo;
+    }
+
+    public FilterExpression getExpression() {
+        return expression;
+    }
+
+    public MetaQualifierInfo getMetaQualifierInfo() {
+        return info;
+    }
+
+    public boolean hasUpdatedQualifier() {
+        return hasUpdatedQualifier;
+    }
+
+    /**
+     * Returns true if results of this filter stay valid for issues which have not been changed through
+     * their model, so that they can be patched with only the changed issues. This is not the case for
+     * updated: (which depends on the current time and on metadata) or is:read and is:unread (which depend
+     * on read state), as those are updated in place without going through the model.
+     */
+    public boolean canBeMaintainedIncrementally() {
+        return isIncremental;
+    }
+}
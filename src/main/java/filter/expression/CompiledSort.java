@@ -0,0 +1,377 @@
+package filter.expression;
+
+import backend.interfaces.IReadModel;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A sort order over issues, compiled from a list of sort keys.
+ *
+ * Sort keys are resolved once on compilation. When sorting, the key of each issue under each sort key
+ * (e.g. the due date of its milestone, or its sorted labels in a group) is extracted once into an array,
+ * and the positions of issues are then sorted by comparing the extracted keys, so comparisons neither
+ * resolve resources nor allocate.
+ */
+public final class CompiledSort {
+
+    // Runs of positions this short are insertion sorted
+    private static final int INSERTION_SORT_THRESHOLD = 7;
+
+    private final List<Key> keys;
+
+    private CompiledSort(List<Key> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Compiles the given sort keys, in order of precedence.
+     *
+     * @param isSortableByNonSelfUpdates Determines the behaviour of the sort key "nonSelfUpdate".
+     */
+    public static CompiledSort compile(IReadModel model, List<SortKey> sortKeys, boolean isSortableByNonSelfUpdates) {
+        return new CompiledSort(sortKeys.stream()
+            .map(sortKey -> compileKey(model, sortKey.key, sortKey.inverted, isSortableByNonSelfUpdates))
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns a new list with the given issues, sorted stably.
+     */
+    public List<TurboIssue> sort(List<TurboIssue> issues) {
+        List<TurboIssue> issueList = new ArrayList<>(issues);
+        Column rows = extract(issueList);
+
+        int[] order = new int[issueList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        sortPositions(order, rows);
+
+        List<TurboIssue> result = new ArrayList<>(issueList.size());
+        for (int i : order) {
+            result.add(issueList.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new list with the first {@code count} issues that {@link #sort(List)} would return.
+     * Keeps only that many issues in a bounded heap, so it takes O(n log count) time.
+     */
+    public List<TurboIssue> sortFirst(List<TurboIssue> issues, int count) {
+        assert count >= 0;
+        if (count >= issues.size()) {
+            return sort(issues);
+        }
+
+        List<TurboIssue> issueList = new ArrayList<>(issues);
+        Column keys = extract(issueList);
+        // Ties are broken by position, as the stable sort does
+        Column rows = (i, j) -> {
+            int result = keys.compare(i, j);
+            return result != 0 ? result : Integer.compare(i, j);
+        };
+
+        // Max-heap of the first issues seen so far, the last of them at the root
+        int[] heap = new int[count];
+        int size = 0;
+        for (int i = 0; i < issueList.size(); i++) {
+            if (size < count) {
+                heap[size] = i;
+                siftUp(heap, size, rows);
+                size++;
+            } else if (count > 0 && rows.compare(i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(heap, size, rows);
+            }
+        }
+
+        int[] order = Arrays.copyOf(heap, size);
+        sortPositions(order, rows);
+
+        List<TurboIssue> result = new ArrayList<>(size);
+        for (int i : order) {
+            result.add(issueList.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the given positions stably by the given comparison, a merge sort over primitive positions
+     * so that nothing is boxed.
+     */
+    private static void sortPositions(int[] order, Column rows) {
+        mergeSort(order.clone(), order, 0, order.length, rows);
+    }
+
+    /**
+     * Sorts {@code to[from, until)}, using {@code scratch} (with the same contents) as working space.
+     */
+    private static void mergeSort(int[] scratch, int[] to, int from, int until, Column rows) {
+        if (until - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < until; i++) {
+                int row = to[i];
+                int j = i;
+                while (j > from && rows.compare(to[j - 1], row) > 0) {
+                    to[j] = to[j - 1];
+                    j--;
+                }
+                to[j] = row;
+            }
+            return;
+        }
+        int middle = (from + until) >>> 1;
+        // Sort each half into the scratch array, then merge them back
+        mergeSort(to, scratch, from, middle, rows);
+        mergeSort(to, scratch, middle, until, rows);
+        if (rows.compare(scratch[middle - 1], scratch[middle]) <= 0) {
+            System.arraycopy(scratch, from, to, from, until - from);
+            return;
+        }
+        int left = from;
+        int right = middle;
+        for (int i = from; i < until; i++) {
+            if (right >= until || left < middle && rows.compare(scratch[left], scratch[right]) <= 0) {
+                to[i] = scratch[left++];
+            } else {
+                to[i] = scratch[right++];
+            }
+        }
+    }
+
+    private static void siftUp(int[] heap, int last, Column rows) {
+        int row = heap[last];
+        int position = last;
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (rows.compare(heap[parent], row) >= 0) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = row;
+    }
+
+    private static void siftDown(int[] heap, int size, Column rows) {
+        int row = heap[0];
+        int position = 0;
+        while (2 * position + 1 < size) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && rows.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (rows.compare(row, heap[child]) >= 0) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = row;
+    }
+
+    /**
+     * Extracts the keys of the given issues, returning a comparison of issues by position in the list.
+     */
+    private Column extract(List<TurboIssue> issues) {
+        Column[] columns = new Column[keys.size()];
+        for (int k = 0; k < columns.length; k++) {
+            columns[k] = keys.get(k).extract(issues);
+        }
+        return (i, j) -> {
+            for (Column column : columns) {
+                int result = column.compare(i, j);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Returns a comparator for this sort order, for comparing a few issues without extracting keys up front.
+     */
+    public Comparator<TurboIssue> asComparator() {
+        return (a, b) -> {
+            for (Key key : keys) {
+                int result = key.compare(a, b);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    private static Key compileKey(IReadModel model, String key, boolean inverted, boolean isSortableByNonSelfUpdates) {
+        switch (Qualifier.expandKeywordAliases(key)) {
+        case "comments":
+            return new LongKey(TurboIssue::getCommentCount, inverted);
+        case "repo":
+            return new ObjectKey<>(TurboIssue::getRepoId, Comparator.naturalOrder(), inverted);
+        case "updated":
+        case "date":
+            return new ObjectKey<>(TurboIssue::getUpdatedAt, Comparator.naturalOrder(), inverted);
+        case "nonSelfUpdate":
+            if (isSortableByNonSelfUpdates) {
+                return new ObjectKey<>(issue -> issue.getMetadata().getNonSelfUpdatedAt(),
+                                       Comparator.<LocalDateTime>naturalOrder(), inverted);
+            } else {
+                return new ObjectKey<>(TurboIssue::getUpdatedAt, Comparator.naturalOrder(), inverted);
+            }
+        case "assignee":
+        case "as":
+            // Unassigned issues go last
+            return new ObjectKey<>(issue -> issue.getAssignee().orElse(null),
+                                   Comparator.nullsLast(Comparator.<String>naturalOrder()), inverted);
+        case "milestone":
+        case "m":
+            return new LongKey(issue -> milestoneKey(model.getMilestoneOfIssue(issue)), inverted);
+        case "id":
+            return new LongKey(TurboIssue::getId, inverted);
+        case "state":
+        case "status":
+        case "s":
+            // Open issues go first
+            return new LongKey(issue -> issue.isOpen() ? 0 : 1, inverted);
+        default:
+            // Doesn't match anything; assume it's a label group
+            return labelGroupKey(model, key, inverted);
+        }
+    }
+
+    /**
+     * Issues go in descending order of milestone due date, followed by those with milestones without due
+     * dates, followed by those without milestones.
+     */
+    private static long milestoneKey(Optional<TurboMilestone> milestone) {
+        if (!milestone.isPresent()) {
+            return Long.MAX_VALUE;
+        }
+        Optional<LocalDate> dueDate = milestone.get().getDueDate();
+        if (!dueDate.isPresent()) {
+            return Long.MAX_VALUE - 1;
+        }
+        return -dueDate.get().toEpochDay();
+    }
+
+    /**
+     * Issues are compared by the names of their labels in the group, sorted: first by number of labels,
+     * then lexicographically. Issues without labels in the group go last, whether or not the key is inverted.
+     */
+    private static Key labelGroupKey(IReadModel model, String key, boolean inverted) {
+        // Strip trailing ., if any
+        final String group = key.replaceAll("\\.$", "");
+
+        Function<TurboIssue, String[]> labelNames = issue -> model.getLabelsOfIssue(issue,
+                label -> label.getGroup().isPresent() && label.getGroup().get().equals(group)).stream()
+            .map(TurboLabel::getName)
+            .sorted()
+            .toArray(String[]::new);
+
+        Comparator<String[]> comparator = (a, b) -> {
+            // Put empty lists at the back
+            if (a.length == 0 && b.length == 0) {
+                return 0;
+            } else if (a.length == 0) {
+                return 1;
+            } else if (b.length == 0) {
+                return -1;
+            }
+
+            // Compare lengths
+            int result = !inverted ? a.length - b.length : b.length - a.length;
+            if (result != 0) {
+                return result;
+            }
+
+            // Lexicographic label comparison
+            for (int i = 0; i < a.length; i++) {
+                result = !inverted ? a[i].compareTo(b[i]) : b[i].compareTo(a[i]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+
+        // Has a different notion of inversion, so the comparator itself handles it
+        return new ObjectKey<>(labelNames, comparator, false);
+    }
+
+    /**
+     * The extracted keys of an array of issues under a sort key, compared by position in the array.
+     */
+    private interface Column {
+        int compare(int i, int j);
+    }
+
+    /**
+     * A compiled sort key.
+     */
+    private interface Key {
+        int compare(TurboIssue a, TurboIssue b);
+
+        Column extract(List<TurboIssue> issues);
+    }
+
+    private static final class LongKey implements Key {
+        private final ToLongFunction<TurboIssue> keyOf;
+        private final boolean inverted;
+
+        LongKey(ToLongFunction<TurboIssue> keyOf, boolean inverted) {
+            this.keyOf = keyOf;
+            this.inverted = inverted;
+        }
+
+        @Override
+        public int compare(TurboIssue a, TurboIssue b) {
+            int result = Long.compare(keyOf.applyAsLong(a), keyOf.applyAsLong(b));
+            return inverted ? -result : result;
+        }
+
+        @Override
+        public Column extract(List<TurboIssue> issues) {
+            long[] keys = new long[issues.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = keyOf.applyAsLong(issues.get(i));
+            }
+            return inverted
+                ? (i, j) -> Long.compare(keys[j], keys[i])
+                : (i, j) -> Long.compare(keys[i], keys[j]);
+        }
+    }
+
+    private static final class ObjectKey<K> implements Key {
+        private final Function<TurboIssue, K> keyOf;
+        private final Comparator<K> comparator;
+
+        ObjectKey(Function<TurboIssue, K> keyOf, Comparator<K> comparator, boolean inverted) {
+            this.keyOf = keyOf;
+            this.comparator = inverted ? comparator.reversed() : comparator;
+        }
+
+        @Override
+        public int compare(TurboIssue a, TurboIssue b) {
+            return comparator.compare(keyOf.apply(a), keyOf.apply(b));
+        }
+
+        @Override
+        public Column extract(List<TurboIssue> issues) {
+            List<K> keys = new ArrayList<>(issues.size());
+            for (TurboIssue issue : issues) {
+                keys.add(keyOf.apply(issue));
+            }
+            return (i, j) -> comparator.compare(keys.get(i), keys.get(j));
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package filter.expression;
 
-import backend.interfaces.IModel;
+import backend.interfaces.IReadModel;
+import backend.resource.IssueIndex;
 import backend.resource.TurboIssue;
 import filter.MetaQualifierInfo;
 import filter.QualifierApplicationException;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.function.Function;
@@ -51,11 +53,35 @@ public class Conjunction implements FilterExpression {
     }
 
     @Override
-    public boolean isSatisfiedBy(IModel model, TurboIssue issue, MetaQualifierInfo info) {
+    public boolean isSatisfiedBy(IReadModel model, TurboIssue issue, MetaQualifierInfo info) {
         return left.isSatisfiedBy(model, issue, info)
                 && right.isSatisfiedBy(model, issue, info);
     }
 
+    /**
+     * The right operand only considers the issues which satisfy the left.
+     */
+    @Override
+    public BitSet getMatchingIssues(IReadModel model, IssueIndex index, BitSet candidates, MetaQualifierInfo info,
+                                    SharedEvaluation shared) {
+        BitSet leftMatches = left.getMatchingIssues(model, index, candidates, info, shared);
+        return right.getMatchingIssues(model, index, leftMatches, info, shared);
+    }
+
+    @Override
+    public List<FilterExpression> getConjuncts() {
+        List<FilterExpression> conjuncts = new ArrayList<>(left.getConjuncts());
+        conjuncts.addAll(right.getConjuncts());
+        return conjuncts;
+    }
+
+    @Override
+    public FilterExpression plan(FilterPlanner planner) {
+        return planner.planConjunction(getConjuncts().stream()
+            .map(conjunct -> conjunct.plan(planner))
+            .collect(Collectors.toList()));
+    }
+
     private boolean containsDuplicateQualifierTypes() {
         List<QualifierType> nonLabelQualifierTypes = getQualifierTypes().stream()
             .filter(pn -> !pn.equals(QualifierType.LABEL))
@@ -72,7 +98,7 @@ public class Conjunction implements FilterExpression {
     }
 
     @Override
-    public void applyTo(TurboIssue issue, IModel model) throws QualifierApplicationException {
+    public void applyTo(TurboIssue issue, IReadModel model) throws QualifierApplicationException {
         left.applyTo(issue, model);
         right.applyTo(issue, model);
     }
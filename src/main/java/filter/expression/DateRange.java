@@ -40,6 +40,24 @@ public class DateRange {
         }
     }
 
+    /**
+     * As {@link #encloses(LocalDate)}, for a date given as a count of days from the epoch.
+     */
+    public boolean enclosesEpochDay(long day) {
+        if (start == null) {
+            long endDay = end.toEpochDay();
+            return day < endDay || !strictly && day == endDay;
+        } else if (end == null) {
+            long startDay = start.toEpochDay();
+            return day > startDay || !strictly && day == startDay;
+        } else {
+            long startDay = start.toEpochDay();
+            long endDay = end.toEpochDay();
+            return day > startDay && day < endDay
+                    || !strictly && (day == startDay || day == endDay);
+        }
+    }
+
     /**
      * A valid interval has either a start and end, or both.
      */
@@ -1,14 +1,17 @@
 package filter.expression;
 
-import backend.interfaces.IModel;
+import backend.interfaces.IReadModel;
+import backend.resource.IssueIndex;
 import backend.resource.TurboIssue;
 import filter.MetaQualifierInfo;
 import filter.QualifierApplicationException;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class Disjunction implements FilterExpression {
 
@@ -48,18 +51,45 @@ public class Disjunction implements FilterExpression {
     }
 
     @Override
-    public boolean isSatisfiedBy(IModel model, TurboIssue issue, MetaQualifierInfo info) {
+    public boolean isSatisfiedBy(IReadModel model, TurboIssue issue, MetaQualifierInfo info) {
         return left.isSatisfiedBy(model, issue, info)
                 || right.isSatisfiedBy(model, issue, info);
     }
 
+    /**
+     * The right operand only considers the issues which do not already satisfy the left.
+     */
+    @Override
+    public BitSet getMatchingIssues(IReadModel model, IssueIndex index, BitSet candidates, MetaQualifierInfo info,
+                                    SharedEvaluation shared) {
+        BitSet result = left.getMatchingIssues(model, index, candidates, info, shared);
+        BitSet remaining = (BitSet) candidates.clone();
+        remaining.andNot(result);
+        result.or(right.getMatchingIssues(model, index, remaining, info, shared));
+        return result;
+    }
+
+    @Override
+    public List<FilterExpression> getDisjuncts() {
+        List<FilterExpression> disjuncts = new ArrayList<>(left.getDisjuncts());
+        disjuncts.addAll(right.getDisjuncts());
+        return disjuncts;
+    }
+
+    @Override
+    public FilterExpression plan(FilterPlanner planner) {
+        return planner.planDisjunction(getDisjuncts().stream()
+            .map(disjunct -> disjunct.plan(planner))
+            .collect(Collectors.toList()));
+    }
+
     @Override
     public boolean canBeAppliedToIssue() {
         return false;
     }
 
     @Override
-    public void applyTo(TurboIssue issue, IModel model) throws QualifierApplicationException {
+    public void applyTo(TurboIssue issue, IReadModel model) throws QualifierApplicationException {
         assert false;
     }
 
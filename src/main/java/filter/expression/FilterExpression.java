@@ -1,10 +1,13 @@
 package filter.expression;
 
-import backend.interfaces.IModel;
+import backend.interfaces.IReadModel;
+import backend.resource.IssueIndex;
 import backend.resource.TurboIssue;
 import filter.MetaQualifierInfo;
 import filter.QualifierApplicationException;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -14,7 +17,44 @@ public interface FilterExpression {
     // Determines if an issue satisfies this filter expression.
     // If so, it is shown in the issue panel.
 
-    boolean isSatisfiedBy(IModel model, TurboIssue issue, MetaQualifierInfo info);
+    boolean isSatisfiedBy(IReadModel model, TurboIssue issue, MetaQualifierInfo info);
+
+    // Determines which of the candidate issues of a single repository satisfy this
+    // filter expression. Issues are identified by their ordinals in the repository's
+    // index. The result is a new subset of the candidates; the candidates are not modified.
+    // The shared evaluation holds state which other expressions evaluated with it may reuse.
+    // By default each candidate is tested individually; subtrees which can be answered
+    // from the index should override this.
+
+    default BitSet getMatchingIssues(IReadModel model, IssueIndex index, BitSet candidates, MetaQualifierInfo info,
+                                     SharedEvaluation shared) {
+        BitSet result = new BitSet();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (isSatisfiedBy(model, index.getIssue(i), info)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    // Flattens nested conjunctions, returning the operands which must all be satisfied,
+    // in evaluation order. Any other expression is its own only conjunct.
+
+    default List<FilterExpression> getConjuncts() {
+        return Collections.singletonList(this);
+    }
+
+    // Flattens nested disjunctions, returning the operands of which any must be satisfied,
+    // in evaluation order. Any other expression is its own only disjunct.
+
+    default List<FilterExpression> getDisjuncts() {
+        return Collections.singletonList(this);
+    }
+
+    // Returns an equivalent expression with the operands of conjunctions and disjunctions
+    // reordered by the given planner, so that cheap and selective operands are evaluated first.
+
+    FilterExpression plan(FilterPlanner planner);
 
     // Filter expressions may only be applied if they contain no ambiguity
     // => they must contain only qualifiers or conjunctions thereof. Disjunctions
@@ -26,7 +66,7 @@ public interface FilterExpression {
     // an issue. This should be invoked for disjunctions and negations
     // (i.e. call the above method to check first).
 
-    void applyTo(TurboIssue issue, IModel model) throws QualifierApplicationException;
+    void applyTo(TurboIssue issue, IReadModel model) throws QualifierApplicationException;
 
     // Walks the syntax tree to get all the qualifier types that appear.
 
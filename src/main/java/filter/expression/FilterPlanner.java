@@ -0,0 +1,222 @@
+package filter.expression;
+
+import backend.interfaces.IReadModel;
+import backend.resource.IssueIndex;
+import filter.MetaQualifierInfo;
+import filter.SemanticException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Orders the operands of conjunctions and disjunctions so that evaluation short-circuits early.
+ *
+ * Each expression is estimated by the cost of testing an issue against it, and its selectivity:
+ * the fraction of issues which satisfy it. The cost of a qualifier depends only on its type, e.g.
+ * index lookups are cheap and text searches are expensive. Selectivities of qualifiers answered by
+ * the issue index (labels, milestones, users, state and type) are measured against the indexes of the repos
+ * the expression is evaluated against, taken together; others are fixed guesses.
+ *
+ * The operands of a conjunction are then evaluated in ascending order of cost / (1 - selectivity),
+ * i.e. cheap operands which rule out many issues first, which minimises the expected cost of testing
+ * an issue. Disjunctions are ordered by cost / selectivity likewise. Operands with equal ranks keep
+ * their order.
+ *
+ * Planning only reorders operands, so a planned expression is satisfied by the same issues.
+ */
+public class FilterPlanner {
+
+    private static final double DEFAULT_SELECTIVITY = 0.5;
+    private static final double TEXT_SELECTIVITY = 0.1;
+
+    private final IReadModel model;
+    private final MetaQualifierInfo info;
+    private final List<IssueIndex> statistics;
+
+    // Selectivities are measured apart from any evaluation of filters
+    private final SharedEvaluation measurement = new SharedEvaluation(Collections.emptyList());
+
+    // Estimates of the expressions returned by this planner
+    private final Map<FilterExpression, Estimate> estimates = new IdentityHashMap<>();
+
+    /**
+     * Creates a planner for expressions evaluated against the default repo.
+     */
+    public FilterPlanner(IReadModel model, MetaQualifierInfo info) {
+        this(model, info, Collections.singletonList(model.getDefaultRepo()));
+    }
+
+    /**
+     * Creates a planner for expressions evaluated against the given repos. Those which are not open
+     * are left out of measurements.
+     */
+    public FilterPlanner(IReadModel model, MetaQualifierInfo info, Collection<String> repoIds) {
+        this.model = model;
+        this.info = info;
+        this.statistics = repoIds.stream()
+            .distinct()
+            .map(model::getModelById)
+            .filter(Optional::isPresent)
+            .map(repoModel -> repoModel.get().getIssueIndex())
+            .filter(index -> index.size() > 0)
+            .collect(Collectors.toList());
+    }
+
+    public FilterExpression plan(FilterExpression expr) {
+        return expr.plan(this);
+    }
+
+    /**
+     * Returns the estimated cost of testing an issue against a planned expression, in units of index lookups.
+     */
+    public double getCost(FilterExpression planned) {
+        return estimateOf(planned).cost;
+    }
+
+    /**
+     * Returns the estimated fraction of issues which satisfy a planned expression.
+     */
+    public double getSelectivity(FilterExpression planned) {
+        return estimateOf(planned).selectivity;
+    }
+
+    private Estimate estimateOf(FilterExpression planned) {
+        return estimates.getOrDefault(planned, new Estimate(1, DEFAULT_SELECTIVITY));
+    }
+
+    FilterExpression planQualifier(Qualifier qualifier) {
+        estimates.put(qualifier, new Estimate(costOf(qualifier.getType()), selectivityOf(qualifier)));
+        return qualifier;
+    }
+
+    FilterExpression planNegation(FilterExpression plannedOperand) {
+        Estimate operand = estimateOf(plannedOperand);
+        FilterExpression result = new Negation(plannedOperand);
+        estimates.put(result, new Estimate(operand.cost, 1 - operand.selectivity));
+        return result;
+    }
+
+    FilterExpression planConjunction(List<FilterExpression> plannedOperands) {
+        List<FilterExpression> operands = new ArrayList<>(plannedOperands);
+        operands.sort(Comparator.comparingDouble(operand ->
+            rank(getCost(operand), 1 - getSelectivity(operand))));
+
+        FilterExpression result = operands.get(0);
+        double cost = getCost(result);
+        double selectivity = getSelectivity(result);
+        for (FilterExpression operand : operands.subList(1, operands.size())) {
+            // Only issues satisfying the previous operands are tested
+            cost += selectivity * getCost(operand);
+            selectivity *= getSelectivity(operand);
+            result = new Conjunction(result, operand);
+        }
+        estimates.put(result, new Estimate(cost, selectivity));
+        return result;
+    }
+
+    FilterExpression planDisjunction(List<FilterExpression> plannedOperands) {
+        List<FilterExpression> operands = new ArrayList<>(plannedOperands);
+        operands.sort(Comparator.comparingDouble(operand -> rank(getCost(operand), getSelectivity(operand))));
+
+        FilterExpression result = operands.get(0);
+        double cost = getCost(result);
+        double rejected = 1 - getSelectivity(result);
+        for (FilterExpression operand : operands.subList(1, operands.size())) {
+            // Only issues satisfying none of the previous operands are tested
+            cost += rejected * getCost(operand);
+            rejected *= 1 - getSelectivity(operand);
+            result = new Disjunction(result, operand);
+        }
+        estimates.put(result, new Estimate(cost, 1 - rejected));
+        return result;
+    }
+
+    /**
+     * The expected cost of deciding an issue per issue decided by an operand, given the fraction
+     * of issues for which it short-circuits the rest.
+     */
+    private static double rank(double cost, double shortCircuited) {
+        return shortCircuited <= 0 ? Double.POSITIVE_INFINITY : cost / shortCircuited;
+    }
+
+    private static double costOf(QualifierType type) {
+        switch (type) {
+        case EMPTY:
+        case FALSE:
+            return 0;
+        case KEYWORD:
+        case DESCRIPTION:
+            // Scans titles and descriptions
+            return 20;
+        case TITLE:
+            return 5;
+        case LABEL:
+        case MILESTONE:
+        case ASSIGNEE:
+        case INVOLVES:
+        case CREATED:
+        case UPDATED:
+            // Resolve resources through the model, or compare dates
+            return 2;
+        default:
+            return 1;
+        }
+    }
+
+    private double selectivityOf(Qualifier qualifier) {
+        if (qualifier.isEmpty()) {
+            return 1;
+        } else if (qualifier.isFalse()) {
+            return 0;
+        }
+
+        switch (qualifier.getType()) {
+        case LABEL:
+        case MILESTONE:
+        case ASSIGNEE:
+        case AUTHOR:
+        case INVOLVES:
+        case STATE:
+        case TYPE:
+            return statistics.isEmpty() ? DEFAULT_SELECTIVITY : measure(qualifier);
+        case KEYWORD:
+        case TITLE:
+        case DESCRIPTION:
+            return TEXT_SELECTIVITY;
+        default:
+            return DEFAULT_SELECTIVITY;
+        }
+    }
+
+    private double measure(Qualifier qualifier) {
+        try {
+            long matching = 0;
+            long total = 0;
+            for (IssueIndex index : statistics) {
+                matching += qualifier.getMatchingIssues(model, index, index.all(), info, measurement).cardinality();
+                total += index.size();
+            }
+            return (double) matching / total;
+        } catch (SemanticException e) {
+            // Reported when the filter is evaluated
+            return DEFAULT_SELECTIVITY;
+        }
+    }
+
+    private static final class Estimate {
+        private final double cost;
+        private final double selectivity;
+
+        Estimate(double cost, double selectivity) {
+            this.cost = cost;
+            this.selectivity = selectivity;
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package filter.expression;
 
-import backend.interfaces.IModel;
+import backend.interfaces.IReadModel;
+import backend.resource.IssueIndex;
 import backend.resource.TurboIssue;
 import filter.MetaQualifierInfo;
 import filter.QualifierApplicationException;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -41,17 +43,30 @@ public class Negation implements FilterExpression {
     }
 
     @Override
-    public boolean isSatisfiedBy(IModel model, TurboIssue issue, MetaQualifierInfo info) {
+    public boolean isSatisfiedBy(IReadModel model, TurboIssue issue, MetaQualifierInfo info) {
         return !expr.isSatisfiedBy(model, issue, info);
     }
 
+    @Override
+    public BitSet getMatchingIssues(IReadModel model, IssueIndex index, BitSet candidates, MetaQualifierInfo info,
+                                    SharedEvaluation shared) {
+        BitSet result = (BitSet) candidates.clone();
+        result.andNot(expr.getMatchingIssues(model, index, candidates, info, shared));
+        return result;
+    }
+
+    @Override
+    public FilterExpression plan(FilterPlanner planner) {
+        return planner.planNegation(expr.plan(planner));
+    }
+
     @Override
     public boolean canBeAppliedToIssue() {
         return false;
     }
 
     @Override
-    public void applyTo(TurboIssue issue, IModel model) throws QualifierApplicationException {
+    public void applyTo(TurboIssue issue, IReadModel model) throws QualifierApplicationException {
         assert false;
     }
 
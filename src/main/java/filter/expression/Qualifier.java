@@ -14,7 +14,7 @@ import java.util.stream.IntStream;
 import backend.resource.*;
 import filter.ParseException;
 import util.Utility;
-import backend.interfaces.IModel;
+import backend.interfaces.IReadModel;
 import filter.MetaQualifierInfo;
 import filter.QualifierApplicationException;
 import filter.SemanticException;
@@ -30,6 +30,7 @@ public class Qualifier implements FilterExpression {
     // Only one of these will be present at a time
     private Optional<DateRange> dateRange = Optional.empty();
     private Optional<String> content = Optional.empty();
+    private Optional<String> lowerCaseContent = Optional.empty();
     private Optional<LocalDate> date = Optional.empty();
     private Optional<NumberRange> numberRange = Optional.empty();
     private Optional<Integer> number = Optional.empty();
@@ -44,6 +45,7 @@ public class Qualifier implements FilterExpression {
             this.date = other.getDate();
         } else if (other.getContent().isPresent()) {
             this.content = other.getContent();
+            this.lowerCaseContent = other.lowerCaseContent;
         } else if (other.getNumberRange().isPresent()) {
             this.numberRange = other.getNumberRange();
         } else if (other.getNumber().isPresent()) {
@@ -58,6 +60,7 @@ public class Qualifier implements FilterExpression {
     public Qualifier(QualifierType type, String content) {
         this.type = type;
         this.content = Optional.of(content);
+        this.lowerCaseContent = Optional.of(content.toLowerCase());
     }
 
     public Qualifier(QualifierType type, NumberRange numberRange) {
@@ -85,7 +88,7 @@ public class Qualifier implements FilterExpression {
         this.sortKeys = new ArrayList<>(keys);
     }
 
-    public static FilterExpression replaceMilestoneAliases(IModel model, FilterExpression expr) {
+    public static FilterExpression replaceMilestoneAliases(IReadModel model, FilterExpression expr) {
         List<String> repoIds = getMetaQualifierContent(expr, QualifierType.REPO).stream()
                 .map(String::toLowerCase)
                 .collect(Collectors.toList());
@@ -175,23 +178,8 @@ public class Qualifier implements FilterExpression {
      * Ensures that meta-qualifiers are taken care of.
      * Should always be used over isSatisfiedBy.
      */
-    public static boolean process(IModel model, FilterExpression expr, TurboIssue issue) {
-        FilterExpression exprWithNormalQualifiers = expr.filter(Qualifier::shouldNotBeStripped);
-        List<Qualifier> metaQualifiers = expr.find(Qualifier::isMetaQualifier);
-
-        // Preprocessing for repo qualifier
-        boolean containsRepoQualifier = metaQualifiers.stream()
-                .map(Qualifier::getType)
-                .collect(Collectors.toList())
-                .contains(QualifierType.REPO);
-
-        if (!containsRepoQualifier) {
-            exprWithNormalQualifiers = new Conjunction(
-                new Qualifier(QualifierType.REPO, model.getDefaultRepo()),
-                exprWithNormalQualifiers);
-        }
-
-        return exprWithNormalQualifiers.isSatisfiedBy(model, issue, new MetaQualifierInfo(metaQualifiers));
+    public static boolean process(IReadModel model, FilterExpression expr, TurboIssue issue) {
+        return new CompiledFilter(model, expr, expr).isSatisfiedBy(issue);
     }
 
     /**
@@ -333,7 +321,7 @@ public class Qualifier implements FilterExpression {
     }
 
     @Override
-    public boolean isSatisfiedBy(IModel model, TurboIssue issue, MetaQualifierInfo info) {
+    public boolean isSatisfiedBy(IReadModel model, TurboIssue issue, MetaQualifierInfo info) {
         assert type != null;
 
         // The empty qualifier is satisfied by anything
@@ -383,8 +371,81 @@ public class Qualifier implements FilterExpression {
         }
     }
 
+    /**
+     * Qualifiers over indexed attributes (labels, assignees, authors, milestones, state and repo)
+     * are answered from the posting lists of the index, and text qualifiers from its trigram index;
+     * the rest are tested issue by issue.
+     */
     @Override
-    public void applyTo(TurboIssue issue, IModel model) throws QualifierApplicationException {
+    public BitSet getMatchingIssues(IReadModel model, IssueIndex index, BitSet candidates, MetaQualifierInfo info,
+                                    SharedEvaluation shared) {
+        assert type != null;
+
+        // Nothing to test, so no qualifier can fail (or throw) here
+        if (candidates.isEmpty()) return new BitSet();
+
+        // The empty qualifier is satisfied by anything
+        if (isEmpty()) return (BitSet) candidates.clone();
+
+        // The false qualifier is satisfied by nothing
+        if (isFalse()) return new BitSet();
+
+        BitSet result;
+        switch (type) {
+        case LABEL:
+            result = labelMatchingIssues(index);
+            break;
+        case AUTHOR:
+            result = authorMatchingIssues(index);
+            break;
+        case ASSIGNEE:
+            result = assigneeMatchingIssues(index);
+            break;
+        case INVOLVES:
+            result = authorMatchingIssues(index);
+            result.or(assigneeMatchingIssues(index));
+            break;
+        case MILESTONE:
+            result = milestoneMatchingIssues(index);
+            break;
+        case STATE:
+            result = stateMatchingIssues(index);
+            break;
+        case ID:
+            result = idMatchingIssues(index, candidates);
+            break;
+        case TYPE:
+            result = typeMatchingIssues(index);
+            break;
+        case CREATED:
+            result = createdMatchingIssues(index, candidates);
+            break;
+        case REPO:
+            result = repoMatchingIssues(index);
+            break;
+        case KEYWORD:
+            result = keywordMatchingIssues(index, candidates, info, shared);
+            break;
+        case TITLE:
+            result = titleMatchingIssues(index, candidates);
+            break;
+        case DESCRIPTION:
+            result = bodyMatchingIssues(index, candidates, shared);
+            break;
+        default:
+            return FilterExpression.super.getMatchingIssues(model, index, candidates, info, shared);
+        }
+        result.and(candidates);
+        return result;
+    }
+
+    @Override
+    public FilterExpression plan(FilterPlanner planner) {
+        return planner.planQualifier(this);
+    }
+
+    @Override
+    public void applyTo(TurboIssue issue, IReadModel model) throws QualifierApplicationException {
         assert type != null && content != null;
 
         // The empty qualifier should not be applied to anything
@@ -536,7 +597,7 @@ public class Qualifier implements FilterExpression {
                 type.equals(other.type);
     }
 
-    private static boolean shouldNotBeStripped(Qualifier q) {
+    static boolean shouldNotBeStripped(Qualifier q) {
         return !shouldBeStripped(q);
     }
 
@@ -581,176 +642,38 @@ public class Qualifier implements FilterExpression {
         }
     }
 
+    /**
+     * Returns true for is:read and is:unread, which depend on state kept on issues outside the model.
+     */
+    public static boolean isReadStateQualifier(Qualifier q) {
+        if (q.getType() != QualifierType.IS || !q.getContent().isPresent()) {
+            return false;
+        }
+        String content = expandKeywordAliases(q.getContent().get());
+        return content.equals("read") || content.equals("unread");
+    }
+
     public static boolean hasUpdatedQualifier(FilterExpression expr) {
         return !expr.find(Qualifier::isUpdatedQualifier).isEmpty();
     }
 
-    public Comparator<TurboIssue> getCompoundSortComparator(IModel model, boolean isSortableByNonSelfUpdates) {
-        if (sortKeys.isEmpty()) {
-            return (a, b) -> 0;
-        }
-        return (a, b) -> {
-            for (SortKey key : sortKeys) {
-                Comparator<TurboIssue> comparator =
-                        getSortComparator(model, key.key, key.inverted, isSortableByNonSelfUpdates);
-                int result = comparator.compare(a, b);
-                if (result != 0) {
-                    return result;
-                }
-            }
-            return 0;
-        };
+    /**
+     * Compiles the sort keys of this qualifier into a sort order.
+     */
+    public CompiledSort compileSort(IReadModel model, boolean isSortableByNonSelfUpdates) {
+        return CompiledSort.compile(model, sortKeys, isSortableByNonSelfUpdates);
+    }
+
+    public Comparator<TurboIssue> getCompoundSortComparator(IReadModel model, boolean isSortableByNonSelfUpdates) {
+        return compileSort(model, isSortableByNonSelfUpdates).asComparator();
     }
 
-    public static Comparator<TurboIssue> getSortComparator(IModel model,
+    public static Comparator<TurboIssue> getSortComparator(IReadModel model,
                                                            String key,
                                                            boolean inverted,
                                                            boolean isSortableByNonSelfUpdates) {
-        Comparator<TurboIssue> comparator = (a, b) -> 0;
-
-        boolean isLabelGroup = false;
-
-        switch (expandKeywordAliases(key)) {
-        case "comments":
-            comparator = (a, b) -> a.getCommentCount() - b.getCommentCount();
-            break;
-        case "repo":
-            comparator = (a, b) -> a.getRepoId().compareTo(b.getRepoId());
-            break;
-        case "updated":
-        case "date":
-            comparator = (a, b) -> a.getUpdatedAt().compareTo(b.getUpdatedAt());
-            break;
-        case "nonSelfUpdate":
-            if (isSortableByNonSelfUpdates) {
-                comparator = (a, b) ->
-                    a.getMetadata().getNonSelfUpdatedAt().compareTo(b.getMetadata().getNonSelfUpdatedAt());
-            } else {
-                comparator = (a, b) -> a.getUpdatedAt().compareTo(b.getUpdatedAt());
-            }
-            break;
-        case "assignee":
-        case "as":
-            comparator = (a, b) -> {
-                Optional<String> aAssignee = a.getAssignee();
-                Optional<String> bAssignee = b.getAssignee();
-
-                if (!aAssignee.isPresent() && !bAssignee.isPresent()) {
-                    return 0;
-                } else if (!aAssignee.isPresent()) {
-                    return 1;
-                } else if (!bAssignee.isPresent()) {
-                    return -1;
-                } else {
-                    return aAssignee.get().compareTo(bAssignee.get());
-                }
-            };
-            break;
-        case "milestone":
-        case "m":
-            comparator = (a, b) -> {
-                Optional<TurboMilestone> aMilestone = model.getMilestoneOfIssue(a);
-                Optional<TurboMilestone> bMilestone = model.getMilestoneOfIssue(b);
-
-                if (!aMilestone.isPresent() && !bMilestone.isPresent()) {
-                    return 0;
-                } else if (!aMilestone.isPresent()) {
-                    return 1;
-                } else if (!bMilestone.isPresent()) {
-                    return -1;
-                } else {
-                    Optional<LocalDate> aDueDate = aMilestone.get().getDueDate();
-                    Optional<LocalDate> bDueDate = bMilestone.get().getDueDate();
-
-                    if (!aDueDate.isPresent() && !bDueDate.isPresent()) {
-                        return 0;
-                    } else if (!aDueDate.isPresent()) {
-                        return 1;
-                    } else if (!bDueDate.isPresent()) {
-                        return -1;
-                    } else {
-                        return -(TurboMilestone.getDueDateComparator()
-                            .compare(aMilestone.get(), bMilestone.get()));
-                    }
-                }
-            };
-            break;
-        case "id":
-            comparator = (a, b) -> a.getId() - b.getId();
-            break;
-        case "state":
-        case "status":
-        case "s":
-            comparator = (a, b) -> Boolean.compare(b.isOpen(), a.isOpen());
-            break;
-        default:
-            // Doesn't match anything; assume it's a label group
-            isLabelGroup = true;
-            break;
-        }
-
-        if (isLabelGroup) {
-            // Has a different notion of inversion
-            return getLabelGroupComparator(model, key, inverted);
-        } else {
-            // Use default behaviour for inverting
-            if (!inverted) {
-                return comparator;
-            } else {
-                final Comparator<TurboIssue> finalComparator = comparator;
-                return (a, b) -> -finalComparator.compare(a, b);
-            }
-        }
-    }
-
-    public static Comparator<TurboIssue> getLabelGroupComparator(IModel model, String key, boolean inverted) {
-        // Strip trailing ., if any
-        final String group = key.replaceAll("\\.$", "");
-        return (a, b) -> {
-
-            // Matches labels belong to the given group
-            Predicate<TurboLabel> sameGroup = l ->
-                l.getGroup().isPresent() && l.getGroup().get().equals(group);
-
-            Comparator<TurboLabel> labelComparator = (x, y) -> x.getName().compareTo(y.getName());
-
-            List<TurboLabel> aLabels = model.getLabelsOfIssue(a, sameGroup);
-            List<TurboLabel> bLabels = model.getLabelsOfIssue(b, sameGroup);
-            Collections.sort(aLabels, labelComparator);
-            Collections.sort(bLabels, labelComparator);
-
-            // Put empty lists at the back
-            if (aLabels.isEmpty() && bLabels.isEmpty()) {
-                return 0;
-            } else if (aLabels.isEmpty()) {
-                // a is larger
-                return 1;
-            } else if (bLabels.isEmpty()) {
-                // b is larger
-                return -1;
-            }
-
-            // Compare lengths
-            int result = !inverted
-                ? aLabels.size() - bLabels.size()
-                : bLabels.size() - aLabels.size();
-
-            if (result != 0) {
-                return result;
-            }
-
-            // Lexicographic label comparison
-            assert aLabels.size() == bLabels.size();
-            for (int i = 0; i < aLabels.size(); i++) {
-                result = !inverted
-                    ? labelComparator.compare(aLabels.get(i), bLabels.get(i))
-                    : labelComparator.compare(bLabels.get(i), aLabels.get(i));
-                if (result != 0) {
-                    return result;
-                }
-            }
-            return 0;
-        };
+        return CompiledSort.compile(model, Collections.singletonList(new SortKey(key, inverted)),
+                                    isSortableByNonSelfUpdates).asComparator();
     }
 
     private boolean idSatisfies(TurboIssue issue) {
@@ -762,6 +685,16 @@ public class Qualifier implements FilterExpression {
         throw new SemanticException(type);
     }
 
+    private BitSet idMatchingIssues(IssueIndex index, BitSet candidates) {
+        if (number.isPresent()) {
+            int id = number.get();
+            return index.withIds(candidates, candidate -> candidate == id);
+        } else if (numberRange.isPresent()) {
+            return index.withIds(candidates, numberRange.get()::encloses);
+        }
+        throw new SemanticException(type);
+    }
+
     private boolean satisfiesUpdatedHours(TurboIssue issue) {
         NumberRange updatedRange;
 
@@ -778,6 +711,12 @@ public class Qualifier implements FilterExpression {
         return updatedRange.encloses(hoursSinceUpdate);
     }
 
+    private BitSet repoMatchingIssues(IssueIndex index) {
+        if (!content.isPresent()) throw new SemanticException(type);
+
+        return index.getRepoId().equalsIgnoreCase(content.get()) ? index.all() : new BitSet();
+    }
+
     private boolean satisfiesRepo(TurboIssue issue) {
         if (!content.isPresent()) throw new SemanticException(type);
 
@@ -795,6 +734,17 @@ public class Qualifier implements FilterExpression {
         }
     }
 
+    private BitSet createdMatchingIssues(IssueIndex index, BitSet candidates) {
+        if (date.isPresent()) {
+            long day = date.get().toEpochDay();
+            return index.createdOn(candidates, candidate -> candidate == day);
+        } else if (dateRange.isPresent()) {
+            return index.createdOn(candidates, dateRange.get()::enclosesEpochDay);
+        } else {
+            throw new SemanticException(type);
+        }
+    }
+
     private boolean satisfiesHasConditions(TurboIssue issue) {
         if (!content.isPresent()) throw new SemanticException(type);
 
@@ -839,10 +789,23 @@ public class Qualifier implements FilterExpression {
         }
     }
 
+    private BitSet stateMatchingIssues(IssueIndex index) {
+        if (!content.isPresent()) throw new SemanticException(type);
+
+        String content = expandKeywordAliases(lowerCaseContent.get());
+        if (content.contains("open")) {
+            return index.open();
+        } else if (content.contains("closed")) {
+            return index.closed();
+        } else {
+            throw new SemanticException(type);
+        }
+    }
+
     private boolean stateSatisfies(TurboIssue issue) {
         if (!content.isPresent()) throw new SemanticException(type);
 
-        String content = expandKeywordAliases(this.content.get().toLowerCase());
+        String content = expandKeywordAliases(lowerCaseContent.get());
         if (content.contains("open")) {
             return issue.isOpen();
         } else if (content.contains("closed")) {
@@ -852,44 +815,62 @@ public class Qualifier implements FilterExpression {
         }
     }
 
-    private boolean assigneeSatisfies(IModel model, TurboIssue issue) {
+    private boolean assigneeSatisfies(IReadModel model, TurboIssue issue) {
         if (!content.isPresent()) return false;
         Optional<TurboUser> assignee = model.getAssigneeOfIssue(issue);
 
         if (!assignee.isPresent()) return false;
 
-        String content = this.content.get().toLowerCase();
-        String login = assignee.get().getLoginName() == null ? "" : assignee.get().getLoginName().toLowerCase();
-        String name = assignee.get().getRealName() == null ? "" : assignee.get().getRealName().toLowerCase();
+        return assigneeMatches(assignee.get());
+    }
+
+    private boolean assigneeMatches(TurboUser assignee) {
+        String content = lowerCaseContent.get();
+        String login = assignee.getLoginName() == null ? "" : assignee.getLoginName().toLowerCase();
+        String name = assignee.getRealName() == null ? "" : assignee.getRealName().toLowerCase();
 
         return login.contains(content) || name.contains(content);
     }
 
+    private BitSet assigneeMatchingIssues(IssueIndex index) {
+        if (!content.isPresent()) return new BitSet();
+        return index.withAssignees(this::assigneeMatches);
+    }
+
+    private BitSet authorMatchingIssues(IssueIndex index) {
+        if (!content.isPresent()) return new BitSet();
+        return index.withAuthors(creator -> creator.toLowerCase().contains(lowerCaseContent.get()));
+    }
+
     private boolean authorSatisfies(TurboIssue issue) {
         if (!content.isPresent()) return false;
 
         String creator = issue.getCreator();
 
-        return creator.toLowerCase().contains(content.get().toLowerCase());
+        return creator.toLowerCase().contains(lowerCaseContent.get());
     }
 
-    private boolean involvesSatisfies(IModel model, TurboIssue issue) {
+    private boolean involvesSatisfies(IReadModel model, TurboIssue issue) {
         return authorSatisfies(issue) || assigneeSatisfies(model, issue);
     }
 
     public static boolean labelMatches(String input, String candidate) {
+        return labelMatches(LabelName.of(input).toLowerCase(), LabelName.of(candidate).toLowerCase());
+    }
 
-        // Make use of TurboLabel constructor to parse the input, avoiding duplication
-        TurboLabel inputLabel = new TurboLabel("", input.toLowerCase());
-        TurboLabel candidateLabel = new TurboLabel("", candidate.toLowerCase());
-
-        String group = "";
-        if (inputLabel.hasGroup()) {
-            group = inputLabel.getGroup().get();
+    /**
+     * As {@link #labelMatches(String, String)}, for label names which are already parsed and lower-cased.
+     */
+    private static boolean labelMatches(LabelName inputLabel, LabelName candidateLabel) {
+        if (inputLabel == candidateLabel) { // NOPMD
+            // Label names are interned, so this is an exact match
+            return true;
         }
+
+        String group = inputLabel.getGroup().orElse("");
         String labelName = inputLabel.getName();
 
-        if (candidateLabel.hasGroup()) {
+        if (candidateLabel.getGroup().isPresent()) {
             if (labelName.isEmpty()) {
                 // Check the group
                 if (candidateLabel.getGroup().get().contains(group)) {
@@ -910,7 +891,18 @@ public class Qualifier implements FilterExpression {
         return false;
     }
 
-    private boolean labelsSatisfy(IModel model, TurboIssue issue) {
+    private BitSet labelMatchingIssues(IssueIndex index) {
+        if (!content.isPresent()) return new BitSet();
+        LabelName input = LabelName.of(lowerCaseContent.get());
+        if (input.getGroup().isPresent() && input.getName().isEmpty()) {
+            // Only the groups of labels are matched, which have their own postings
+            String group = input.getGroup().get();
+            return index.withLabelGroups(labelGroup -> labelGroup.toLowerCase().contains(group));
+        }
+        return index.withLabels(actualName -> labelMatches(input, LabelName.of(actualName).toLowerCase()));
+    }
+
+    private boolean labelsSatisfy(IReadModel model, TurboIssue issue) {
         if (!content.isPresent()) return false;
 
         // A qualifier matches an issue if the issue is associated with some subset of the
@@ -918,21 +910,27 @@ public class Qualifier implements FilterExpression {
         // does not contain any labels it expresses, and not if the issue contains some label
         // it does not express.
 
+        LabelName input = LabelName.of(lowerCaseContent.get());
         for (TurboLabel label : model.getLabelsOfIssue(issue)) {
-            if (labelMatches(content.get(), label.getActualName())) {
+            if (labelMatches(input, label.getParsedName().toLowerCase())) {
                 return true;
             }
         }
         return false;
     }
 
-    private boolean milestoneSatisfies(IModel model, TurboIssue issue) {
+    private BitSet milestoneMatchingIssues(IssueIndex index) {
+        if (!content.isPresent()) return new BitSet();
+        return index.withMilestones(milestone -> milestone.getTitle().toLowerCase().contains(lowerCaseContent.get()));
+    }
+
+    private boolean milestoneSatisfies(IReadModel model, TurboIssue issue) {
         if (!content.isPresent()) return false;
         Optional<TurboMilestone> milestone = model.getMilestoneOfIssue(issue);
 
         if (!milestone.isPresent()) return false;
 
-        String contents = content.get().toLowerCase();
+        String contents = lowerCaseContent.get();
         String title = milestone.get().getTitle().toLowerCase();
 
         return title.contains(contents);
@@ -954,20 +952,51 @@ public class Qualifier implements FilterExpression {
         }
     }
 
+    private BitSet keywordMatchingIssues(IssueIndex index, BitSet candidates, MetaQualifierInfo info,
+                                         SharedEvaluation shared) {
+        if (info.getIn().isPresent()) {
+            switch (expandKeywordAliases(info.getIn().get())) {
+            case "title":
+                return titleMatchingIssues(index, candidates);
+            case "description":
+                return bodyMatchingIssues(index, candidates, shared);
+            default:
+                throw new SemanticException(QualifierType.IN);
+            }
+        } else {
+            BitSet result = titleMatchingIssues(index, candidates);
+            BitSet remaining = (BitSet) candidates.clone();
+            remaining.andNot(result);
+            result.or(bodyMatchingIssues(index, remaining, shared));
+            return result;
+        }
+    }
+
+    private BitSet bodyMatchingIssues(IssueIndex index, BitSet candidates, SharedEvaluation shared) {
+        if (!content.isPresent()) return new BitSet();
+        TextIndex textIndex = index.getTextIndex();
+        return textIndex.withDescriptionContaining(lowerCaseContent.get(), candidates,
+            shared.getDescriptions(textIndex));
+    }
+
+    private BitSet titleMatchingIssues(IssueIndex index, BitSet candidates) {
+        if (!content.isPresent()) return new BitSet();
+        return index.getTextIndex().withTitleContaining(lowerCaseContent.get(), candidates);
+    }
+
     private boolean bodySatisfies(TurboIssue issue) {
         if (!content.isPresent()) return false;
-        return issue.getDescription().toLowerCase().contains(content.get().toLowerCase());
+        return issue.getDescription().toLowerCase().contains(lowerCaseContent.get());
     }
 
     private boolean titleSatisfies(TurboIssue issue) {
         if (!content.isPresent()) return false;
-        return issue.getTitle().toLowerCase().contains(content.get().toLowerCase());
+        return issue.getTitle().toLowerCase().contains(lowerCaseContent.get());
     }
 
     private boolean typeSatisfies(TurboIssue issue) {
         if (!content.isPresent()) throw new SemanticException(type);
-        String content = this.content.get().toLowerCase();
-        switch (expandKeywordAliases(content)) {
+        switch (expandKeywordAliases(lowerCaseContent.get())) {
             case "issue":
                 return !issue.isPullRequest();
             case "pr":
@@ -977,7 +1006,21 @@ public class Qualifier implements FilterExpression {
         }
     }
 
-    private void applyMilestone(TurboIssue issue, IModel model) throws QualifierApplicationException {
+    private BitSet typeMatchingIssues(IssueIndex index) {
+        if (!content.isPresent()) throw new SemanticException(type);
+        switch (expandKeywordAliases(lowerCaseContent.get())) {
+            case "issue":
+                BitSet issues = index.all();
+                issues.andNot(index.pullRequests());
+                return issues;
+            case "pr":
+                return index.pullRequests();
+            default:
+                throw new SemanticException(type);
+        }
+    }
+
+    private void applyMilestone(TurboIssue issue, IReadModel model) throws QualifierApplicationException {
         if (!content.isPresent()) {
             throw new QualifierApplicationException("Name of milestone to apply required");
         }
@@ -1010,7 +1053,7 @@ public class Qualifier implements FilterExpression {
             "Ambiguous filter: can apply any of the following milestones: " + milestones.toString());
     }
 
-    private void applyLabel(TurboIssue issue, IModel model) throws QualifierApplicationException {
+    private void applyLabel(TurboIssue issue, IReadModel model) throws QualifierApplicationException {
         if (!content.isPresent()) {
             throw new QualifierApplicationException("Name of label to apply required");
         }
@@ -1043,7 +1086,7 @@ public class Qualifier implements FilterExpression {
             "Ambiguous filter: can apply any of the following labels: " + labels.toString());
     }
 
-    private void applyAssignee(TurboIssue issue, IModel model) throws QualifierApplicationException {
+    private void applyAssignee(TurboIssue issue, IReadModel model) throws QualifierApplicationException {
         if (!content.isPresent()) {
             throw new QualifierApplicationException("Name of assignee to apply required");
         }
@@ -1157,17 +1200,24 @@ public class Qualifier implements FilterExpression {
      * @return The valid count value in the qualifier or the issueList.size() by default
      */
     public static int determineCount(List<TurboIssue> issueList, FilterExpression filterExpr) {
+        return determineCount(filterExpr).orElse(issueList.size());
+    }
+
+    /**
+     * Returns the number of issues the given filter expression should show, or nothing if it has no count qualifier.
+     */
+    public static Optional<Integer> determineCount(FilterExpression filterExpr) {
         List<Qualifier> countQualifiers = filterExpr.find(Qualifier::isMetaQualifier).stream()
                 .filter(q -> q.getType() == QualifierType.COUNT)
                 .collect(Collectors.toList());
         if (countQualifiers.isEmpty()) {
-            return issueList.size();
+            return Optional.empty();
         } else if (countQualifiers.size() > 1) {
             throw new ParseException("More than one count qualifier");
         } else if (!countQualifiers.get(0).getNumber().isPresent()) {
             throw new ParseException("Count qualifier should be a number greater than or equal to 0");
         } else {
-            return countQualifiers.get(0).getNumber().get();
+            return countQualifiers.get(0).getNumber();
         }
     }
 }
@@ -0,0 +1,125 @@
+package filter.expression;
+
+import backend.interfaces.IReadModel;
+import backend.resource.IssueIndex;
+import backend.resource.TextIndex;
+import filter.MetaQualifierInfo;
+
+import java.util.*;
+
+/**
+ * Evaluation state shared by a group of compiled filters which are evaluated together against the same
+ * models, such as the filters of all panels in one refresh.
+ *
+ * Each filter is evaluated as a chain of conjuncts (see {@link FilterExpression#getConjuncts()}), each
+ * narrowing down the candidates left by the previous ones. The result of a conjunct is cached by the
+ * conjunct and its candidates, so a conjunct shared by several filters is evaluated only once for the
+ * same candidates. To make shared prefixes line up, each filter evaluates its conjuncts in descending
+ * order of the number of filters in the group they appear in, and otherwise in the order planned for
+ * the filter (see {@link FilterPlanner}).
+ *
+ * Descriptions of issues searched by any filter are kept once read (see {@link TextIndex.Descriptions}),
+ * so that each is decompressed at most once however many filters search it.
+ *
+ * Results are only valid while the models do not change, so an instance should not outlive a refresh.
+ *
+ * Thread-safe. If the evaluation is parallel, each filter evaluates the repositories of the models in
+ * parallel, in the fork-join pool it is evaluated from. Results are still in model order.
+ */
+public class SharedEvaluation {
+
+    private final Map<FilterExpression, Integer> conjunctFrequencies = new HashMap<>();
+    private final Map<Key, BitSet> results = new HashMap<>();
+    private final Map<TextIndex, TextIndex.Descriptions> descriptions = new IdentityHashMap<>();
+    private final boolean isParallel;
+
+    public SharedEvaluation(List<CompiledFilter> filters) {
+        this(filters, false);
+    }
+
+    public SharedEvaluation(List<CompiledFilter> filters, boolean isParallel) {
+        this.isParallel = isParallel;
+        for (CompiledFilter filter : filters) {
+            for (FilterExpression conjunct : new HashSet<>(filter.getConjuncts())) {
+                conjunctFrequencies.merge(conjunct, 1, Integer::sum);
+            }
+        }
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Orders the given conjuncts of a filter in descending order of frequency, keeping their relative
+     * order otherwise.
+     */
+    List<FilterExpression> order(List<FilterExpression> conjuncts) {
+        List<FilterExpression> ordered = new ArrayList<>(conjuncts);
+        ordered.sort(Comparator.comparing(conjunct -> -conjunctFrequencies.getOrDefault(conjunct, 0)));
+        return ordered;
+    }
+
+    /**
+     * Determines which of the candidate issues of a repository satisfy a conjunct, reusing the result of
+     * an earlier evaluation of the same conjunct over the same candidates. The candidates are not modified.
+     */
+    BitSet getMatchingIssues(FilterExpression conjunct, IReadModel model, IssueIndex index, BitSet candidates,
+                             MetaQualifierInfo info) {
+        if (candidates.isEmpty()) {
+            return new BitSet();
+        }
+
+        Key key = new Key(index.getRepoId(), conjunct, candidates, info.getIn());
+        BitSet result;
+        synchronized (results) {
+            result = results.get(key);
+        }
+        if (result == null) {
+            result = conjunct.getMatchingIssues(model, index, candidates, info, this);
+            synchronized (results) {
+                results.put(key, result);
+            }
+        }
+        return (BitSet) result.clone();
+    }
+
+    /**
+     * Returns the descriptions of the issues of a text index, as read so far in this evaluation.
+     */
+    TextIndex.Descriptions getDescriptions(TextIndex index) {
+        synchronized (descriptions) {
+            return descriptions.computeIfAbsent(index, TextIndex::newDescriptions);
+        }
+    }
+
+    private static final class Key {
+        private final String repoId;
+        private final FilterExpression conjunct;
+        private final BitSet candidates;
+
+        // The meta-qualifier which affects the semantics of keyword qualifiers
+        private final Optional<String> in;
+
+        Key(String repoId, FilterExpression conjunct, BitSet candidates, Optional<String> in) {
+            this.repoId = repoId;
+            this.conjunct = conjunct;
+            this.candidates = (BitSet) candidates.clone();
+            this.in = in;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return repoId.equals(key.repoId) && conjunct.equals(key.conjunct)
+                && candidates.equals(key.candidates) && in.equals(key.in);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(repoId, conjunct, candidates, in);
+        }
+    }
+}
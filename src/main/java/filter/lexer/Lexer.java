@@ -7,13 +7,21 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-
+import java.util.stream.Collectors;
+
+/**
+ * Splits filter strings into tokens.
+ *
+ * The rules are compiled once, into a single pattern which tries them in order of priority,
+ * so each token is recognised in one match of the same matcher.
+ */
 public class Lexer {
 
     private static final boolean SKIP_WHITESPACE = true;
     private static final Pattern NO_WHITESPACE = Pattern.compile("\\S");
+    private static final Pattern TRAILING_WHITESPACE = Pattern.compile("\\s+$");
 
-    private final List<Rule> rules = Arrays.asList(
+    private static final List<Rule> RULES = Arrays.asList(
             new Rule("AND|&&?", TokenType.AND),
             new Rule("OR|\\|\\|?", TokenType.OR),
             new Rule("NOT|~|!|-", TokenType.NOT),
@@ -40,42 +48,61 @@ public class Lexer {
             new Rule("\\*", TokenType.STAR)
         );
 
+    // Alternation tries the rules in order, as if each were tried in turn
+    private static final Pattern RULE_PATTERN = Pattern.compile(RULES.stream()
+        .map(rule -> "(" + rule.getPattern().pattern() + ")")
+        .collect(Collectors.joining("|")));
+
+    // The capturing group of each rule in the combined pattern, accounting for the groups within rules
+    private static final int[] RULE_GROUPS = new int[RULES.size()];
+    static {
+        int group = 1;
+        for (int i = 0; i < RULES.size(); i++) {
+            RULE_GROUPS[i] = group;
+            group += 1 + RULES.get(i).getPattern().matcher("").groupCount();
+        }
+    }
+
+    private static final Token EOF = new Token(TokenType.EOF, "");
+
     private final String input;
+    private final Matcher noWhitespace;
+    private final Matcher rules;
     private int position;
 
     public Lexer(String input) {
         this.input = stripTrailingWhitespace(input);
+        this.noWhitespace = NO_WHITESPACE.matcher(this.input);
+        this.rules = RULE_PATTERN.matcher(this.input);
         this.position = 0;
     }
 
-    private final Pattern trailingWhitespace = Pattern.compile("\\s+$");
-    private String stripTrailingWhitespace(String input) {
-        return trailingWhitespace.matcher(input).replaceAll("");
+    private static String stripTrailingWhitespace(String input) {
+        return TRAILING_WHITESPACE.matcher(input).replaceAll("");
     }
 
     private Token nextToken() {
 
         if (position >= input.length()) {
-            return new Token(TokenType.EOF, "");
+            return EOF;
         }
 
         if (SKIP_WHITESPACE) {
-            Matcher matcher = NO_WHITESPACE.matcher(input).region(position, input.length());
-            boolean found = matcher.find();
+            boolean found = noWhitespace.region(position, input.length()).find();
             if (!found) {
-                return new Token(TokenType.EOF, "");
+                return EOF;
             }
-            position = matcher.start();
+            position = noWhitespace.start();
         }
 
-        for (Rule r : rules) {
-            Matcher matcher = r.getPattern().matcher(input).region(position, input.length());
-
-            if (matcher.lookingAt()) {
-                String match = matcher.group();
-                position += match.length();
+        if (rules.region(position, input.length()).lookingAt()) {
+            for (int i = 0; i < RULE_GROUPS.length; i++) {
+                if (rules.start(RULE_GROUPS[i]) != -1) {
+                    String match = rules.group(RULE_GROUPS[i]);
+                    position += match.length();
 
-                return new Token(r.getTokenType(), match);
+                    return new Token(RULES.get(i).getTokenType(), match);
+                }
             }
         }
         throw new ParseException("Unrecognised token " + input.charAt(position) + " at " + position);
@@ -25,6 +25,8 @@ public class GlobalConfig {
 
     private static final Logger logger = LogManager.getLogger(GlobalConfig.class.getName());
 
+    public static final int DEFAULT_IDLE_REPO_MEMORY_BUDGET_MB = 64;
+
     private List<PanelInfo> lastSessionPanels = new ArrayList<>();
     private String lastViewedRepository = "";
     private String lastLoginUsername = "";
@@ -33,6 +35,24 @@ public class GlobalConfig {
     private final Map<String, List<PanelInfo>> savedBoards = new LinkedHashMap<>();
     private final Map<String, Map<Integer, LocalDateTime>> markedReadTimes = new HashMap<>();
     private Map<String, String> keyboardShortcuts = new HashMap<>();
+    private int idleRepoMemoryBudgetMB = DEFAULT_IDLE_REPO_MEMORY_BUDGET_MB;
+    private boolean compactIdleRepos = false;
+
+    public int getIdleRepoMemoryBudgetMB() {
+        return idleRepoMemoryBudgetMB;
+    }
+
+    public void setIdleRepoMemoryBudgetMB(int budget) {
+        this.idleRepoMemoryBudgetMB = budget;
+    }
+
+    public boolean isCompactIdleRepos() {
+        return compactIdleRepos;
+    }
+
+    public void setCompactIdleRepos(boolean compactIdleRepos) {
+        this.compactIdleRepos = compactIdleRepos;
+    }
 
     public Map<String, String> getKeyboardShortcuts() {
         return new HashMap<>(keyboardShortcuts);
@@ -191,4 +191,28 @@ public class Preferences { // NOPMD
     public void setKeyboardShortcuts(Map<String, String> keyboardShortcuts) {
         global.setKeyboardShortcuts(keyboardShortcuts);
     }
+
+    /**
+     * Returns the estimated memory, in bytes, which models of repos no longer in use may hold
+     * so that they can be reopened quickly.
+     */
+    public long getIdleRepoMemoryBudget() {
+        return global.getIdleRepoMemoryBudgetMB() * 1024L * 1024L;
+    }
+
+    public void setIdleRepoMemoryBudgetMB(int budget) {
+        global.setIdleRepoMemoryBudgetMB(budget);
+    }
+
+    /**
+     * Returns whether the models of repos no longer in use are kept as compact copies,
+     * which hold less memory but take longer to open again.
+     */
+    public boolean isCompactIdleRepos() {
+        return global.isCompactIdleRepos();
+    }
+
+    public void setCompactIdleRepos(boolean compactIdleRepos) {
+        global.setCompactIdleRepos(compactIdleRepos);
+    }
 }
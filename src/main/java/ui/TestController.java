@@ -1,8 +1,8 @@
 package ui;
 
 import backend.RepoIO;
+import backend.binary.BinaryStore;
 import backend.interfaces.RepoStore;
-import backend.json.JSONStore;
 import backend.json.JSONStoreStub;
 import backend.stub.DummySource;
 import javafx.application.Application;
@@ -84,6 +84,12 @@ public final class TestController {
         return hasUI() && commandLineArgs.getOrDefault("testjson", "false").equalsIgnoreCase("true");
     }
 
+    // When --store=binary is passed as an argument, repos are stored in the binary format,
+    // migrating those stored as JSON
+    public static boolean isBinaryStoreEnabled() {
+        return hasUI() && commandLineArgs.getOrDefault("store", "json").equalsIgnoreCase("binary");
+    }
+
     public static boolean isTestChromeDriver() {
         return hasUI() && commandLineArgs.getOrDefault("testchromedriver", "false").equalsIgnoreCase("true");
     }
@@ -136,14 +142,15 @@ public final class TestController {
 
     /**
      * Creates a RepoIO for the application that uses different components
-     * depending on various test options: --test, --testjson etc.
+     * depending on various test options: --test, --testjson etc., and on the store option, --store
      * @return
      */
     public static RepoIO createApplicationRepoIO() {
+        Optional<RepoStore> store = isBinaryStoreEnabled() ? Optional.of(new BinaryStore()) : Optional.empty();
         if (isTestMode()) {
-            return createTestingRepoIO(isTestJSONEnabled() ? Optional.of(new JSONStoreStub()) : Optional.empty());
+            return createTestingRepoIO(isTestJSONEnabled() ? Optional.of(new JSONStoreStub()) : store);
         } else {
-            return new RepoIO(Optional.empty(), Optional.empty(), Optional.empty());
+            return new RepoIO(Optional.empty(), store, Optional.empty());
         }
     }
 
@@ -153,7 +160,7 @@ public final class TestController {
      *                          defaults to a new instance of JSONStore if this value is empty
      * @return
      */
-    public static RepoIO createTestingRepoIO(Optional<JSONStore> jsonStoreToBeUsed) {
+    public static RepoIO createTestingRepoIO(Optional<RepoStore> jsonStoreToBeUsed) {
         return new RepoIO(Optional.of(new DummySource()), jsonStoreToBeUsed,
                           Optional.of(RepoStore.TEST_DIRECTORY));
     }
@@ -0,0 +1,97 @@
+package util;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a bounded pool of threads, such that those with the same key run one at a time
+ * in the order submitted, while those with different keys may run in parallel.
+ *
+ * A task submitted from one running with the same key runs immediately on the same thread, as
+ * the submitting task may wait for it, which it would do forever if the task were queued behind it.
+ */
+public class StripedExecutor {
+
+    private static final Logger logger = HTLog.get(StripedExecutor.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor pool;
+
+    // The tasks yet to run of each key which has any queued or running
+    private final Map<String, Queue<Runnable>> stripes = new HashMap<>();
+
+    // The key of the task running on the current thread, if any
+    private final ThreadLocal<String> runningKey = new ThreadLocal<>();
+
+    public StripedExecutor(int threads) {
+        pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>());
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    public void execute(String key, Runnable task) {
+        if (key.equals(runningKey.get())) {
+            task.run();
+        } else {
+            executeLater(key, task);
+        }
+    }
+
+    /**
+     * Same as {@link #execute(String, Runnable)}, but always queues the task behind those of its key,
+     * even when submitted from one of them, which therefore must not wait for it.
+     */
+    public void executeLater(String key, Runnable task) {
+        synchronized (stripes) {
+            Queue<Runnable> tasks = stripes.get(key);
+            if (tasks != null) {
+                tasks.add(task);
+                return;
+            }
+            tasks = new ArrayDeque<>();
+            tasks.add(task);
+            stripes.put(key, tasks);
+        }
+        pool.execute(() -> runNext(key));
+    }
+
+    /**
+     * Runs the next task of a key. Any after it are run by a new pool task, so that those of other
+     * keys get their turn in between.
+     */
+    private void runNext(String key) {
+        Runnable task;
+        synchronized (stripes) {
+            task = stripes.get(key).peek();
+        }
+        runningKey.set(key);
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error(e.getLocalizedMessage(), e);
+        } finally {
+            runningKey.remove();
+        }
+
+        boolean hasNext;
+        synchronized (stripes) {
+            Queue<Runnable> tasks = stripes.get(key);
+            tasks.remove();
+            hasNext = !tasks.isEmpty();
+            if (!hasNext) {
+                stripes.remove(key);
+            }
+        }
+        if (hasNext) {
+            pool.execute(() -> runNext(key));
+        }
+    }
+}
@@ -11,6 +11,7 @@ import util.events.ShowErrorDialogEvent;
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -55,6 +56,14 @@ public final class Utility {
         return Optional.empty();
     }
 
+    /**
+     * Content written to a file as a stream, see {@link #writeFile(String, FileContent, int)}.
+     */
+    @FunctionalInterface
+    public interface FileContent {
+        void writeTo(Writer writer) throws IOException;
+    }
+
     /**
      * Returns true on JSON corruption.
      * TODO remove JSON-specific parts
@@ -64,20 +73,32 @@ public final class Utility {
      * @return
      */
     public static boolean writeFile(String fileName, String content, int issueCount) {
+        return writeFile(fileName, writer -> writer.write(content), issueCount);
+    }
+
+    /**
+     * Same as {@link #writeFile(String, String, int)}, but streams the content to the file.
+     * It is written to a temporary file first, which then replaces the file, so that a failure
+     * while writing does not leave it truncated.
+     * @return true on JSON corruption
+     */
+    public static boolean writeFile(String fileName, FileContent content, int issueCount) {
         boolean validPath = !(fileName == null || fileName.isEmpty());
         if (validPath) {
+            Path file = Paths.get(fileName);
+            Path temporary = Paths.get(fileName + ".tmp");
             try {
-                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
-                        new FileOutputStream(fileName), "UTF-8"
-                ));
-                writer.write(content);
-                writer.newLine();
-                writer.close();
+                try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                    content.writeTo(writer);
+                    writer.newLine();
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
 
-                long sizeAfterWrite = Files.size(Paths.get(fileName));
+                long sizeAfterWrite = Files.size(file);
                 return processFileGrowth(sizeAfterWrite, issueCount, fileName);
             } catch (IOException e) {
                 logger.error(e.getLocalizedMessage(), e);
+                deleteTemporaryFile(temporary);
                 return true;
             }
         }
@@ -103,6 +124,14 @@ public final class Utility {
         return false;
     }
 
+    private static void deleteTemporaryFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.error(e.getLocalizedMessage(), e);
+        }
+    }
+
     private static boolean processFileGrowth(long sizeAfterWrite, int issueCount, String fileName) {
         // The average issue is about 0.75KB in size. If the total filesize is more than (2 * issueCount KB),
         // we consider the json to have exploded as the file is unusually large.
@@ -27,6 +27,7 @@ import org.loadui.testfx.utils.FXTestUtils;
 
 import com.google.common.util.concurrent.SettableFuture;
 
+import backend.binary.BinaryStore;
 import backend.interfaces.RepoStore;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -112,7 +113,10 @@ public class UITest extends GuiTest {
                     .filter(Files::isRegularFile)
                     .filter(p ->
                         getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json") ||
-                            getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json-err")
+                            getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("json-err") ||
+                            String.valueOf(p.getFileName()).endsWith(BinaryStore.EXTENSION) ||
+                            String.valueOf(p.getFileName()).endsWith(BinaryStore.JOURNAL_EXTENSION) ||
+                            getFileExtension(String.valueOf(p.getFileName())).equalsIgnoreCase("manifest")
                     )
                     .forEach(p -> new File(p.toAbsolutePath().toString()).delete());
             }
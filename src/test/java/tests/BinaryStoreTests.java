@@ -0,0 +1,269 @@
+package tests;
+
+import backend.UpdateSignature;
+import backend.binary.BinaryStore;
+import backend.interfaces.RepoStore;
+import backend.json.JSONStore;
+import backend.resource.IssueMerge;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.stub.DummyRepo;
+import guitests.UITest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import ui.UI;
+import util.events.EventDispatcherStub;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinaryStoreTests {
+
+    private static final String REPO = "dummy1/dummy1";
+    private static final Path BINARY_FILE = Paths.get("store/test/dummy1-dummy1" + BinaryStore.EXTENSION);
+    private static final Path JOURNAL_FILE =
+        Paths.get("store/test/dummy1-dummy1" + BinaryStore.JOURNAL_EXTENSION);
+    private static final Path JSON_FILE = Paths.get("store/test/dummy1-dummy1.json");
+
+    @BeforeClass
+    public static void setup() {
+        UI.events = new EventDispatcherStub();
+    }
+
+    @Before
+    public void enableTestDirectory() {
+        RepoStore.changeDirectory(RepoStore.TEST_DIRECTORY);
+    }
+
+    private static Model createModel() {
+        DummyRepo dummy = new DummyRepo();
+        return new Model(REPO, dummy.getIssues(REPO), dummy.getLabels(REPO),
+            dummy.getMilestones(REPO), dummy.getCollaborators(REPO),
+            new UpdateSignature("issues", "labels", "milestones", "collaborators", new Date()));
+    }
+
+    @Test
+    public void roundTrip() throws ExecutionException, InterruptedException, IOException {
+        Model model = createModel();
+        BinaryStore store = new BinaryStore();
+        assertFalse(store.saveRepository(REPO, model).get());
+        assertTrue(Files.exists(BINARY_FILE));
+
+        Model loaded = store.loadRepository(REPO).get();
+        assertTrue(loaded.hasSameContentAs(model));
+        assertEquals(model.getUpdateSignature(), loaded.getUpdateSignature());
+        assertEquals(Arrays.asList(REPO), store.getStoredRepos());
+
+        // Smaller than the same repo as JSON
+        assertFalse(new JSONStore().saveRepository(REPO, model).get());
+        assertTrue(Files.size(BINARY_FILE) < Files.size(JSON_FILE));
+    }
+
+    @Test
+    public void migration() throws ExecutionException, InterruptedException {
+        Model model = createModel();
+        assertFalse(new JSONStore().saveRepository(REPO, model).get());
+
+        // Listed as stored before migration
+        BinaryStore store = new BinaryStore();
+        assertEquals(Arrays.asList(REPO), store.getStoredRepos());
+
+        Model loaded = store.loadRepository(REPO).get();
+        assertTrue(loaded.hasSameContentAs(model));
+        assertTrue(Files.exists(BINARY_FILE));
+        assertFalse(Files.exists(JSON_FILE));
+        assertEquals(Arrays.asList(REPO), store.getStoredRepos());
+
+        assertFalse(store.removeStoredRepo(REPO).get());
+        assertFalse(Files.exists(BINARY_FILE));
+        assertTrue(store.getStoredRepos().isEmpty());
+    }
+
+    @Test
+    public void corruption() throws ExecutionException, InterruptedException, IOException {
+        BinaryStore store = new BinaryStore();
+        assertFalse(store.saveRepository(REPO, createModel()).get());
+
+        byte[] data = Files.readAllBytes(BINARY_FILE);
+        data[data.length / 2] ^= 0x10;
+        Files.write(BINARY_FILE, data);
+
+        try {
+            store.loadRepository(REPO).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(Files.exists(BINARY_FILE));
+        }
+    }
+
+    private static Model update(Model model, String description) {
+        List<TurboIssue> issues = model.getIssues().stream()
+            .skip(1)
+            .map(TurboIssue::new)
+            .collect(Collectors.toList());
+        issues.get(0).setTitle("Changed");
+        issues.get(1).setDescription(description);
+        issues.add(new TurboIssue(REPO, 1000, "Added"));
+        List<TurboLabel> labels = new ArrayList<>(model.getLabels());
+        labels.add(new TurboLabel(REPO, "type.added"));
+        return new Model(REPO, issues, labels, model.getMilestones(), model.getUsers(),
+            new UpdateSignature("issues2", "labels2", "milestones", "collaborators", new Date()));
+    }
+
+    @Test
+    public void journal() throws ExecutionException, InterruptedException, IOException {
+        Model model = createModel();
+        BinaryStore store = new BinaryStore();
+        assertFalse(store.saveRepository(REPO, model).get());
+        byte[] snapshot = Files.readAllBytes(BINARY_FILE);
+        assertFalse(Files.exists(JOURNAL_FILE));
+
+        // Only the changes are written
+        Model updated = update(model, "Changed");
+        assertFalse(store.saveRepository(REPO, updated).get());
+        assertArrayEquals(snapshot, Files.readAllBytes(BINARY_FILE));
+        assertTrue(Files.exists(JOURNAL_FILE));
+        assertTrue(Files.size(JOURNAL_FILE) < snapshot.length / 2);
+
+        Model loaded = new BinaryStore().loadRepository(REPO).get();
+        assertTrue(loaded.hasSameContentAs(updated));
+        assertEquals(updated.getUpdateSignature(), loaded.getUpdateSignature());
+
+        assertFalse(store.removeStoredRepo(REPO).get());
+        assertFalse(Files.exists(JOURNAL_FILE));
+        assertTrue(store.getStoredRepos().isEmpty());
+    }
+
+    @Test
+    public void journalOfMergedUpdate() throws ExecutionException, InterruptedException {
+        Model model = createModel();
+        BinaryStore store = new BinaryStore();
+        assertFalse(store.saveRepository(REPO, model).get());
+
+        // Changed in place after being stored, and not reported by the update
+        int relabelledId = model.getIssues().get(2).getId();
+        model.replaceIssueLabels(relabelledId, Arrays.asList("type.relabelled"));
+
+        TurboIssue changed = new TurboIssue(model.getIssues().get(0));
+        changed.setTitle("Changed");
+        IssueMerge merge = IssueMerge.merge(model.getIssues(),
+            Arrays.asList(changed, new TurboIssue(REPO, 1000, "Added"), new TurboIssue(REPO, 1001, "Added")),
+            new ArrayList<>());
+        Model updated = new Model(REPO, merge.getIssues(), model.getLabels(), model.getMilestones(),
+            model.getUsers(), model.getUpdateSignature());
+        updated.setUpdatedFrom(model, merge.getUpdatedIds());
+        assertFalse(store.saveRepository(REPO, updated).get());
+        assertTrue(Files.exists(JOURNAL_FILE));
+
+        Model loaded = new BinaryStore().loadRepository(REPO).get();
+        assertTrue(loaded.hasSameContentAs(updated));
+        assertEquals("Changed", loaded.getIssues().get(0).getTitle());
+        assertEquals(Arrays.asList("type.relabelled"), loaded.getIssueById(relabelledId).get().getLabels());
+    }
+
+    @Test
+    public void journalWithCollidingHashCodes() throws ExecutionException, InterruptedException {
+        Model model = createModel();
+        List<TurboIssue> issues = model.getIssues().stream().map(TurboIssue::new).collect(Collectors.toList());
+        issues.get(0).setTitle("Aa");
+        List<TurboLabel> labels = new ArrayList<>(Arrays.asList(new TurboLabel(REPO, "Aa")));
+        model = new Model(REPO, issues, labels, model.getMilestones(), model.getUsers(), model.getUpdateSignature());
+        BinaryStore store = new BinaryStore();
+        assertFalse(store.saveRepository(REPO, model).get());
+
+        // "Aa" and "BB" have the same hash code
+        issues = issues.stream().map(TurboIssue::new).collect(Collectors.toList());
+        issues.get(0).setTitle("BB");
+        labels = new ArrayList<>(Arrays.asList(new TurboLabel(REPO, "BB")));
+        Model updated = new Model(REPO, issues, labels, model.getMilestones(), model.getUsers(),
+            model.getUpdateSignature());
+        assertFalse(store.saveRepository(REPO, updated).get());
+
+        Model loaded = new BinaryStore().loadRepository(REPO).get();
+        assertEquals("BB", loaded.getIssues().get(0).getTitle());
+        assertEquals("BB", loaded.getLabels().get(0).getActualName());
+    }
+
+    @Test
+    public void incompleteJournal() throws ExecutionException, InterruptedException, IOException {
+        Model model = createModel();
+        BinaryStore store = new BinaryStore();
+        assertFalse(store.saveRepository(REPO, model).get());
+        Model updated = update(model, "Changed");
+        assertFalse(store.saveRepository(REPO, updated).get());
+        long complete = Files.size(JOURNAL_FILE);
+        assertFalse(store.saveRepository(REPO, update(updated, "Changed again")).get());
+
+        // As if stopped while appending the last entry
+        try (FileChannel channel = FileChannel.open(JOURNAL_FILE, StandardOpenOption.WRITE)) {
+            channel.truncate(complete + 10);
+        }
+        Model loaded = new BinaryStore().loadRepository(REPO).get();
+        assertTrue(loaded.hasSameContentAs(updated));
+        assertFalse(Files.exists(JOURNAL_FILE));
+    }
+
+    @Test
+    public void compaction() throws ExecutionException, InterruptedException, IOException {
+        Model model = createModel();
+        BinaryStore store = new BinaryStore();
+        assertFalse(store.saveRepository(REPO, model).get());
+
+        Random random = new Random(0);
+        StringBuilder description = new StringBuilder();
+        while (description.length() < 512 * 1024) {
+            description.append(Long.toString(random.nextLong(), 36));
+        }
+        Model updated = update(model, description.toString());
+        assertFalse(store.saveRepository(REPO, updated).get());
+
+        // Compacted in the background once large, which precedes the next load
+        Model loaded = store.loadRepository(REPO).get();
+        assertFalse(Files.exists(JOURNAL_FILE));
+        assertTrue(loaded.hasSameContentAs(updated));
+        assertTrue(new BinaryStore().loadRepository(REPO).get().hasSameContentAs(updated));
+    }
+
+    @Test
+    public void failingTaskCompletesResponse() throws ExecutionException, InterruptedException, TimeoutException {
+        BinaryStore store = new BinaryStore();
+        try {
+            // Writing no model throws in the task, which must still complete its response
+            store.saveRepository(REPO, null).get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NullPointerException);
+        }
+
+        // Later tasks of the repo still run
+        Model model = createModel();
+        assertFalse(store.saveRepository(REPO, model).get(10, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void cleanup() {
+        UITest.clearTestFolder();
+    }
+}
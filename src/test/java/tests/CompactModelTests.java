@@ -0,0 +1,118 @@
+package tests;
+
+import backend.UpdateSignature;
+import backend.resource.CompactModel;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import backend.resource.TurboLabel;
+import backend.resource.TurboMilestone;
+import backend.resource.TurboUser;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactModelTests {
+
+    private static final String REPO = "test/repo";
+
+    private static Model createModel(int issueCount) {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= issueCount; i++) {
+            TurboIssue issue = new TurboIssue(REPO, i, "Issue " + i, "author" + (i % 3),
+                                              LocalDateTime.of(2015, 1, 1 + i % 28, 12, 0, 0, i), i % 4 == 0);
+            issue.setOpen(i % 2 == 1);
+            issue.setDescription(i % 5 == 0 ? null : String.join(" ", Collections.nCopies(i, "Description.")));
+            issue.setCommentCount(i);
+            if (i % 2 == 0) {
+                issue.setLabels(Arrays.asList("type.bug", "p.high"));
+            }
+            if (i % 3 == 0) {
+                issue.setAssignee("user" + i);
+            }
+            if (i % 7 == 0) {
+                issue.setMilestone(i / 7);
+            }
+            if (i % 6 == 0) {
+                issue.setMarkedReadAt(Optional.of(LocalDateTime.of(2015, 2, 1, 0, 0)));
+            }
+            issues.add(issue);
+        }
+        return new Model(REPO, issues,
+            new ArrayList<>(Arrays.asList(new TurboLabel(REPO, "type.bug"), new TurboLabel(REPO, "p.high"))),
+            new ArrayList<>(Arrays.asList(new TurboMilestone(REPO, 1, "v0.1"))),
+            new ArrayList<>(Arrays.asList(new TurboUser(REPO, "user3"))),
+            new UpdateSignature("issues", "labels", "milestones", "collaborators", new Date()));
+    }
+
+    @Test
+    public void materialisedAsCopied() {
+        Model model = createModel(50);
+        CompactModel compact = CompactModel.of(model);
+        assertEquals(REPO, compact.getRepoId());
+        assertEquals(50, compact.getIssueCount());
+
+        Model materialised = compact.toModel();
+        assertEquals(model, materialised);
+        assertTrue(materialised.hasSameContentAs(model));
+        for (int i = 0; i < model.getIssues().size(); i++) {
+            TurboIssue issue = model.getIssues().get(i);
+            TurboIssue view = materialised.getIssues().get(i);
+            assertNotSame(issue, view);
+            assertEquals(issue.getLabelsLastModifiedAt(), view.getLabelsLastModifiedAt());
+            assertSame(issue.getMetadata(), view.getMetadata());
+            assertEquals(issue.getContentHash(), view.getContentHash());
+            // Label lists are still shared
+            assertSame(issue.getLabels(), view.getLabels());
+        }
+    }
+
+    @Test
+    public void issuesMaterialisedOnDemand() {
+        Model model = createModel(10);
+        CompactModel compact = CompactModel.of(model);
+
+        assertEquals(model.getIssueById(7).get(), compact.getIssueById(7).get());
+        assertFalse(compact.getIssueById(11).isPresent());
+
+        // Views are independent of the copy
+        TurboIssue view = compact.getIssue(0);
+        view.setTitle("Changed");
+        assertEquals("Issue 1", compact.getIssue(0).getTitle());
+    }
+
+    @Test
+    public void missingFieldsKept() {
+        TurboIssue issue = new TurboIssue(REPO, 1, null);
+        issue.setDescription(null);
+        Model model = new Model(REPO, Arrays.asList(issue), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        TurboIssue view = CompactModel.of(model).getIssue(0);
+        assertEquals(issue, view);
+        assertNull(view.getTitle());
+        assertNull(view.getDescription());
+    }
+
+    @Test
+    public void smallerThanModel() {
+        Model model = createModel(1000);
+        long modelSize = model.getEstimatedSize();
+        assertTrue(CompactModel.of(model).getEstimatedSize() < modelSize);
+
+        // Models with built indexes hold even more
+        model.getIssueIndex();
+        assertTrue(CompactModel.of(model).getEstimatedSize() < modelSize);
+    }
+}
@@ -18,6 +18,7 @@ import backend.resource.*;
 import filter.ParseException;
 import filter.Parser;
 import filter.SemanticException;
+import filter.expression.CompiledFilter;
 import filter.expression.FilterExpression;
 import filter.expression.Qualifier;
 import filter.expression.QualifierType;
@@ -797,6 +798,22 @@ public class FilterEvalTests {
         assertFalse(Qualifier.labelMatches(".", "p.high"));
     }
 
+    @Test
+    public void compiledFilter_reusableAcrossIssues() {
+        TurboIssue issue1 = new TurboIssue(REPO, 1, "this is a test");
+        TurboIssue issue2 = new TurboIssue(REPO, 2, "something else");
+        TurboIssue issue3 = new TurboIssue("other/repo", 3, "this is a test");
+
+        CompiledFilter compiled = CompiledFilter.compile(empty, Parser.parse("TEST in:title count:1"));
+
+        assertTrue(compiled.isSatisfiedBy(issue1));
+        assertFalse(compiled.isSatisfiedBy(issue2));
+
+        // The implicit default repo qualifier is still applied
+        assertFalse(compiled.isSatisfiedBy(issue3));
+        assertTrue(compiled.getMetaQualifierInfo().getIn().isPresent());
+    }
+
     /**
      * Tests the filter string in the context of an empty model
      */
@@ -79,4 +79,32 @@ public class FilterLexerTests {
         ));
     }
 
+    @Test
+    public void rulePriority() {
+        // Earlier rules win over longer matches of later ones
+        assertEquals(new Lexer("ANDROID ORACLE").lex(), Arrays.asList(
+            new Token(TokenType.AND, "AND"),
+            new Token(TokenType.SYMBOL, "ROID"),
+            new Token(TokenType.OR, "OR"),
+            new Token(TokenType.SYMBOL, "ACLE"),
+            new Token(TokenType.EOF, "")));
+        assertEquals(new Lexer("2015-01-012 2015-01 label :a").lex(), Arrays.asList(
+            new Token(TokenType.DATE, "2015-01-01"),
+            new Token(TokenType.SYMBOL, "2"),
+            new Token(TokenType.SYMBOL, "2015-01"),
+            new Token(TokenType.QUALIFIER, "label :"),
+            new Token(TokenType.SYMBOL, "a"),
+            new Token(TokenType.EOF, "")));
+        assertEquals(new Lexer("\"a b\"<=..*").lex(), Arrays.asList(
+            new Token(TokenType.QUOTED_CONTENT, "\"a b\""),
+            new Token(TokenType.LTE, "<="),
+            new Token(TokenType.DOTDOT, ".."),
+            new Token(TokenType.STAR, "*"),
+            new Token(TokenType.EOF, "")));
+    }
+
+    @Test(expected = ParseException.class)
+    public void unrecognisedToken() {
+        new Lexer("a \"\"").lex();
+    }
 }
@@ -19,6 +19,21 @@ public class FilterParserTests {
         assertEquals(Parser.parse(""), Qualifier.EMPTY);
     }
 
+    @Test
+    public void parseCache() {
+        // Parses of the same string are shared
+        assertSame(Parser.parse("label:bug state:open"), Parser.parse("label:bug state:open"));
+        assertEquals(Parser.parse("label:bug state:open"), Parser.parse("label:bug  state:open"));
+
+        // Failed parses are not cached
+        for (int i = 0; i < 2; i++) {
+            try {
+                Parser.parse("label:bug (");
+                fail();
+            } catch (ParseException ignored) {}
+        }
+    }
+
     @Test
     public void keywords() {
         assertEquals(Parser.parse("a(b)"),
@@ -0,0 +1,126 @@
+package tests;
+
+import backend.interfaces.IModel;
+import backend.resource.*;
+import filter.MetaQualifierInfo;
+import filter.Parser;
+import filter.expression.FilterExpression;
+import filter.expression.FilterPlanner;
+import filter.expression.Qualifier;
+import org.junit.Before;
+import org.junit.Test;
+import ui.TestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class FilterPlannerTests {
+
+    private static final String REPO = "test/test";
+    private static final String OTHER_REPO = "test/other";
+
+    private Model model;
+    private IModel models;
+
+    @Before
+    public void setup() {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            TurboIssue issue = new TurboIssue(REPO, i, "Issue " + i);
+            issue.setDescription(i == 1 ? "Some phrase" : "Description");
+            issue.setOpen(i % 2 == 1);
+            issue.setLabels(new ArrayList<>(Arrays.asList(i == 1 ? "type.bug" : "type.feature")));
+            issues.add(issue);
+        }
+        model = new Model(REPO, issues, new ArrayList<>(Arrays.asList(
+            new TurboLabel(REPO, "type.bug"), new TurboLabel(REPO, "type.feature"))),
+            new ArrayList<>(), new ArrayList<>());
+        models = TestUtils.singletonModel(model);
+    }
+
+    private FilterExpression plan(FilterPlanner planner, String filter) {
+        return planner.plan(Parser.parse(filter));
+    }
+
+    private FilterPlanner planner() {
+        return new FilterPlanner(models, new MetaQualifierInfo(new ArrayList<>()));
+    }
+
+    @Test
+    public void conjunctionOperandsOrderedByRank() {
+        FilterExpression planned = plan(planner(), "\"some phrase\" label:feature label:bug state:open");
+        assertEquals(Arrays.asList(Parser.parse("state:open"), Parser.parse("label:bug"),
+                                   Parser.parse("label:feature"), Parser.parse("\"some phrase\"")),
+                     planned.getConjuncts());
+    }
+
+    @Test
+    public void disjunctionOperandsOrderedByRank() {
+        FilterExpression planned = plan(planner(), "\"some phrase\" OR label:bug OR label:feature");
+        assertEquals(Arrays.asList(Parser.parse("label:feature"), Parser.parse("label:bug"),
+                                   Parser.parse("\"some phrase\"")),
+                     planned.getDisjuncts());
+    }
+
+    @Test
+    public void estimatesFromIndex() {
+        FilterPlanner planner = planner();
+        assertEquals(0.1, planner.getSelectivity(plan(planner, "label:bug")), 1e-9);
+        assertEquals(0.9, planner.getSelectivity(plan(planner, "-label:bug")), 1e-9);
+        assertEquals(0.05, planner.getSelectivity(plan(planner, "label:bug state:open")), 1e-9);
+        assertEquals(0.55, planner.getSelectivity(plan(planner, "label:bug OR state:open")), 1e-9);
+
+        // The label is only tested for open issues
+        assertEquals(1 + 0.5 * 2, planner.getCost(plan(planner, "label:bug state:open")), 1e-9);
+    }
+
+    @Test
+    public void estimatesFromIndexesOfCoveredRepos() {
+        List<TurboIssue> otherIssues = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            TurboIssue issue = new TurboIssue(OTHER_REPO, i, "Issue " + i);
+            issue.setLabels(new ArrayList<>(Arrays.asList("type.bug")));
+            otherIssues.add(issue);
+        }
+        MultiModel multiModel = new MultiModel(TestController.createTestPreferences());
+        for (Model repoModel : Arrays.asList(model, new Model(OTHER_REPO, otherIssues,
+            new ArrayList<>(Arrays.asList(new TurboLabel(OTHER_REPO, "type.bug"))),
+            new ArrayList<>(), new ArrayList<>()))) {
+            multiModel.queuePendingRepository(repoModel.getRepoId());
+            multiModel.addPending(repoModel);
+        }
+        multiModel.setDefaultRepo(REPO);
+        MetaQualifierInfo info = new MetaQualifierInfo(new ArrayList<>());
+
+        FilterPlanner planner = new FilterPlanner(multiModel, info, Arrays.asList(REPO, OTHER_REPO));
+        assertEquals((1 + 30) / 40.0, planner.getSelectivity(plan(planner, "label:bug")), 1e-9);
+
+        planner = new FilterPlanner(multiModel, info, Arrays.asList(OTHER_REPO, "closed/repo"));
+        assertEquals(1, planner.getSelectivity(plan(planner, "label:bug")), 1e-9);
+    }
+
+    @Test
+    public void plannedExpressionsAreEquivalent() {
+        List<String> filters = Arrays.asList(
+            "\"some phrase\" state:open", "label:bug OR (state:closed label:feature) OR issue",
+            "-(label:feature OR state:open) description:phrase", "id:>3 id:<8 -state:open");
+        FilterPlanner planner = planner();
+        for (String filter : filters) {
+            FilterExpression expr = Parser.parse(filter);
+            FilterExpression planned = planner.plan(expr);
+            assertEquals(filter, matching(expr), matching(planned));
+        }
+    }
+
+    private List<Integer> matching(FilterExpression expr) {
+        MetaQualifierInfo info = new MetaQualifierInfo(expr.find(Qualifier::isMetaQualifier));
+        return model.getIssues().stream()
+            .filter(issue -> expr.isSatisfiedBy(models, issue, info))
+            .map(TurboIssue::getId)
+            .collect(Collectors.toList());
+    }
+}
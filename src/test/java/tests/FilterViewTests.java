@@ -0,0 +1,175 @@
+package tests;
+
+import backend.FilterView;
+import backend.resource.*;
+import filter.Parser;
+import filter.expression.CompiledFilter;
+import filter.expression.CompiledSort;
+import filter.expression.FilterExpression;
+import filter.expression.QualifierType;
+import filter.expression.SharedEvaluation;
+import filter.expression.SortKey;
+import org.junit.Before;
+import org.junit.Test;
+import ui.TestController;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FilterViewTests {
+
+    private static final String REPO = "test/test";
+
+    private MultiModel models;
+
+    @Before
+    public void setup() {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            TurboIssue issue = new TurboIssue(REPO, i, "Issue " + i);
+            issue.setOpen(i % 2 == 1);
+            issue.setLabels(new ArrayList<>(Arrays.asList(i % 3 == 0 ? "type.bug" : "type.feature")));
+            issues.add(issue);
+        }
+        List<TurboLabel> labels = new ArrayList<>(Arrays.asList(
+            new TurboLabel(REPO, "type.bug"), new TurboLabel(REPO, "type.feature")));
+
+        models = new MultiModel(TestController.createTestPreferences());
+        models.queuePendingRepository(REPO);
+        models.addPending(new Model(REPO, issues, labels, new ArrayList<>(), new ArrayList<>()));
+        models.setDefaultRepo(REPO);
+    }
+
+    private List<Integer> update(FilterView view) {
+        return update(view, models.getSnapshot());
+    }
+
+    private List<Integer> update(FilterView view, MultiModel.Snapshot snapshot) {
+        FilterExpression expr = view.getSource();
+        CompiledFilter compiled = CompiledFilter.compile(snapshot, expr);
+        List<TurboIssue> result = view.update(snapshot, compiled, sortOrder(snapshot, compiled),
+                                              new SharedEvaluation(Arrays.asList(compiled)));
+        return result.stream().map(TurboIssue::getId).collect(Collectors.toList());
+    }
+
+    private CompiledSort sortOrder(MultiModel.Snapshot snapshot, CompiledFilter compiled) {
+        return compiled.getExpression().find(q -> q.getType() == QualifierType.SORT).stream()
+            .findFirst()
+            .map(q -> q.compileSort(snapshot, false))
+            .orElse(CompiledSort.compile(snapshot, Arrays.asList(new SortKey("id", true)), false));
+    }
+
+    /**
+     * Checks that a view patched with changes agrees with a view computed from scratch.
+     */
+    private void assertUpToDate(FilterView view) {
+        assertEquals(update(new FilterView(view.getSource())), update(view));
+    }
+
+    @Test
+    public void patchedWithLocalChanges() {
+        FilterView view = new FilterView(Parser.parse("label:bug sort:state"));
+        assertEquals(Arrays.asList(3, 9, 6), update(view));
+
+        models.replaceIssueLabels(REPO, 2, Arrays.asList("type.bug"));
+        models.replaceIssueLabels(REPO, 3, Arrays.asList("type.feature"));
+        assertUpToDate(view);
+        assertEquals(Arrays.asList(9, 2, 6), update(view));
+    }
+
+    @Test
+    public void patchedWithReplacedModel() {
+        FilterView view = new FilterView(Parser.parse("state:open count:3"));
+        assertEquals(Arrays.asList(9, 7, 5), update(view));
+
+        Model model = models.get(REPO);
+        TurboIssue closed = new TurboIssue(REPO, 9, "Issue 9");
+        closed.setOpen(false);
+        TurboIssue added = new TurboIssue(REPO, 11, "Issue 11");
+        List<TurboIssue> issues = TurboIssue.reconcile(model.getIssues(), Arrays.asList(closed, added));
+        models.replace(Arrays.asList(
+            new Model(REPO, issues, model.getLabels(), model.getMilestones(), model.getUsers())));
+
+        assertUpToDate(view);
+        assertEquals(Arrays.asList(11, 7, 5), update(view));
+    }
+
+    @Test
+    public void patchedWithMergedUpdates() {
+        FilterView view = new FilterView(Parser.parse("state:open count:3"));
+        assertEquals(Arrays.asList(9, 7, 5), update(view));
+
+        Model model = models.get(REPO);
+        TurboIssue closed = new TurboIssue(REPO, 9, "Issue 9");
+        closed.setOpen(false);
+        TurboIssue added = new TurboIssue(REPO, 11, "Issue 11");
+        IssueMerge merge = IssueMerge.merge(model.getIssues(), Arrays.asList(closed, added), new ArrayList<>());
+        Model updated = new Model(REPO, merge.getIssues(), model.getLabels(), model.getMilestones(),
+            model.getUsers());
+        updated.setUpdatedFrom(model, merge.getUpdatedIds());
+        assertEquals(Optional.of(new HashSet<>(Arrays.asList(9, 11))), updated.getIssuesUpdatedFrom(model));
+        models.replace(Arrays.asList(updated));
+
+        assertUpToDate(view);
+        assertEquals(Arrays.asList(11, 7, 5), update(view));
+    }
+
+    @Test
+    public void recomputedWithChangedLabels() {
+        FilterView view = new FilterView(Parser.parse("label:bug"));
+        assertEquals(Arrays.asList(9, 6, 3), update(view));
+
+        Model model = models.get(REPO);
+        List<TurboLabel> labels = new ArrayList<>(model.getLabels());
+        labels.remove(0);
+        models.replace(Arrays.asList(
+            new Model(REPO, model.getIssues(), labels, model.getMilestones(), model.getUsers())));
+
+        assertEquals(Collections.emptyList(), update(view));
+    }
+
+    @Test
+    public void patchedWithCount() {
+        FilterView view = new FilterView(Parser.parse("label:feature count:2"));
+        assertEquals(Arrays.asList(10, 8), update(view));
+
+        // Outside the first two, then moving into them
+        models.replaceIssueLabels(REPO, 4, Arrays.asList("type.bug"));
+        assertUpToDate(view);
+        assertEquals(Arrays.asList(10, 8), update(view));
+        models.replaceIssueLabels(REPO, 9, Arrays.asList("type.feature"));
+        assertUpToDate(view);
+        assertEquals(Arrays.asList(10, 9), update(view));
+
+        // Leaving the first two
+        models.replaceIssueLabels(REPO, 10, Arrays.asList("type.bug"));
+        assertUpToDate(view);
+        assertEquals(Arrays.asList(9, 8), update(view));
+    }
+
+    @Test
+    public void coversOnlyUpdatedRepos() {
+        FilterView view = new FilterView(Parser.parse("state:open"));
+        assertTrue(view.coversOnly(Collections.emptySet()));
+
+        update(view);
+        assertTrue(view.coversOnly(new HashSet<>(Arrays.asList(REPO))));
+        assertFalse(view.coversOnly(new HashSet<>(Arrays.asList("other/repo"))));
+    }
+
+    @Test
+    public void reusedWithSameSnapshot() {
+        FilterView view = new FilterView(Parser.parse("label:bug"));
+        MultiModel.Snapshot snapshot = models.getSnapshot();
+        assertEquals(Arrays.asList(9, 6, 3), update(view, snapshot));
+
+        // Changed through the model only, so without publishing a new snapshot
+        models.get(REPO).replaceIssueLabels(2, Arrays.asList("type.bug"));
+        assertEquals(Arrays.asList(9, 6, 3), update(view, snapshot));
+        assertEquals(Arrays.asList(9, 6, 3, 2), update(new FilterView(view.getSource()), snapshot));
+    }
+}
@@ -0,0 +1,256 @@
+package tests;
+
+import backend.interfaces.IModel;
+import backend.resource.*;
+import filter.Parser;
+import filter.expression.CompiledFilter;
+import filter.expression.SharedEvaluation;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IssueIndexTests {
+
+    private static final String REPO = "test/test";
+
+    private Model model;
+    private IModel models;
+
+    @Before
+    public void setup() {
+        model = createModel(REPO);
+        models = TestUtils.singletonModel(model);
+    }
+
+    private static Model createModel(String repo) {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            TurboIssue issue = new TurboIssue(repo, i, "Issue " + i, "author" + (i % 3),
+                                              LocalDateTime.of(2015, 1, i, 12, 0), i % 4 == 0);
+            issue.setOpen(i % 2 == 1);
+            // Long enough to be held compressed
+            issue.setDescription(i % 4 == 1
+                ? String.join(" ", Collections.nCopies(20, "Crashes on startup " + i + "."))
+                : "Description of issue " + i);
+            issue.setLabels(new ArrayList<>(Arrays.asList(
+                i % 3 == 0 ? "type.bug" : "type.feature",
+                i % 2 == 0 ? "p.high" : "p.low")));
+            if (i <= 4) {
+                issue.setAssignee("user" + i);
+            }
+            if (i % 5 == 0) {
+                issue.setMilestone(i / 5);
+            }
+            // Not a label of the repo, so it should never match
+            issue.addLabel("unknown");
+            issues.add(issue);
+        }
+
+        List<TurboLabel> labels = Arrays.asList("type.bug", "type.feature", "p.high", "p.low").stream()
+            .map(name -> new TurboLabel(repo, name))
+            .collect(Collectors.toList());
+        List<TurboMilestone> milestones = Arrays.asList(
+            new TurboMilestone(repo, 1, "v0.1"), new TurboMilestone(repo, 2, "v0.2"));
+        List<TurboUser> users = Arrays.asList(
+            new TurboUser(repo, "user1", "Alice"), new TurboUser(repo, "user2"),
+            new TurboUser(repo, "user3"), new TurboUser(repo, "user4"));
+
+        return new Model(repo, issues, new ArrayList<>(labels), new ArrayList<>(milestones),
+                         new ArrayList<>(users));
+    }
+
+    /**
+     * Evaluating a filter against the index must give the same result as testing each issue.
+     */
+    @Test
+    public void indexedEvaluationMatchesIssueByIssueEvaluation() {
+        List<String> filters = Arrays.asList(
+            "", "label:bug", "label:type", "label:type.", "label:P.", "label:ype.", "-label:p.", "label:p.high",
+            "label:unknown", "-label:feature", "assignee:user", "assignee:alice", "author:author1",
+            "involves:user2", "milestone:v0",
+            "milestone:0.2", "state:open", "state:closed", "is:pr label:bug", "id:>4 state:open",
+            "label:bug OR assignee:user1", "NOT (state:open OR label:p.high)", "repo:other/repo",
+            "repo:" + REPO + " issue", "title:issue count:3", "label:bug;p.low",
+            "no:milestone -assignee:user3", "issue", "ISSUE 1", "crash", "cr", "nothing", "title:issue 1",
+            "description:startup", "in:title issue 1", "in:description issue", "title:\"issue 1\" -crash",
+            "id:3", "id:3 .. 7", "id:>10 OR type:pr", "type:issue state:open", "-type:pr", "created:2015-1-5",
+            "created:<2015-1-4", "created:>=2015-1-10", "created:2015-1-3 .. 2015-1-6",
+            "created:2015-1-6 .. 2015-1-3", "created:2014-12-1 .. * label:bug");
+
+        for (String filter : filters) {
+            CompiledFilter compiled = CompiledFilter.compile(models, Parser.parse(filter));
+            List<TurboIssue> expected = model.getIssues().stream()
+                .filter(compiled::isSatisfiedBy)
+                .collect(Collectors.toList());
+            assertEquals(filter, expected, compiled.getMatchingIssues(Arrays.asList(model)));
+        }
+    }
+
+    /**
+     * Issues without titles or descriptions, as the stores may hold, are indexed as having empty text.
+     */
+    @Test
+    public void issuesWithoutText() {
+        TurboIssue untitled = new TurboIssue(REPO, 13, "Issue 13");
+        untitled.setTitle(null);
+        untitled.setDescription(null);
+        List<TurboIssue> issues = new ArrayList<>(model.getIssues());
+        issues.add(untitled);
+        Model withUntitled = new Model(REPO, issues, model.getLabels(), model.getMilestones(), model.getUsers());
+        IModel withUntitledModels = TestUtils.singletonModel(withUntitled);
+
+        // Matching as before, while text qualifiers never match the issue
+        for (String filter : Arrays.asList("", "id:13", "state:open", "id:>10 state:open")) {
+            CompiledFilter compiled = CompiledFilter.compile(withUntitledModels, Parser.parse(filter));
+            List<TurboIssue> expected = withUntitled.getIssues().stream()
+                .filter(compiled::isSatisfiedBy)
+                .collect(Collectors.toList());
+            assertEquals(filter, expected, compiled.getMatchingIssues(Arrays.asList(withUntitled)));
+        }
+        for (String filter : Arrays.asList("issue 1", "title:issue", "description:startup", "id:13 -crash")) {
+            CompiledFilter compiled = CompiledFilter.compile(withUntitledModels, Parser.parse(filter));
+            List<TurboIssue> expected = filter.startsWith("id:13")
+                ? Arrays.asList(untitled)
+                : CompiledFilter.compile(models, Parser.parse(filter)).getMatchingIssues(Arrays.asList(model));
+            assertEquals(filter, expected, compiled.getMatchingIssues(Arrays.asList(withUntitled),
+                new SharedEvaluation(Arrays.asList(compiled))));
+        }
+    }
+
+    /**
+     * Filters evaluated together share the results of common conjuncts without affecting each other.
+     */
+    @Test
+    public void sharedEvaluationMatchesSeparateEvaluation() {
+        List<CompiledFilter> filters = Arrays.asList(
+            "label:bug state:open", "state:closed label:bug", "label:bug assignee:user3 state:open",
+            "label:bug (state:open OR label:p.high)", "issue label:bug", "in:title issue 1 label:bug", "").stream()
+            .map(filter -> CompiledFilter.compile(models, Parser.parse(filter)))
+            .collect(Collectors.toList());
+
+        SharedEvaluation shared = new SharedEvaluation(filters);
+        for (CompiledFilter filter : filters) {
+            assertEquals(filter.getSource().toString(), filter.getMatchingIssues(Arrays.asList(model)),
+                         filter.getMatchingIssues(Arrays.asList(model), shared));
+        }
+    }
+
+    /**
+     * Evaluating the repos of the models in parallel gives the same result, in the same order.
+     */
+    @Test
+    public void parallelEvaluationMatchesSequentialEvaluation() {
+        List<Model> repoModels = Arrays.asList(model, createModel("test/other"), createModel("test/another"));
+        List<CompiledFilter> filters = Arrays.asList("label:bug state:open", "issue", "-label:feature", "").stream()
+            .map(filter -> CompiledFilter.compile(models, Parser.parse(filter)))
+            .collect(Collectors.toList());
+
+        SharedEvaluation shared = new SharedEvaluation(filters, true);
+        List<List<TurboIssue>> results = new ForkJoinPool(4).submit(() -> filters.parallelStream()
+            .map(filter -> filter.getMatchingIssues(repoModels, shared))
+            .collect(Collectors.toList())).join();
+        for (int i = 0; i < filters.size(); i++) {
+            assertEquals(filters.get(i).getSource().toString(),
+                         filters.get(i).getMatchingIssues(repoModels), results.get(i));
+        }
+    }
+
+    @Test
+    public void indexUpdatedOnLabelReplacement() {
+        CompiledFilter compiled = CompiledFilter.compile(models, Parser.parse("label:bug"));
+        assertEquals(4, compiled.getMatchingIssues(Arrays.asList(model)).size());
+
+        model.replaceIssueLabels(1, Arrays.asList("type.bug"));
+        model.replaceIssueLabels(3, Arrays.asList("p.low"));
+
+        List<Integer> ids = compiled.getMatchingIssues(Arrays.asList(model)).stream()
+            .map(TurboIssue::getId)
+            .collect(Collectors.toList());
+        assertEquals(Arrays.asList(1, 6, 9, 12), ids);
+
+        BitSet priorities = model.getIssueIndex().withLabelGroups(group -> group.equals("p"));
+        assertFalse(priorities.get(model.getIssueIndex().getOrdinal(1).get()));
+        assertTrue(priorities.get(model.getIssueIndex().getOrdinal(3).get()));
+    }
+
+    @Test
+    public void textIndexDerivedFromPreviousModel() {
+        CompiledFilter compiled = CompiledFilter.compile(models, Parser.parse("renamed"));
+        assertEquals(0, compiled.getMatchingIssues(Arrays.asList(model)).size());
+
+        TurboIssue renamed = new TurboIssue(REPO, 2, "Renamed issue");
+        renamed.setDescription("");
+        List<TurboIssue> issues = TurboIssue.reconcile(model.getIssues(), Arrays.asList(renamed));
+        // Changed in place rather than through reconciliation
+        issues.get(4).setDescription("Also renamed");
+
+        Model updated = new Model(REPO, issues, model.getLabels(), model.getMilestones(), model.getUsers());
+        updated.deriveIndexFrom(model);
+
+        List<Integer> ids = compiled.getMatchingIssues(Arrays.asList(updated)).stream()
+            .map(TurboIssue::getId)
+            .collect(Collectors.toList());
+        assertEquals(Arrays.asList(2, 5), ids);
+    }
+
+    /**
+     * The trigram index of a repo of realistic size must take less memory than the text it indexes.
+     */
+    @Test
+    public void textIndexFootprint() {
+        Random random = new Random(0);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 3 + random.nextInt(8); word.length() < length;) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+
+        List<TurboIssue> issues = new ArrayList<>();
+        long textLength = 0;
+        for (int i = 1; i <= 3000; i++) {
+            StringBuilder description = new StringBuilder();
+            while (description.length() < 1500) {
+                // Some words are much more common than others, as in actual text
+                description.append(words.get(random.nextInt(random.nextInt(words.size()) + 1))).append(' ');
+            }
+            TurboIssue issue = new TurboIssue(REPO, i, "Issue " + words.get(random.nextInt(words.size())));
+            issue.setDescription(description.toString());
+            textLength += issue.getTitle().length() + description.length();
+            issues.add(issue);
+        }
+        Model large = new Model(REPO, issues, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        long size = large.getIssueIndex().getTextIndex().getEstimatedSize();
+        assertTrue("Text index takes " + size + " bytes for " + textLength + " characters", size < textLength);
+
+        // Derived indexes keep the same postings for the issues carried over
+        TurboIssue changed = new TurboIssue(REPO, 1, "Changed");
+        changed.setDescription(issues.get(1).getDescription());
+        Model updated = new Model(REPO, TurboIssue.reconcile(issues, Arrays.asList(changed)),
+                                  new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        updated.deriveIndexFrom(large);
+        Model rebuilt = new Model(REPO, updated.getIssues(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (String query : Arrays.asList(words.get(0), words.get(4999), "changed", "ab", issues.get(2).getTitle())) {
+            CompiledFilter filter = CompiledFilter.compile(TestUtils.singletonModel(updated), Parser.parse(query));
+            assertEquals(query, filter.getMatchingIssues(Arrays.asList(rebuilt)),
+                         filter.getMatchingIssues(Arrays.asList(updated)));
+        }
+        assertTrue(updated.getIssueIndex().getTextIndex().getEstimatedSize() < textLength);
+    }
+}
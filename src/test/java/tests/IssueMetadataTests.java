@@ -1,10 +1,15 @@
 package tests;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotSame;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.fail;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -36,11 +41,38 @@ public class IssueMetadataTests {
         assertEquals(3, metadata.getEvents().size());
         assertEquals(3, metadata.getComments().size());
 
-        metadata.getEvents().addAll(stubEvents());
-        metadata.getComments().addAll(stubComments());
+        try {
+            metadata.getEvents().addAll(stubEvents());
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(3, metadata.getEvents().size());
+        }
+        try {
+            metadata.getComments().addAll(stubComments());
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(3, metadata.getComments().size());
+        }
+    }
 
-        assertEquals(3, metadata.getEvents().size());
-        assertEquals(3, metadata.getComments().size());
+    @Test
+    public void sharing() {
+        IssueMetadata metadata = IssueMetadata.intermediate(stubEvents(), stubComments(), "events", "comments");
+
+        // Derived instances share the lists rather than copying them
+        IssueMetadata full = metadata.full("test");
+        assertSame(metadata.getEvents(), full.getEvents());
+        assertSame(metadata.getComments(), full.getComments());
+        assertSame(metadata.getEvents(), full.invalidate().getEvents());
+        assertSame(full.getEvents(), full.reconcile(LocalDateTime.now(), stubEvents(), "other").getEvents());
+        assertSame(metadata.getEvents(),
+            full.reconcile(LocalDateTime.now(), metadata.getEvents(), "events").getEvents());
+
+        // Comments are kept without their bodies
+        Comment comment = metadata.getComments().get(1);
+        assertNull(comment.getBody());
+        assertEquals("test-nonself", comment.getUser().getLogin());
+        assertEquals(now, comment.getCreatedAt());
     }
 
     @Test
@@ -99,7 +131,7 @@ public class IssueMetadataTests {
         IssueMetadata derived = original.full("test");
 
         assertEquals(originalEvents, derived.getEvents());
-        assertEquals(originalComments, derived.getComments());
+        assertSameComments(originalComments, derived.getComments());
         assertEquals("events", derived.getEventsETag());
         assertEquals("comments", derived.getCommentsETag());
 
@@ -114,7 +146,7 @@ public class IssueMetadataTests {
         IssueMetadata updated = derived.reconcile(rightNow, newEvents, "events2");
 
         assertEquals(originalEvents, updated.getEvents());
-        assertEquals(originalComments, updated.getComments());
+        assertSameComments(originalComments, updated.getComments());
         assertEquals("events", updated.getEventsETag());
         assertEquals("comments", updated.getCommentsETag());
 
@@ -122,11 +154,31 @@ public class IssueMetadataTests {
         updated = derived.reconcile(rightNow, newEvents, "events");
 
         assertEquals(newEvents, updated.getEvents());
-        assertEquals(originalComments, updated.getComments());
+        assertSameComments(originalComments, updated.getComments());
         assertEquals("events", updated.getEventsETag());
         assertEquals("comments", updated.getCommentsETag());
     }
 
+    @Test
+    public void unmodifiableListsFromOutsideCopied() {
+        List<TurboIssueEvent> events = Collections.unmodifiableList(stubEvents());
+        List<Comment> comments = Collections.unmodifiableList(stubComments());
+        IssueMetadata metadata = IssueMetadata.intermediate(events, comments, "events", "comments");
+
+        assertNotSame(events, metadata.getEvents());
+        assertNotSame(comments, metadata.getComments());
+        assertNull(metadata.getComments().get(0).getBody());
+        assertNotSame(events, metadata.full("test").reconcile(LocalDateTime.now(), events, "events").getEvents());
+    }
+
+    private static void assertSameComments(List<Comment> expected, List<Comment> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getUser().getLogin(), actual.get(i).getUser().getLogin());
+            assertEquals(expected.get(i).getCreatedAt(), actual.get(i).getCreatedAt());
+        }
+    }
+
     private static List<TurboIssueEvent> stubEvents() {
         List<TurboIssueEvent> events = new ArrayList<>();
         events.add(new TurboIssueEvent(new User().setLogin("test"), IssueEventType.Closed, now));
@@ -53,6 +53,8 @@ public class LogicTests {
     public void resetMockedObjects() {
         reset(mockedRepoIO);
         reset(mockedMultiModel);
+        // Refreshes read the models through a snapshot, here of none
+        when(mockedMultiModel.getSnapshot()).thenReturn(new MultiModel(mock(Preferences.class)).getSnapshot());
     }
 
     /**
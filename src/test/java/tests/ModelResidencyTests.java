@@ -0,0 +1,110 @@
+package tests;
+
+import backend.ModelResidency;
+import backend.resource.Model;
+import backend.resource.TurboIssue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModelResidencyTests {
+
+    private static Model createModel(String repoId, int issueCount) {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= issueCount; i++) {
+            issues.add(new TurboIssue(repoId, i, "Issue " + i));
+        }
+        return new Model(repoId, issues, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    @Test
+    public void retireAndReclaim() {
+        Model model = createModel("Test/Repo", 10);
+        ModelResidency residency = new ModelResidency(model.getEstimatedSize());
+
+        residency.retire(model);
+        assertTrue(residency.isIdle("test/repo"));
+        assertSame(model, residency.reclaim("test/REPO").get());
+
+        // Reclaimed models are no longer kept
+        assertFalse(residency.isIdle("test/repo"));
+        assertEquals(Optional.empty(), residency.reclaim("test/repo"));
+    }
+
+    @Test
+    public void leastRecentlyRetiredEvictedBeyondBudget() {
+        Model first = createModel("test/first", 10);
+        Model second = createModel("test/second", 10);
+        Model third = createModel("test/third", 10);
+        ModelResidency residency = new ModelResidency(first.getEstimatedSize() + second.getEstimatedSize());
+
+        residency.retire(first);
+        residency.retire(second);
+        residency.retire(third);
+        assertFalse(residency.isIdle("test/first"));
+        assertTrue(residency.isIdle("test/second"));
+        assertTrue(residency.isIdle("test/third"));
+
+        // Retiring a repo again replaces its model rather than counting it twice
+        residency.retire(createModel("test/third", 10));
+        assertTrue(residency.isIdle("test/second"));
+
+        residency.setBudget(third.getEstimatedSize());
+        assertFalse(residency.isIdle("test/second"));
+        assertTrue(residency.isIdle("test/third"));
+
+        // Models larger than the budget are not kept at all
+        residency.retire(createModel("test/large", 100));
+        assertFalse(residency.isIdle("test/large"));
+        assertFalse(residency.isIdle("test/third"));
+    }
+
+    @Test
+    public void compactIdleModels() {
+        Model model = createModel("test/repo", 100);
+        model.getIssueIndex();
+        ModelResidency residency = new ModelResidency(model.getEstimatedSize() / 2, true);
+
+        // Kept as a compact copy, which fits where the model would not
+        residency.retire(model);
+        assertTrue(residency.isIdle("test/repo"));
+
+        Model reclaimed = residency.reclaim("test/repo").get();
+        assertNotSame(model, reclaimed);
+        assertEquals(model, reclaimed);
+        assertFalse(residency.isIdle("test/repo"));
+    }
+
+    @Test
+    public void indexCountedInBudget() {
+        Model model = createModel("test/repo", 10);
+        long unindexedSize = model.getEstimatedSize();
+        model.getIssueIndex();
+        assertTrue(model.getEstimatedSize() > unindexedSize);
+
+        // An indexed model holds more than its issues alone
+        ModelResidency residency = new ModelResidency(unindexedSize);
+        residency.retire(model);
+        assertFalse(residency.isIdle("test/repo"));
+
+        // So does one with the index of a previous version still to be derived from
+        Model updated = createModel("test/repo", 10);
+        updated.deriveIndexFrom(model);
+        assertTrue(updated.getEstimatedSize() > unindexedSize);
+    }
+
+    @Test
+    public void noBudget() {
+        ModelResidency residency = new ModelResidency(0);
+        residency.retire(createModel("test/repo", 1));
+        assertFalse(residency.isIdle("test/repo"));
+    }
+}
@@ -7,10 +7,15 @@ import backend.stub.DummyRepo;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ModelTests {
 
@@ -48,21 +53,27 @@ public class ModelTests {
 
     @Test
     public void immutability() {
+        // Resources are returned without copying, so they cannot be modified
         Model other = new Model(modelUpdated);
-        other.getIssues().add(new TurboIssue(REPO, 11, ""));
+        assertUnmodifiable(() -> other.getIssues().add(new TurboIssue(REPO, 11, "")));
+        assertUnmodifiable(() -> other.getLabels().add(new TurboLabel(REPO, "aksdjl")));
+        assertUnmodifiable(() -> other.getMilestones().add(new TurboMilestone(REPO, 11, "")));
+        assertUnmodifiable(() -> other.getUsers().add(new TurboUser(REPO, "")));
         assertEquals(modelUpdated, other);
 
-        other = new Model(modelUpdated);
-        other.getLabels().add(new TurboLabel(REPO, "aksdjl"));
-        assertEquals(modelUpdated, other);
-
-        other = new Model(modelUpdated);
-        other.getMilestones().add(new TurboMilestone(REPO, 11, ""));
-        assertEquals(modelUpdated, other);
+        // Nor are they affected by changes to the lists a model was constructed from
+        List<TurboIssue> issues = new ArrayList<>(modelUpdated.getIssues());
+        Model fromList = new Model(REPO, issues, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        issues.add(new TurboIssue(REPO, 11, ""));
+        assertEquals(modelUpdated.getIssues(), fromList.getIssues());
+    }
 
-        other = new Model(modelUpdated);
-        other.getUsers().add(new TurboUser(REPO, ""));
-        assertEquals(modelUpdated, other);
+    private static void assertUnmodifiable(Runnable modification) {
+        try {
+            modification.run();
+            fail("Resources of a model should not be modifiable");
+        } catch (UnsupportedOperationException ignored) {
+        }
     }
 
     @Test
@@ -123,6 +134,36 @@ public class ModelTests {
         assertNotEquals(model, modelUpdated);
     }
 
+    @Test
+    public void digests() {
+        // Models with the same content have the same digest, whether or not they share resources
+        assertEquals(modelEmptySig.getDigest(), modelEmptySig2.getDigest());
+        assertEquals(modelUpdated.getDigest(), new Model(new SerializableModel(modelUpdated)).getDigest());
+        assertTrue(modelCopyUpdated.hasSameContentAs(modelUpdated));
+        assertFalse(modelEmptySig.hasSameContentAs(modelUpdated));
+
+        // Transient state is not stored, so it is not considered
+        List<TurboIssue> issues = new ArrayList<>();
+        modelUpdated.getIssues().forEach(issue -> issues.add(new TurboIssue(issue)));
+        issues.get(0).setMarkedReadAt(Optional.of(LocalDateTime.now()));
+        Model model = new Model(REPO, issues, modelUpdated.getLabels(),
+            modelUpdated.getMilestones(), modelUpdated.getUsers(), modelUpdated.getUpdateSignature());
+        assertTrue(model.hasSameContentAs(modelUpdated));
+
+        // Changes to issues are reflected in their content hashes
+        long contentHash = issues.get(0).getContentHash();
+        issues.get(0).setDescription("changed");
+        assertNotEquals(contentHash, issues.get(0).getContentHash());
+
+        // ... and changes through the model in its digest
+        model = new Model(REPO, issues, modelUpdated.getLabels(),
+            modelUpdated.getMilestones(), modelUpdated.getUsers(), modelUpdated.getUpdateSignature());
+        assertFalse(model.hasSameContentAs(modelUpdated));
+        long digest = model.getDigest();
+        model.replaceIssueLabels(issues.get(1).getId(), Arrays.asList("changed"));
+        assertNotEquals(digest, model.getDigest());
+    }
+
     @Test
     public void serialisation() {
         // Test for conversion to and from SerializableModel
@@ -205,6 +246,31 @@ public class ModelTests {
         }
     }
 
+    @Test
+    public void lookupsByKey() {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            issues.add(new TurboIssue(REPO, i * 7919, "Issue " + i));
+        }
+        // Duplicates resolve to the first, as a linear search would
+        issues.add(new TurboIssue(REPO, 7919, "Duplicate"));
+        List<TurboMilestone> milestones = Arrays.asList(
+            new TurboMilestone(REPO, 1, "v1"), new TurboMilestone(REPO, Integer.MAX_VALUE, "v2"));
+        List<TurboLabel> labels = Arrays.asList(new TurboLabel(REPO, "a"), new TurboLabel(REPO, "ffffff", "a"));
+        Model model = new Model(REPO, issues, labels, milestones, Arrays.asList(new TurboUser(REPO, "alice")));
+
+        for (int i = 1; i <= 1000; i++) {
+            assertEquals("Issue " + i, model.getIssueById(i * 7919).get().getTitle());
+        }
+        assertFalse(model.getIssueById(7918).isPresent());
+        assertEquals("v2", model.getMilestoneById(Integer.MAX_VALUE).get().getTitle());
+        assertFalse(model.getMilestoneById(2).isPresent());
+        assertSame(labels.get(0), model.getLabelByActualName("a").get());
+        assertFalse(model.getLabelByActualName("b").isPresent());
+        assertEquals("alice", model.getUserByLogin("alice").get().getLoginName());
+        assertFalse(model.getUserByLogin("bob").isPresent());
+    }
+
     @Test
     public void operations() {
 
@@ -4,6 +4,7 @@ import backend.RepoIO;
 import backend.json.JSONStoreStub;
 import backend.resource.Model;
 import backend.resource.MultiModel;
+import backend.resource.TurboIssue;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import prefs.Preferences;
@@ -98,4 +99,32 @@ public class MultiModelTest {
         models.replaceIssueLabels(repoId, issueId, labels);
         verify(mockedModel).replaceIssueLabels(issueId, labels);
     }
+
+    @Test
+    public void snapshots() {
+        String repoId = "testowner/testrepo";
+        List<TurboIssue> issues = new ArrayList<>(Arrays.asList(new TurboIssue(repoId, 1, "Issue")));
+        MultiModel models = new MultiModel(mock(Preferences.class));
+        models.queuePendingRepository(repoId);
+
+        MultiModel.Snapshot empty = models.getSnapshot();
+        models.addPending(new Model(repoId, issues, new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        MultiModel.Snapshot added = models.getSnapshot();
+
+        // Earlier snapshots are unaffected by later changes
+        assertTrue(added.getVersion() > empty.getVersion());
+        assertTrue(empty.getIssues().isEmpty());
+        assertEquals(issues, added.getIssues());
+
+        // Reads are not copied
+        assertSame(models.getIssues(), models.getIssues());
+        assertSame(models.toModels(), models.toModels());
+
+        // Changes to issues in place make a new version
+        models.replaceIssueLabels(repoId, 1, Arrays.asList("label"));
+        assertTrue(models.getSnapshot().getVersion() > added.getVersion());
+        models.setDefaultRepo(repoId);
+        assertEquals(repoId, models.getSnapshot().getDefaultRepo());
+        assertNull(added.getDefaultRepo());
+    }
 }
@@ -327,6 +327,59 @@ public class QualifierTests {
         assertEquals(expected, actual);
     }
 
+    /**
+     * Tests that sorting with extracted keys agrees with the comparator, and is stable,
+     * including when only the first few issues are selected
+     */
+    @Test
+    public void compiledSort() {
+        List<TurboIssue> issues = testModel.getIssues();
+        TurboIssue issue6 = new TurboIssue("testrepo/testrepo", 6, "Issue6");
+        TurboIssue issue7 = new TurboIssue("testrepo/testrepo", 7, "Issue7");
+        issue7.setMilestone(testModel.getMilestones().get(3));
+        issues.add(issue6);
+        issues.add(issue7);
+        Collections.shuffle(issues);
+
+        for (String sortText : Arrays.asList("sort:milestone,id", "sort:~milestone,~assignee",
+                                             "sort:comments,~date", "sort:status")) {
+            Qualifier sortQualifier = getMetaQualifiers(Parser.parse(sortText)).get(0);
+            List<TurboIssue> expected = new ArrayList<>(issues);
+            Collections.sort(expected, sortQualifier.getCompoundSortComparator(testModel, false));
+
+            assertEquals(sortText, expected, sortQualifier.compileSort(testModel, false).sort(issues));
+            for (int count = 0; count <= issues.size() + 1; count++) {
+                assertEquals(sortText, expected.subList(0, Math.min(count, expected.size())),
+                             sortQualifier.compileSort(testModel, false).sortFirst(issues, count));
+            }
+        }
+    }
+
+    /**
+     * Tests that sorting many issues, most of them tied, is stable
+     */
+    @Test
+    public void compiledSortOfManyIssues() {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            TurboIssue issue = new TurboIssue("testrepo/testrepo", i, "Issue" + i);
+            issue.setCommentCount(i % 5);
+            issue.setOpen(i % 3 != 0);
+            issues.add(issue);
+        }
+        Collections.shuffle(issues);
+
+        for (String sortText : Arrays.asList("sort:comments", "sort:~status,comments", "sort:id")) {
+            Qualifier sortQualifier = getMetaQualifiers(Parser.parse(sortText)).get(0);
+            List<TurboIssue> expected = new ArrayList<>(issues);
+            Collections.sort(expected, sortQualifier.getCompoundSortComparator(testModel, false));
+
+            assertEquals(sortText, expected, sortQualifier.compileSort(testModel, false).sort(issues));
+            assertEquals(sortText, expected.subList(0, 100),
+                         sortQualifier.compileSort(testModel, false).sortFirst(issues, 100));
+        }
+    }
+
     @Test
     public void sort() {
         FilterEvalTests filterEvalTester = new FilterEvalTests();
@@ -469,13 +522,13 @@ public class QualifierTests {
             issues.add(new TurboIssue(FilterEvalTests.REPO, i, ""));
         }
 
-        issues.get(0).getLabels().addAll(Arrays.asList("test.1"));
-        issues.get(1).getLabels().addAll(Arrays.asList("test.2"));
-        issues.get(2).getLabels().addAll(Arrays.asList("test.a"));
-        issues.get(3).getLabels().addAll(Arrays.asList("test.1", "test.2"));
-        issues.get(4).getLabels().addAll(Arrays.asList("test.a", "test.2"));
-        issues.get(5).getLabels().addAll(Arrays.asList("test.1", "test.2", "test.a"));
-        issues.get(6).getLabels().addAll(Arrays.asList("something"));
+        issues.get(0).setLabels(Arrays.asList("test.1"));
+        issues.get(1).setLabels(Arrays.asList("test.2"));
+        issues.get(2).setLabels(Arrays.asList("test.a"));
+        issues.get(3).setLabels(Arrays.asList("test.1", "test.2"));
+        issues.get(4).setLabels(Arrays.asList("test.a", "test.2"));
+        issues.get(5).setLabels(Arrays.asList("test.1", "test.2", "test.a"));
+        issues.get(6).setLabels(Arrays.asList("something"));
         // issues.get(7) has no labels
 
         for (int i = 0; i < 8; i++) {
@@ -1,10 +1,14 @@
 package tests;
 
 import backend.RepoIO;
+import backend.UpdateSignature;
 import backend.interfaces.RepoStore;
 import backend.json.JSONStore;
 import backend.json.JSONStoreStub;
 import backend.resource.Model;
+import backend.resource.serialization.SerializableModel;
+import backend.stub.DummyRepo;
+import com.google.gson.Gson;
 import guitests.UITest;
 import org.junit.After;
 import org.junit.Before;
@@ -17,9 +21,17 @@ import util.events.EventDispatcherStub;
 import util.events.testevents.UpdateDummyRepoEvent;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.*;
@@ -94,6 +106,58 @@ public class StoreTests {
         UI.status.clear();
     }
 
+    @Test
+    public void testRoundTrip() throws InterruptedException, ExecutionException, IOException {
+        String repoId = "dummy1/dummy1";
+        DummyRepo dummy = new DummyRepo();
+        Model model = new Model(repoId, dummy.getIssues(repoId), dummy.getLabels(repoId),
+            dummy.getMilestones(repoId), dummy.getCollaborators(repoId),
+            new UpdateSignature("issues", "labels", "milestones", "collaborators", new Date()));
+
+        JSONStore jsonStore = new JSONStore();
+        assertFalse(jsonStore.saveRepository(repoId, model).get());
+        Model loaded = jsonStore.loadRepository(repoId).get();
+        assertTrue(loaded.hasSameContentAs(model));
+        assertEquals(Arrays.asList(repoId), jsonStore.getStoredRepos());
+
+        // The stored format is still that of a serializable model
+        SerializableModel stored = new Gson().fromJson(
+            new String(Files.readAllBytes(Paths.get("store/test/dummy1-dummy1.json")), "UTF-8"),
+            SerializableModel.class);
+        assertTrue(new Model(stored).hasSameContentAs(model));
+    }
+
+    @Test
+    public void testManifest() throws InterruptedException, ExecutionException, IOException {
+        DummyRepo dummy = new DummyRepo();
+        JSONStore jsonStore = new JSONStore();
+        for (String repoId : Arrays.asList("dummy1/dummy1", "dummy2/dummy2")) {
+            assertFalse(jsonStore.saveRepository(repoId, new Model(repoId, dummy.getIssues(repoId),
+                dummy.getLabels(repoId), dummy.getMilestones(repoId), dummy.getCollaborators(repoId),
+                UpdateSignature.EMPTY)).get());
+        }
+        Path manifest = Paths.get("store/test/repos.manifest");
+        assertTrue(Files.exists(manifest));
+        Set<String> stored = new HashSet<>(Arrays.asList("dummy1/dummy1", "dummy2/dummy2"));
+        assertEquals(stored, new HashSet<>(new JSONStore().getStoredRepos()));
+
+        // Recorded files are not read
+        Path file = Paths.get("store/test/dummy2-dummy2.json");
+        FileTime modified = Files.getLastModifiedTime(file);
+        byte[] unreadable = new byte[(int) Files.size(file)];
+        Arrays.fill(unreadable, (byte) 'x');
+        Files.write(file, unreadable);
+        Files.setLastModifiedTime(file, modified);
+        assertEquals(stored, new HashSet<>(new JSONStore().getStoredRepos()));
+
+        // Those which are not are read, e.g. when the manifest is corrupted
+        Files.write(manifest, "abcde".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Arrays.asList("dummy1/dummy1"), new JSONStore().getStoredRepos());
+
+        assertFalse(jsonStore.removeStoredRepo("dummy1/dummy1").get());
+        assertTrue(new JSONStore().getStoredRepos().isEmpty());
+    }
+
     @Test(expected = ExecutionException.class)
     public void testCorruptedJSON() throws InterruptedException, ExecutionException {
         RepoStore.write("testrepo/testrepo", "abcde", 10);
@@ -0,0 +1,91 @@
+package tests;
+
+import org.junit.Test;
+import util.StripedExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StripedExecutorTests {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void sameKeyInOrder() throws InterruptedException, ExecutionException, TimeoutException {
+        StripedExecutor executor = new StripedExecutor(4);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            executor.execute("repo", () -> order.add(n));
+        }
+        executor.execute("repo", () -> done.complete(true));
+        done.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, order);
+    }
+
+    @Test
+    public void differentKeysInParallel() throws InterruptedException {
+        StripedExecutor executor = new StripedExecutor(2);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch finished = new CountDownLatch(2);
+        for (String key : Arrays.asList("repo1", "repo2")) {
+            executor.execute(key, () -> {
+                // Each waits for the other to start
+                started.countDown();
+                try {
+                    if (started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                        finished.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(finished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void reentrant() throws InterruptedException, ExecutionException, TimeoutException {
+        StripedExecutor executor = new StripedExecutor(1);
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        executor.execute("repo", () -> {
+            // Would never run if queued behind this
+            CompletableFuture<Boolean> inner = new CompletableFuture<>();
+            executor.execute("repo", () -> inner.complete(true));
+            done.complete(inner.join());
+        });
+        assertTrue(done.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void executeLater() throws InterruptedException, ExecutionException, TimeoutException {
+        StripedExecutor executor = new StripedExecutor(4);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        executor.execute("repo", () -> {
+            executor.executeLater("repo", () -> {
+                order.add("later");
+                done.complete(true);
+            });
+            order.add("first");
+        });
+        done.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("first", "later"), order);
+    }
+}
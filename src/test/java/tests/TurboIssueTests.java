@@ -1,5 +1,6 @@
 package tests;
 
+import backend.resource.IssueMerge;
 import backend.resource.TurboIssue;
 import backend.resource.TurboLabel;
 import org.eclipse.egit.github.core.Issue;
@@ -11,6 +12,7 @@ import util.Utility;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -53,6 +55,61 @@ public class TurboIssueTests {
         assertEquals("test label", turboIssue.getLabels().get(0));
     }
 
+    /**
+     * Tests that issues of the same repo share their logins and label lists
+     */
+    @Test
+    public void sharedSymbols() {
+        List<TurboIssue> issues = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            Issue issue = new Issue();
+            issue.setNumber(i);
+            issue.setUser(new User().setLogin(new String("test_user")));
+            issue.setCreatedAt(new Date());
+            issue.setState("open");
+            issue.setLabels(Arrays.asList(new Label().setName(new String("label1")),
+                                          new Label().setName(new String("label2"))));
+            issues.add(new TurboIssue(REPO, issue));
+        }
+
+        assertSame(issues.get(0).getCreator(), issues.get(1).getCreator());
+        assertSame(issues.get(0).getLabels(), issues.get(1).getLabels());
+        assertSame(issues.get(0).getRepoId(), issues.get(1).getRepoId());
+
+        // Shared label lists cannot be modified, but issues can still change their labels
+        try {
+            issues.get(0).getLabels().add("label3");
+            fail("Label lists should not be modifiable");
+        } catch (UnsupportedOperationException ignored) {
+        }
+        issues.get(0).addLabel("label3");
+        assertEquals(Arrays.asList("label1", "label2", "label3"), issues.get(0).getLabels());
+        assertEquals(Arrays.asList("label1", "label2"), issues.get(1).getLabels());
+        issues.get(1).setLabels(new ArrayList<>(Arrays.asList("label1", "label2", "label3")));
+        assertSame(issues.get(0).getLabels(), issues.get(1).getLabels());
+    }
+
+    /**
+     * Tests that long descriptions, which are held compressed, are read back intact and compared by content
+     */
+    @Test
+    public void longDescriptions() {
+        String description = String.join("\n", Collections.nCopies(100, "A long description \u00e9\u4e2d"));
+        TurboIssue issue = new TurboIssue(REPO, 1, "");
+        issue.setDescription(description);
+        assertEquals(description, issue.getDescription());
+
+        TurboIssue other = new TurboIssue(issue);
+        other.setDescription(new String(description));
+        assertEquals(issue, other);
+        assertEquals(issue.hashCode(), other.hashCode());
+        assertEquals(issue.getContentHash(), other.getContentHash());
+
+        other.setDescription(description + ".");
+        assertNotEquals(issue, other);
+        assertEquals(description + ".", other.getDescription());
+    }
+
     /**
      * Tests TurboIssue's isCurrentRead method
      */
@@ -113,6 +170,43 @@ public class TurboIssueTests {
         assertEquals(issue4.getUpdatedAt(), newIssue4.getUpdatedAt());
     }
 
+    /**
+     * Tests that merging issue and pull request updates reports which issues were added, changed
+     * and carried over unchanged
+     */
+    @Test
+    public void merge_reportsChanges() {
+        TurboIssue issue1 = createIssueWithUpdatedAt(1, LocalDateTime.of(2015, 2, 17, 2, 10));
+        TurboIssue issue2 = createIssueWithUpdatedAt(2, LocalDateTime.of(2015, 2, 18, 2, 10));
+        TurboIssue issue3 = createIssueWithUpdatedAt(3, LocalDateTime.of(2015, 2, 19, 2, 10));
+        List<TurboIssue> existing = Arrays.asList(issue1, issue2, issue3);
+
+        TurboIssue updated2 = createIssueWithUpdatedAt(2, LocalDateTime.of(2015, 3, 1, 2, 10));
+        TurboIssue added4 = createIssueWithUpdatedAt(4, LocalDateTime.of(2015, 3, 1, 2, 10));
+        TurboIssue updated4 = createIssueWithUpdatedAt(4, LocalDateTime.of(2015, 3, 2, 2, 10));
+        List<PullRequest> pullRequests = Arrays.asList(
+            createPullRequestWithUpdatedAt(1, LocalDateTime.of(2015, 2, 17, 2, 9)),
+            createPullRequestWithUpdatedAt(3, LocalDateTime.of(2015, 7, 7, 1, 21)),
+            createPullRequestWithUpdatedAt(5, LocalDateTime.of(2015, 7, 7, 1, 21)));
+
+        IssueMerge merge = IssueMerge.merge(existing, Arrays.asList(updated2, added4, updated4), pullRequests);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4),
+                     merge.getIssues().stream().map(TurboIssue::getId).collect(Collectors.toList()));
+        assertEquals(updated4.getUpdatedAt(), merge.getIssues().get(3).getUpdatedAt());
+        assertEquals(updated2.getUpdatedAt(), merge.getIssues().get(1).getUpdatedAt());
+        assertEquals(LocalDateTime.of(2015, 7, 7, 1, 21), merge.getIssues().get(2).getUpdatedAt());
+        assertEquals("1 issue(s) added, 2 changed, 1 unchanged", merge.toString());
+        assertEquals(new HashSet<>(Arrays.asList(4)), merge.getAddedIds());
+        assertEquals(new HashSet<>(Arrays.asList(2, 3)), merge.getChangedIds());
+        assertEquals(new HashSet<>(Arrays.asList(2, 3, 4)), merge.getUpdatedIds());
+
+        // Issues not updated, including by stale pull requests, are the same instances
+        assertSame(issue1, merge.getIssues().get(0));
+        assertFalse(merge.isEmpty());
+        assertTrue(IssueMerge.merge(existing, new ArrayList<>(), new ArrayList<>()).isEmpty());
+    }
+
     /**
      * Tests that when an issue is created and no manual labels change have been made, the labels
      * modified time is equal to the issue's updatedAt time
@@ -174,4 +268,17 @@ public class TurboIssueTests {
                                                             Arrays.asList(updatedIssue));
         assertEquals(originalLabels, updatedList.get(0).getLabels());
     }
+
+    @Test
+    public void labelListsShared() {
+        TurboIssue issue1 = new TurboIssue("testrepo/testrepo", 1, "Issue 1");
+        TurboIssue issue2 = new TurboIssue("testrepo/testrepo", 2, "Issue 2");
+        issue1.setLabels(new ArrayList<>(Arrays.asList("type.bug", "priority.high")));
+        issue2.setLabels(new ArrayList<>(Arrays.asList("type.bug", "priority.high")));
+        assertSame(issue1.getLabels(), issue2.getLabels());
+
+        issue2.addLabel("status.ongoing");
+        assertEquals(Arrays.asList("type.bug", "priority.high", "status.ongoing"), issue2.getLabels());
+        assertEquals(Arrays.asList("type.bug", "priority.high"), issue1.getLabels());
+    }
 }
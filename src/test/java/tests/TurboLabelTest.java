@@ -1,5 +1,6 @@
 package tests;
 
+import backend.resource.LabelName;
 import backend.resource.TurboLabel;
 import org.eclipse.egit.github.core.Label;
 import org.junit.Test;
@@ -7,6 +8,7 @@ import org.junit.Test;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class TurboLabelTest {
 
@@ -55,6 +57,21 @@ public class TurboLabelTest {
         assertEquals(false, label.isExclusive());
     }
 
+    @Test
+    public void parsedNames() {
+        assertEquals(Optional.of("."), TurboLabel.getDelimiter("a.b-c"));
+        assertEquals(Optional.of("-"), TurboLabel.getDelimiter("a-b.c"));
+        assertEquals(Optional.<String>empty(), TurboLabel.getDelimiter(".a-b"));
+        assertEquals(Optional.<String>empty(), TurboLabel.getDelimiter("ab"));
+
+        // Parsed names are shared, and so are their lower-cased forms
+        LabelName parsed = new TurboLabel(REPO, "Priority.High").getParsedName();
+        assertSame(parsed, new TurboLabel(REPO, "Priority.High").getParsedName());
+        assertSame(LabelName.of("priority.high"), parsed.toLowerCase());
+        assertEquals(Optional.of("priority"), parsed.toLowerCase().getGroup());
+        assertEquals("high", parsed.toLowerCase().getName());
+    }
+
     @Test
     public void styleTest() {
         TurboLabel label1 = new TurboLabel(REPO, "name1");